@@ -0,0 +1,190 @@
+package com.mistraltech.smog.benchmarks;
+
+import com.mistraltech.smog.core.CompiledMatcher;
+import com.mistraltech.smog.core.CompositePropertyMatcher;
+import com.mistraltech.smog.core.MethodHandleMatcher;
+import com.mistraltech.smog.core.PropertyMatcher;
+import com.mistraltech.smog.core.ReflectingPropertyMatcher;
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+
+/**
+ * Compares the execution engines for a Person &rarr; Address &rarr; PostCode matcher graph: the frozen matcher
+ * tree, the flat program run by {@link CompiledMatcher}, the method handle predicate of {@link MethodHandleMatcher},
+ * and the same predicate invoked from a {@code static final} field, where the JIT can inline it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledMatcherBenchmark {
+    private static final MethodHandle PREDICATE =
+            MethodHandleMatcher.compile(personMatcher(), Person.class).asMethodHandle();
+
+    private Matcher<Person> interpreted;
+    private Matcher<Person> compiled;
+    private Matcher<Person> methodHandle;
+    private Person bob;
+    private Person dennis;
+
+    @Setup
+    public void setUp() {
+        interpreted = personMatcher().freeze();
+        compiled = CompiledMatcher.compile(personMatcher());
+        methodHandle = MethodHandleMatcher.compile(personMatcher(), Person.class);
+        bob = People.BOB;
+        dennis = People.DENNIS;
+    }
+
+    @Benchmark
+    public boolean interpretedMatches() {
+        return interpreted.matches(bob);
+    }
+
+    @Benchmark
+    public boolean interpretedMismatches() {
+        return interpreted.matches(dennis);
+    }
+
+    @Benchmark
+    public boolean compiledMatches() {
+        return compiled.matches(bob);
+    }
+
+    @Benchmark
+    public boolean compiledMismatches() {
+        return compiled.matches(dennis);
+    }
+
+    @Benchmark
+    public boolean methodHandleMatches() {
+        return methodHandle.matches(bob);
+    }
+
+    @Benchmark
+    public boolean methodHandleMismatches() {
+        return methodHandle.matches(dennis);
+    }
+
+    @Benchmark
+    public boolean staticMethodHandleMatches() throws Throwable {
+        return (boolean) PREDICATE.invokeExact((Object) bob);
+    }
+
+    @Benchmark
+    public boolean staticMethodHandleMismatches() throws Throwable {
+        return (boolean) PREDICATE.invokeExact((Object) dennis);
+    }
+
+    private static PersonMatcher personMatcher() {
+        return new PersonMatcher()
+                .hasName(equalTo("bob"))
+                .hasAge(greaterThan(30))
+                .hasAddress(new AddressMatcher()
+                        .hasHouseNumber(equalTo(21))
+                        .hasPostCode(new PostCodeMatcher().hasOuter(equalTo("out")).hasInner(equalTo("in"))));
+    }
+
+    /**
+     * Matchers whose properties are all read by reflection, so that each engine can compile the whole graph.
+     */
+    private static final class PersonMatcher extends CompositePropertyMatcher<Person> {
+        private final PropertyMatcher<String> nameMatcher = new ReflectingPropertyMatcher<String>("name", this);
+        private final PropertyMatcher<Integer> ageMatcher = new ReflectingPropertyMatcher<Integer>("age", this);
+        private final PropertyMatcher<Address> addressMatcher = new ReflectingPropertyMatcher<Address>("address", this);
+
+        private PersonMatcher() {
+            super("a Person");
+        }
+
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return true;
+        }
+
+        private PersonMatcher hasName(Matcher<? super String> matcher) {
+            nameMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        private PersonMatcher hasAge(Matcher<? super Integer> matcher) {
+            ageMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        private PersonMatcher hasAddress(Matcher<? super Address> matcher) {
+            addressMatcher.setMatcher(matcher);
+            return this;
+        }
+    }
+
+    private static final class AddressMatcher extends CompositePropertyMatcher<Address> {
+        private final PropertyMatcher<Integer> houseNumberMatcher =
+                new ReflectingPropertyMatcher<Integer>("houseNumber", this);
+        private final PropertyMatcher<PostCode> postCodeMatcher =
+                new ReflectingPropertyMatcher<PostCode>("postCode", this);
+
+        private AddressMatcher() {
+            super("an Address");
+        }
+
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return true;
+        }
+
+        private AddressMatcher hasHouseNumber(Matcher<? super Integer> matcher) {
+            houseNumberMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        private AddressMatcher hasPostCode(Matcher<? super PostCode> matcher) {
+            postCodeMatcher.setMatcher(matcher);
+            return this;
+        }
+    }
+
+    private static final class PostCodeMatcher extends CompositePropertyMatcher<PostCode> {
+        private final PropertyMatcher<String> outerMatcher = new ReflectingPropertyMatcher<String>("outer", this);
+        private final PropertyMatcher<String> innerMatcher = new ReflectingPropertyMatcher<String>("inner", this);
+
+        private PostCodeMatcher() {
+            super("a PostCode");
+        }
+
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return true;
+        }
+
+        private PostCodeMatcher hasOuter(Matcher<? super String> matcher) {
+            outerMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        private PostCodeMatcher hasInner(Matcher<? super String> matcher) {
+            innerMatcher.setMatcher(matcher);
+            return this;
+        }
+    }
+}
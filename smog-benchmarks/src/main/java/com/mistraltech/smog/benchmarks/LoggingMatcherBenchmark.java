@@ -0,0 +1,74 @@
+package com.mistraltech.smog.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.mistraltech.smog.core.CompositePropertyMatcher;
+import com.mistraltech.smog.core.LoggingCompositePropertyMatcher;
+import com.mistraltech.smog.core.MatchAccumulator;
+import com.mistraltech.smog.core.PropertyMatcher;
+import com.mistraltech.smog.examples.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+/**
+ * Measures a failing match with a {@link LoggingCompositePropertyMatcher}, with debug logging
+ * enabled and disabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingMatcherBenchmark {
+    @Param({"false", "true"})
+    private boolean debugEnabled;
+
+    private LoggingPersonMatcher matcher;
+    private Person dennis;
+
+    @Setup
+    public void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger(CompositePropertyMatcher.class);
+        logger.setLevel(debugEnabled ? Level.DEBUG : Level.INFO);
+
+        matcher = new LoggingPersonMatcher();
+        dennis = People.DENNIS;
+    }
+
+    @Benchmark
+    public boolean mismatches() {
+        return matcher.matches(dennis);
+    }
+
+    private static class LoggingPersonMatcher extends LoggingCompositePropertyMatcher<Person> {
+        private final PropertyMatcher<String> nameMatcher = new PropertyMatcher<String>("name", this);
+        private final PropertyMatcher<Integer> ageMatcher = new PropertyMatcher<Integer>("age", this);
+
+        LoggingPersonMatcher() {
+            super("a Person");
+            nameMatcher.setMatcher(equalTo("bob"));
+            ageMatcher.setMatcher(equalTo(34));
+        }
+
+        @Override
+        protected void matchesSafely(Person item, MatchAccumulator matchAccumulator) {
+            matchAccumulator.matches(nameMatcher, item.getName());
+            matchAccumulator.matches(ageMatcher, item.getAge());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mistraltech.smog.benchmarks;
+
+import com.mistraltech.smog.examples.simple.matcher.PersonMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher.aPostCodeThat;
+
+/**
+ * Measures the cost of creating matchers, which tests typically do once per assertion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherConstructionBenchmark {
+    @Benchmark
+    public PersonMatcher createEmpty() {
+        return aPersonThat();
+    }
+
+    @Benchmark
+    public PersonMatcher createNested() {
+        return aPersonThat()
+                .hasName("bob")
+                .hasAge(34)
+                .hasAddress(anAddressThat()
+                        .hasHouseNumber(21)
+                        .hasPostCode(aPostCodeThat().hasOuter("out").hasInner("in")));
+    }
+}
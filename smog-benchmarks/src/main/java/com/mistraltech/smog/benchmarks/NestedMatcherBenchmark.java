@@ -0,0 +1,66 @@
+package com.mistraltech.smog.benchmarks;
+
+import com.mistraltech.smog.examples.model.Person;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher.aPostCodeThat;
+
+/**
+ * Measures a Person &rarr; Address &rarr; PostCode matcher graph, both when it matches and
+ * through the mismatch path that describes every mismatching property.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NestedMatcherBenchmark {
+    private Matcher<Person> matcher;
+    private Person bob;
+    private Person dennis;
+
+    @Setup
+    public void setUp() {
+        matcher = aPersonThat()
+                .hasName("bob")
+                .hasAge(34)
+                .hasAddress(anAddressThat()
+                        .hasHouseNumber(21)
+                        .hasPostCode(aPostCodeThat().hasOuter("out").hasInner("in")));
+        bob = People.BOB;
+        dennis = People.DENNIS;
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return matcher.matches(bob);
+    }
+
+    @Benchmark
+    public boolean mismatches() {
+        return matcher.matches(dennis);
+    }
+
+    @Benchmark
+    public String describeMismatch() {
+        StringDescription description = new StringDescription();
+        matcher.describeMismatch(dennis, description);
+        return description.toString();
+    }
+}
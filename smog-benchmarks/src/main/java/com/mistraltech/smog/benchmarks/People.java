@@ -0,0 +1,30 @@
+package com.mistraltech.smog.benchmarks;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.Phone;
+import com.mistraltech.smog.examples.model.PostCode;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.model.PhoneType.Home;
+
+/**
+ * The items matched by the benchmarks.
+ */
+final class People {
+    static final Person BOB = aPerson()
+            .withName("bob")
+            .withAge(34)
+            .withAddress(new Address(21, new PostCode("out", "in")))
+            .addPhone(Home, new Phone("123", "456456"))
+            .build();
+
+    static final Person DENNIS = aPerson()
+            .withName("dennis")
+            .withAge(36)
+            .withAddress(new Address(22, new PostCode("out", "up")))
+            .build();
+
+    private People() {
+    }
+}
@@ -0,0 +1,58 @@
+package com.mistraltech.smog.benchmarks;
+
+import com.mistraltech.smog.core.PropertyAccessStrategy;
+import com.mistraltech.smog.core.ReflectingPropertyMatcher;
+import com.mistraltech.smog.core.util.PropertyAccessorCache;
+import com.mistraltech.smog.examples.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+
+/**
+ * Measures reading a property by reflection and applying its matcher, with each property access strategy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectingPropertyMatcherBenchmark {
+    @Param({"REFLECTION", "METHOD_HANDLE"})
+    public PropertyAccessStrategy accessStrategy;
+
+    private ReflectingPropertyMatcher<String> nameMatcher;
+    private Person bob;
+    private Person dennis;
+
+    @Setup
+    public void setUp() {
+        nameMatcher = new ReflectingPropertyMatcher<String>("name", null, null,
+                new PropertyAccessorCache(accessStrategy));
+        nameMatcher.setMatcher(equalTo("bob"));
+        bob = People.BOB;
+        dennis = People.DENNIS;
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return nameMatcher.matches(bob);
+    }
+
+    @Benchmark
+    public boolean mismatches() {
+        return nameMatcher.matches(dennis);
+    }
+}
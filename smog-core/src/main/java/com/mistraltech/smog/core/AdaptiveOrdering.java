@@ -0,0 +1,293 @@
+package com.mistraltech.smog.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Learns the order in which a {@link CompositePropertyMatcher} should evaluate its registered property matchers
+ * when only a boolean result is wanted (see {@link CompositePropertyMatcher#useAdaptiveOrdering(AdaptiveOrdering)}).
+ * <p>
+ * The failure rate of each property matcher is tracked, as is its evaluation time for a sample of evaluations.
+ * Periodically the property matchers are ranked so that those that are cheap and frequently fail are
+ * evaluated first, which minimises the expected time to reach a fail-fast result. Mismatch descriptions
+ * are unaffected and always follow the declared order.
+ * <p>
+ * The learned order can be stored in, and loaded from, a {@link Properties} object so that it survives
+ * between runs. It is stored as a comma-separated list of property names.
+ * <p>
+ * An instance can be used by one composite matcher only. The statistics are updated without synchronization,
+ * so they are approximate when the matcher is used concurrently, but they are always consistent enough to rank.
+ */
+public final class AdaptiveOrdering {
+    private static final int DEFAULT_REORDER_INTERVAL = 1000;
+    private static final int TIMING_SAMPLE_INTERVAL = 16;
+
+    private final List<String> initialOrder;
+    private int reorderInterval = DEFAULT_REORDER_INTERVAL;
+
+    private List<PropertyMatcher<?>> registeredMatchers;
+    private long evaluationCount;
+
+    /**
+     * The statistics for each registry slot, or null until the first evaluation is recorded. Replaced as a
+     * whole when more slots are needed, so that a thread never sees a partially created set of statistics.
+     */
+    private volatile Statistics statistics;
+
+    /**
+     * The rank of each registry slot, lowest first, or null if no order has been learned or loaded yet.
+     */
+    private volatile int[] ranks;
+
+    private AdaptiveOrdering(List<String> initialOrder) {
+        this.initialOrder = initialOrder;
+    }
+
+    /**
+     * Creates an instance that starts with the declared order.
+     *
+     * @return the new instance
+     */
+    public static AdaptiveOrdering create() {
+        return new AdaptiveOrdering(Collections.<String>emptyList());
+    }
+
+    /**
+     * Creates an instance that starts with an order previously stored by {@link #store(Properties, String)}.
+     *
+     * @param properties the properties to load from
+     * @param key the key the order was stored under, e.g. the matcher class name
+     * @return the new instance, which starts with the declared order if there is no stored order
+     */
+    public static AdaptiveOrdering load(Properties properties, String key) {
+        String storedOrder = properties.getProperty(key);
+
+        if (storedOrder == null || storedOrder.trim().isEmpty()) {
+            return create();
+        }
+
+        List<String> propertyNames = new ArrayList<String>();
+        for (String propertyName : storedOrder.split(",")) {
+            propertyNames.add(propertyName.trim());
+        }
+
+        return new AdaptiveOrdering(Collections.unmodifiableList(propertyNames));
+    }
+
+    /**
+     * Sets how many composite evaluations take place between reorderings. Defaults to 1000.
+     *
+     * @param reorderInterval the number of evaluations
+     * @return this instance
+     */
+    public AdaptiveOrdering withReorderInterval(int reorderInterval) {
+        if (reorderInterval < 1) {
+            throw new IllegalArgumentException("Reorder interval must be at least 1: " + reorderInterval);
+        }
+
+        this.reorderInterval = reorderInterval;
+        return this;
+    }
+
+    /**
+     * Stores the learned order.
+     *
+     * @param properties the properties to store into
+     * @param key the key to store the order under, e.g. the matcher class name
+     */
+    public void store(Properties properties, String key) {
+        StringBuilder storedOrder = new StringBuilder();
+
+        for (String propertyName : getLearnedOrder()) {
+            if (storedOrder.length() > 0) {
+                storedOrder.append(",");
+            }
+
+            storedOrder.append(propertyName);
+        }
+
+        properties.setProperty(key, storedOrder.toString());
+    }
+
+    /**
+     * Gets the names of the registered properties in the order they are currently evaluated.
+     *
+     * @return the property names; the order loaded at creation if the instance is not yet in use
+     */
+    public List<String> getLearnedOrder() {
+        if (registeredMatchers == null) {
+            return initialOrder;
+        }
+
+        int[] currentRanks = getRanks();
+        int slotCount = currentRanks != null ? Math.min(currentRanks.length, registeredMatchers.size())
+                : registeredMatchers.size();
+        Integer[] slots = new Integer[slotCount];
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots[slot] = slot;
+        }
+
+        if (currentRanks != null) {
+            Arrays.sort(slots, (slot1, slot2) -> Integer.compare(currentRanks[slot1], currentRanks[slot2]));
+        }
+
+        List<String> propertyNames = new ArrayList<String>(slotCount);
+        for (Integer slot : slots) {
+            propertyNames.add(registeredMatchers.get(slot).getPropertyName());
+        }
+
+        return propertyNames;
+    }
+
+    /**
+     * Binds this instance to the registered property matchers of a composite matcher.
+     *
+     * @param registeredMatchers the registered property matchers, indexed by slot
+     */
+    void bind(List<PropertyMatcher<?>> registeredMatchers) {
+        if (this.registeredMatchers != null) {
+            throw new IllegalStateException("Adaptive ordering is already in use by another matcher");
+        }
+
+        this.registeredMatchers = registeredMatchers;
+    }
+
+    /**
+     * Gets the rank of each registry slot.
+     *
+     * @return the ranks indexed by slot, lowest evaluated first, or null if the declared order applies
+     */
+    int[] getRanks() {
+        int[] currentRanks = ranks;
+
+        if (currentRanks == null && !initialOrder.isEmpty()) {
+            currentRanks = rankInitialOrder();
+            ranks = currentRanks;
+        }
+
+        return currentRanks;
+    }
+
+    /**
+     * Notes the start of a composite evaluation, reordering if due.
+     *
+     * @return true if the evaluation times of the property matchers should be recorded
+     */
+    boolean startEvaluation() {
+        long count = ++evaluationCount;
+
+        if (count % reorderInterval == 0) {
+            ranks = rankByExpectedCost();
+        }
+
+        return count % TIMING_SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * Records the outcome of evaluating a property matcher.
+     *
+     * @param slot the registry slot of the property matcher, or -1 if it is not registered
+     * @param matched true if the property matched
+     * @param nanos the evaluation time, or -1 if not timed
+     */
+    void recordEvaluation(int slot, boolean matched, long nanos) {
+        if (slot < 0) {
+            return;
+        }
+
+        Statistics current = statistics;
+
+        if (current == null || slot >= current.evaluations.length) {
+            current = new Statistics(current, Math.max(slot + 1, registeredMatchers.size()));
+            statistics = current;
+        }
+
+        current.evaluations[slot]++;
+
+        if (!matched) {
+            current.failures[slot]++;
+        }
+
+        if (nanos >= 0) {
+            current.timedEvaluations[slot]++;
+            current.timedNanos[slot] += nanos;
+        }
+    }
+
+    private int[] rankInitialOrder() {
+        int slotCount = registeredMatchers.size();
+        int[] initialRanks = new int[slotCount];
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            int index = initialOrder.indexOf(registeredMatchers.get(slot).getPropertyName());
+            // Properties missing from the loaded order follow those present, in declared order
+            initialRanks[slot] = index >= 0 ? index : initialOrder.size() + slot;
+        }
+
+        return initialRanks;
+    }
+
+    private int[] rankByExpectedCost() {
+        Statistics current = statistics;
+        if (current == null) {
+            return ranks;
+        }
+
+        int slotCount = Math.min(current.evaluations.length, registeredMatchers.size());
+        final double[] scores = new double[slotCount];
+        Integer[] slots = new Integer[slotCount];
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots[slot] = slot;
+            scores[slot] = current.expectedCostPerFailure(slot);
+        }
+
+        Arrays.sort(slots, (slot1, slot2) -> Double.compare(scores[slot1], scores[slot2]));
+
+        int[] newRanks = new int[registeredMatchers.size()];
+        for (int slot = slotCount; slot < newRanks.length; slot++) {
+            newRanks[slot] = slot;
+        }
+
+        for (int rank = 0; rank < slotCount; rank++) {
+            newRanks[slots[rank]] = rank;
+        }
+
+        return newRanks;
+    }
+
+    /**
+     * The outcomes and sampled evaluation times recorded for each registry slot.
+     */
+    private static final class Statistics {
+        private final long[] evaluations;
+        private final long[] failures;
+        private final long[] timedEvaluations;
+        private final long[] timedNanos;
+
+        private Statistics(Statistics previous, int size) {
+            evaluations = copyOf(previous != null ? previous.evaluations : null, size);
+            failures = copyOf(previous != null ? previous.failures : null, size);
+            timedEvaluations = copyOf(previous != null ? previous.timedEvaluations : null, size);
+            timedNanos = copyOf(previous != null ? previous.timedNanos : null, size);
+        }
+
+        private static long[] copyOf(long[] array, int size) {
+            return array == null ? new long[size] : Arrays.copyOf(array, size);
+        }
+
+        /**
+         * The mean evaluation time divided by the estimated probability of failure. Evaluating property matchers
+         * in ascending order of this score minimises the expected time to find a failure.
+         */
+        private double expectedCostPerFailure(int slot) {
+            double failureRate = (failures[slot] + 1.0) / (evaluations[slot] + 2.0);
+            double meanNanos = timedEvaluations[slot] > 0 ? (double) timedNanos[slot] / timedEvaluations[slot] : 1.0;
+            return Math.max(meanNanos, 1.0) / failureRate;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.BaseDescription;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A {@link org.hamcrest.Description} that writes to an {@link Appendable}, such as a {@link java.io.Writer},
+ * instead of accumulating the whole text in memory.
+ * <p>
+ * Text is buffered in a fixed-size buffer and written when the buffer fills and when {@link #flush()} is called.
+ * Optionally, the text can be truncated after a maximum number of characters, in which case
+ * {@link #TRUNCATION_MARKER} is written in place of the remainder.
+ * <p>
+ * An IOException thrown by the Appendable is rethrown as an {@link UncheckedIOException}.
+ */
+public class AppendableDescription extends BaseDescription implements Flushable {
+    /**
+     * Written in place of any text beyond the maximum length.
+     */
+    public static final String TRUNCATION_MARKER = "...";
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final Appendable out;
+    private final long maxLength;
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+    private long length;
+    private boolean truncated;
+
+    /**
+     * Constructs a description that writes all text to the supplied Appendable.
+     *
+     * @param out the destination
+     */
+    public AppendableDescription(Appendable out) {
+        this(out, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a description that writes at most the given number of characters to the supplied Appendable,
+     * followed by {@link #TRUNCATION_MARKER} if any text was dropped.
+     *
+     * @param out the destination
+     * @param maxLength the maximum number of characters of description text to write
+     */
+    public AppendableDescription(Appendable out, long maxLength) {
+        if (out == null) {
+            throw new IllegalArgumentException("No appendable");
+        }
+
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("Maximum length must not be negative: " + maxLength);
+        }
+
+        this.out = out;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Indicates whether any text has been dropped because the maximum length was reached.
+     *
+     * @return true if the text was truncated
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    protected void append(String str) {
+        if (truncated) {
+            return;
+        }
+
+        long available = maxLength - length;
+
+        if (str.length() > available) {
+            write(str, (int) available);
+            truncate();
+        } else {
+            write(str, str.length());
+        }
+    }
+
+    @Override
+    protected void append(char c) {
+        if (truncated) {
+            return;
+        }
+
+        if (length >= maxLength) {
+            truncate();
+        } else {
+            if (buffer.length() >= BUFFER_SIZE) {
+                writeBuffer();
+            }
+
+            buffer.append(c);
+            length++;
+        }
+    }
+
+    /**
+     * Writes any buffered text to the Appendable, and flushes the Appendable if it is {@link Flushable}.
+     */
+    @Override
+    public void flush() {
+        writeBuffer();
+
+        if (out instanceof Flushable) {
+            try {
+                ((Flushable) out).flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes any buffered text and returns the destination's own string form. For a StringBuilder or
+     * StringWriter destination, this is the text written so far.
+     *
+     * @return the destination's string form
+     */
+    @Override
+    public String toString() {
+        writeBuffer();
+        return out.toString();
+    }
+
+    private void write(String str, int count) {
+        if (buffer.length() + count > BUFFER_SIZE) {
+            writeBuffer();
+        }
+
+        if (count > BUFFER_SIZE) {
+            try {
+                out.append(str, 0, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            buffer.append(str, 0, count);
+        }
+
+        length += count;
+    }
+
+    private void truncate() {
+        truncated = true;
+        write(TRUNCATION_MARKER, TRUNCATION_MARKER.length());
+    }
+
+    private void writeBuffer() {
+        if (buffer.length() > 0) {
+            try {
+                out.append(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            buffer.setLength(0);
+        }
+    }
+}
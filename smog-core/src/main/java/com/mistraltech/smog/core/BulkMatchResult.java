@@ -0,0 +1,123 @@
+package com.mistraltech.smog.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The aggregated result of matching many items with a {@link BulkMatcher}.
+ */
+public final class BulkMatchResult {
+    private final long matchCount;
+    private final long mismatchCount;
+    private final List<Mismatch> mismatchSamples;
+
+    BulkMatchResult(long matchCount, long mismatchCount, Collection<Mismatch> mismatchSamples) {
+        List<Mismatch> samples = new ArrayList<Mismatch>(mismatchSamples);
+        samples.sort(Comparator.comparingLong(Mismatch::getIndex));
+
+        this.matchCount = matchCount;
+        this.mismatchCount = mismatchCount;
+        this.mismatchSamples = Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * Gets the number of items matched.
+     *
+     * @return the number of items
+     */
+    public long getItemCount() {
+        return matchCount + mismatchCount;
+    }
+
+    /**
+     * Gets the number of items that matched.
+     *
+     * @return the number of matching items
+     */
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * Gets the number of items that did not match.
+     *
+     * @return the number of mismatching items
+     */
+    public long getMismatchCount() {
+        return mismatchCount;
+    }
+
+    /**
+     * Indicates whether all items matched.
+     *
+     * @return true if there were no mismatches; false otherwise
+     */
+    public boolean allMatched() {
+        return mismatchCount == 0;
+    }
+
+    /**
+     * Gets the described mismatches, which are those with the lowest item indexes, in index order.
+     *
+     * @return the sample of mismatches
+     */
+    public List<Mismatch> getMismatchSamples() {
+        return mismatchSamples;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append(getItemCount()).append(" items, ")
+                .append(mismatchCount).append(" mismatches");
+
+        for (Mismatch mismatch : mismatchSamples) {
+            text.append("\n  ").append(mismatch);
+        }
+
+        if (mismatchSamples.size() < mismatchCount) {
+            text.append("\n  ...");
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * A described mismatch of an item.
+     */
+    public static final class Mismatch {
+        private final long index;
+        private final String description;
+
+        Mismatch(long index, String description) {
+            this.index = index;
+            this.description = description;
+        }
+
+        /**
+         * Gets the position of the item in the matched items, starting at zero.
+         *
+         * @return the item index
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the mismatch description.
+         *
+         * @return the description
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + index + "] " + description;
+        }
+    }
+}
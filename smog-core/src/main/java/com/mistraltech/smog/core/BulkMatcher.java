@@ -0,0 +1,248 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Description;
+import org.hamcrest.StringDescription;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Matches every item from an {@link Iterable}, {@link Stream} or {@link Spliterator} against a
+ * {@link CompositePropertyMatcher}, evaluating items in parallel on a fork/join pool.
+ * <p>
+ * Items are read from the source in chunks on the calling thread, and only a bounded number of chunks
+ * are in progress at a time. Only the mismatches with the lowest item indexes are described, up to the
+ * configured sample size. Memory use is therefore bounded regardless of the number of items.
+ * <p>
+ * Example:
+ * <pre>
+ * BulkMatchResult result = BulkMatcher.bulkMatcher(aPersonThat().hasAge(lessThan(150)))
+ *         .withMismatchSampleSize(5)
+ *         .match(people);
+ * </pre>
+ *
+ * @param <T> type of matchable target object
+ */
+public final class BulkMatcher<T> {
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int DEFAULT_MISMATCH_SAMPLE_SIZE = 10;
+
+    private final CompositePropertyMatcher<T> matcher;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int mismatchSampleSize = DEFAULT_MISMATCH_SAMPLE_SIZE;
+
+    private BulkMatcher(CompositePropertyMatcher<T> matcher) {
+        if (matcher == null) {
+            throw new IllegalArgumentException("matcher is required but was null");
+        }
+
+        this.matcher = matcher.freeze();
+    }
+
+    /**
+     * Creates a bulk matcher. The supplied matcher is frozen (see {@link CompositePropertyMatcher#freeze()})
+     * so that it can be applied to items in parallel.
+     *
+     * @param matcher the matcher to apply to each item
+     * @param <T> type of matchable target object
+     * @return the bulk matcher
+     */
+    public static <T> BulkMatcher<T> bulkMatcher(CompositePropertyMatcher<T> matcher) {
+        return new BulkMatcher<T>(matcher);
+    }
+
+    /**
+     * Sets the pool that items are matched on. Defaults to {@link ForkJoinPool#commonPool()}.
+     *
+     * @param pool the pool
+     * @return this instance
+     */
+    public BulkMatcher<T> withPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool is required but was null");
+        }
+
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Sets the number of items matched by each fork/join task. Defaults to 1024.
+     *
+     * @param chunkSize the number of items per task
+     * @return this instance
+     */
+    public BulkMatcher<T> withChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of mismatches that are described in the result. Defaults to 10.
+     *
+     * @param mismatchSampleSize the maximum number of mismatch descriptions
+     * @return this instance
+     */
+    public BulkMatcher<T> withMismatchSampleSize(int mismatchSampleSize) {
+        if (mismatchSampleSize < 0) {
+            throw new IllegalArgumentException("Mismatch sample size must not be negative: " + mismatchSampleSize);
+        }
+
+        this.mismatchSampleSize = mismatchSampleSize;
+        return this;
+    }
+
+    /**
+     * Matches all items.
+     *
+     * @param items the items to match
+     * @return the aggregated result
+     */
+    public BulkMatchResult match(Iterable<? extends T> items) {
+        return match(items.spliterator());
+    }
+
+    /**
+     * Matches all items. The stream is consumed by this method.
+     *
+     * @param items the items to match
+     * @return the aggregated result
+     */
+    public BulkMatchResult match(Stream<? extends T> items) {
+        return match(items.spliterator());
+    }
+
+    /**
+     * Matches all items.
+     *
+     * @param items the items to match
+     * @return the aggregated result
+     */
+    public BulkMatchResult match(Spliterator<? extends T> items) {
+        Aggregator aggregator = new Aggregator(mismatchSampleSize);
+        int maxChunksInProgress = Math.max(2, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<?>> chunksInProgress = new ArrayDeque<ForkJoinTask<?>>();
+        long index = 0;
+
+        while (true) {
+            Chunk chunk = new Chunk(index, chunkSize, aggregator);
+
+            while (chunk.size < chunkSize && items.tryAdvance(chunk)) {
+                // Keep filling the chunk
+            }
+
+            if (chunk.size == 0) {
+                break;
+            }
+
+            if (chunksInProgress.size() == maxChunksInProgress) {
+                chunksInProgress.removeFirst().join();
+            }
+
+            chunksInProgress.addLast(pool.submit(chunk));
+            index += chunk.size;
+        }
+
+        for (ForkJoinTask<?> chunk : chunksInProgress) {
+            chunk.join();
+        }
+
+        return aggregator.toResult();
+    }
+
+    /**
+     * A task that matches a contiguous run of items.
+     */
+    private final class Chunk implements Runnable, Consumer<T> {
+        private final long firstIndex;
+        private final Object[] items;
+        private final Aggregator aggregator;
+        private int size;
+
+        private Chunk(long firstIndex, int capacity, Aggregator aggregator) {
+            this.firstIndex = firstIndex;
+            this.items = new Object[capacity];
+            this.aggregator = aggregator;
+        }
+
+        @Override
+        public void accept(T item) {
+            items[size++] = item;
+        }
+
+        @Override
+        public void run() {
+            long matchCount = 0;
+
+            for (int i = 0; i < size; i++) {
+                Object item = items[i];
+
+                if (matcher.matches(item)) {
+                    matchCount++;
+                } else {
+                    long index = firstIndex + i;
+
+                    if (aggregator.isSampled(index)) {
+                        Description description = new StringDescription();
+                        matcher.describeMismatch(item, description);
+                        aggregator.addSample(index, description.toString());
+                    }
+
+                    aggregator.mismatchCount.increment();
+                }
+
+                // Release the item as soon as it has been matched
+                items[i] = null;
+            }
+
+            aggregator.matchCount.add(matchCount);
+        }
+    }
+
+    /**
+     * Collects the counts and the sample of mismatches with the lowest indexes.
+     */
+    private static final class Aggregator {
+        private final LongAdder matchCount = new LongAdder();
+        private final LongAdder mismatchCount = new LongAdder();
+        private final int sampleSize;
+        private final PriorityQueue<BulkMatchResult.Mismatch> samples;
+
+        private Aggregator(int sampleSize) {
+            this.sampleSize = sampleSize;
+            // Ordered by descending index, so the head is the sample to evict
+            this.samples = new PriorityQueue<BulkMatchResult.Mismatch>(Math.max(1, sampleSize),
+                    (m1, m2) -> Long.compare(m2.getIndex(), m1.getIndex()));
+        }
+
+        synchronized boolean isSampled(long index) {
+            return samples.size() < sampleSize || (sampleSize > 0 && index < samples.peek().getIndex());
+        }
+
+        synchronized void addSample(long index, String description) {
+            if (isSampled(index)) {
+                samples.add(new BulkMatchResult.Mismatch(index, description));
+
+                if (samples.size() > sampleSize) {
+                    samples.poll();
+                }
+            }
+        }
+
+        synchronized BulkMatchResult toResult() {
+            return new BulkMatchResult(matchCount.sum(), mismatchCount.sum(), samples);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ReflectingPropertyMatcher.PropertyAccessor;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A {@link CompositePropertyMatcher} flattened into a linear program of property loads and tests, which
+ * {@link #matches(Object)} runs in a single interpreter loop instead of through the tree of matchers.
+ * <p>
+ * The program loads each property value into a register and then tests it. Values are compared directly for
+ * matchers created by {@code equalTo}, {@code is}, {@code greaterThan}, {@code greaterThanOrEqualTo},
+ * {@code lessThan}, {@code lessThanOrEqualTo} and {@code comparesEqualTo}; any other matcher is called as a
+ * delegate. A nested composite matcher is flattened into the program when its result is decided entirely by its
+ * reflecting property matchers (see {@link MatcherNetwork}), and is otherwise called as a delegate too. A test that
+ * fails ends the program, and the instruction that failed identifies the matcher responsible.
+ * <p>
+ * Mismatches are described by the original matcher, so descriptions are unchanged. While a {@link MatchListener}
+ * is installed or a Flight Recorder recording is running, {@link #matches(Object)} also defers to the original
+ * matcher, so that every evaluation is reported.
+ * <p>
+ * Example:
+ * <pre>
+ * private static final Matcher&lt;Person&gt; ADULT_BRIAN = CompiledMatcher.compile(
+ *         aPersonThat().hasName("Brian").hasAge(greaterThanOrEqualTo(18)));
+ * </pre>
+ *
+ * @param <T> type of matchable target object
+ */
+public final class CompiledMatcher<T> extends BaseMatcher<T> {
+    /**
+     * Loads a property value: {@code registers[a] = constants[c].getPropertyValue(registers[b])}.
+     */
+    private static final int LOAD = 0;
+
+    /**
+     * Tests that a register holds an item the composite matcher {@code constants[b]} can match.
+     */
+    private static final int CHECK_TYPE = 1;
+
+    /**
+     * Tests that a register equals {@code constants[b]}, as {@code equalTo} does.
+     */
+    private static final int EQUALS = 2;
+
+    /**
+     * Tests that the sign of comparing a register with {@code constants[b]} is one of those in the mask {@code c},
+     * where bit 0 accepts less, bit 1 accepts equal and bit 2 accepts greater.
+     */
+    private static final int COMPARE = 3;
+
+    /**
+     * Tests a register by calling the delegate matcher {@code constants[b]}.
+     */
+    private static final int CALL = 4;
+
+    /**
+     * Ends the program with a successful match.
+     */
+    private static final int MATCH = 5;
+
+    /**
+     * The number of ints that encode an instruction: the op code and operands a, b and c.
+     */
+    private static final int WIDTH = 4;
+
+    private static final int MATCHED = -1;
+
+    private final CompositePropertyMatcher<T> matcher;
+    private final int[] code;
+    private final Object[] constants;
+    private final Matcher<?>[] origins;
+    private final int registerCount;
+    private final boolean compiled;
+
+    private CompiledMatcher(CompositePropertyMatcher<T> matcher, Compiler compiler, boolean compiled) {
+        this.matcher = matcher;
+        this.compiled = compiled;
+        this.code = IntArrays.toArray(compiler.code);
+        this.constants = compiler.constants.toArray();
+        this.origins = compiler.origins.toArray(new Matcher<?>[0]);
+        this.registerCount = compiler.registerCount;
+    }
+
+    /**
+     * Compiles a matcher. The matcher is frozen (see {@link CompositePropertyMatcher#freeze()}), since changing
+     * it would invalidate the program. A matcher that does not declare that it only applies its property matchers
+     * (see {@link CompositePropertyMatcher#appliesPropertyMatchersOnly()}) is not flattened, and the program simply
+     * calls it; {@link #isCompiled()} tells which happened.
+     *
+     * @param matcher the matcher to compile
+     * @param <T> type of matchable target object
+     * @return the compiled matcher, which can be shared between threads
+     */
+    public static <T> CompiledMatcher<T> compile(CompositePropertyMatcher<T> matcher) {
+        if (matcher == null) {
+            throw new IllegalArgumentException("No matcher");
+        }
+
+        matcher.freeze();
+
+        Compiler compiler = new Compiler();
+        boolean compiled = matcher.isCompilable();
+        if (compiled) {
+            compiler.composite(0, matcher);
+        } else {
+            compiler.emit(CALL, 0, compiler.constant(matcher), 0, matcher);
+        }
+        compiler.emit(MATCH, 0, 0, 0, matcher);
+
+        return new CompiledMatcher<T>(matcher, compiler, compiled);
+    }
+
+    /**
+     * Gets the matcher that was compiled.
+     *
+     * @return the original matcher
+     */
+    public CompositePropertyMatcher<T> getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Indicates whether the matcher was flattened into property loads and tests, rather than being called as it is.
+     *
+     * @return true if the matcher was flattened
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    @Override
+    public boolean matches(Object item) {
+        if (MatchListeners.current() != null || MatchEvents.isRecording()) {
+            return matcher.matches(item);
+        }
+
+        return run(item) == MATCHED;
+    }
+
+    /**
+     * Finds the matcher responsible for a mismatch, which is the property matcher whose test failed, the composite
+     * matcher that could not match the item or property value it was given, or a delegate that was called.
+     *
+     * @param item the item to match
+     * @return the first matcher found to fail, if the item does not match
+     */
+    public Optional<Matcher<?>> findMismatch(Object item) {
+        int failed = run(item);
+        return failed == MATCHED ? Optional.<Matcher<?>>empty() : Optional.<Matcher<?>>of(origins[failed / WIDTH]);
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        matcher.describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description mismatchDescription) {
+        matcher.describeMismatch(item, mismatchDescription);
+    }
+
+    /**
+     * Runs the program.
+     *
+     * @param item the item to match
+     * @return {@link #MATCHED}, or the position of the instruction that failed
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int run(Object item) {
+        final int[] code = this.code;
+        final Object[] constants = this.constants;
+        final Object[] registers = new Object[registerCount];
+        registers[0] = item;
+
+        int pc = 0;
+
+        while (true) {
+            boolean passed;
+
+            switch (code[pc]) {
+                case LOAD:
+                    registers[code[pc + 1]] =
+                            ((PropertyAccessor) constants[code[pc + 3]]).getPropertyValue(registers[code[pc + 2]]);
+                    pc += WIDTH;
+                    continue;
+                case CHECK_TYPE:
+                    passed = ((CompositePropertyMatcher<?>) constants[code[pc + 2]]).isMatchable(registers[code[pc + 1]]);
+                    break;
+                case EQUALS: {
+                    Object value = registers[code[pc + 1]];
+                    Object expected = constants[code[pc + 2]];
+                    passed = value == null ? expected == null : value.equals(expected);
+                    break;
+                }
+                case COMPARE: {
+                    Object value = registers[code[pc + 1]];
+                    passed = value != null && (code[pc + 3]
+                            & (1 << (Integer.signum(((Comparable) value).compareTo(constants[code[pc + 2]])) + 1))) != 0;
+                    break;
+                }
+                case CALL:
+                    passed = ((Matcher<?>) constants[code[pc + 2]]).matches(registers[code[pc + 1]]);
+                    break;
+                case MATCH:
+                    return MATCHED;
+                default:
+                    throw new IllegalStateException("Unknown op code " + code[pc] + " at " + pc);
+            }
+
+            if (!passed) {
+                return pc;
+            }
+
+            pc += WIDTH;
+        }
+    }
+
+    /**
+     * Emits the program for a matcher tree.
+     */
+    private static final class Compiler {
+        private final List<Integer> code = new ArrayList<Integer>();
+        private final List<Object> constants = new ArrayList<Object>();
+        private final List<Matcher<?>> origins = new ArrayList<Matcher<?>>();
+        private int registerCount = 1;
+
+        /**
+         * Emits the instructions for a composite matcher applied to the value in a register.
+         */
+        private void composite(int register, CompositePropertyMatcher<?> composite) {
+            emit(CHECK_TYPE, register, constant(composite), 0, composite);
+
+            for (PropertyMatcher<?> propertyMatcher : composite.specifiedPropertyMatchersByCost()) {
+                property(register, (ReflectingPropertyMatcher<?>) propertyMatcher);
+            }
+        }
+
+        private void property(int source, ReflectingPropertyMatcher<?> propertyMatcher) {
+            int register = registerCount++;
+            emit(LOAD, register, source, constant(propertyMatcher.getPropertyAccessor()), propertyMatcher);
+
+            Matcher<?> delegate = propertyMatcher.getMatcher();
+            PropertyConstraint constraint = PropertyConstraint.exactlyOf(delegate);
+
+            if (delegate instanceof CompositePropertyMatcher && ((CompositePropertyMatcher<?>) delegate).isCompilable()) {
+                composite(register, (CompositePropertyMatcher<?>) delegate);
+            } else if (constraint != null && constraint.isEquality()) {
+                emit(EQUALS, register, constant(constraint.getValue()), 0, propertyMatcher);
+            } else if (constraint != null) {
+                emit(COMPARE, register, constant(constraint.getComparand()), constraint.getAcceptedSigns(),
+                        propertyMatcher);
+            } else {
+                emit(CALL, register, constant(delegate), 0, propertyMatcher);
+            }
+        }
+
+        private void emit(int op, int a, int b, int c, Matcher<?> origin) {
+            code.add(op);
+            code.add(a);
+            code.add(b);
+            code.add(c);
+            origins.add(origin);
+        }
+
+        private int constant(Object value) {
+            constants.add(value);
+            return constants.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Description;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A base class for a matcher that composes a list of other related matchers, all of
+ * which can be applied to a given matching target.
+ * <p>
+ * Implements PropertyMatcherRegister, allowing nested PropertyMatchers to be added.
+ * <p>
+ * Acts as a PathProvider for registered PropertyMatchers.
+ * <p>
+ * When {@link #matches(Object)} fails, the {@link MatchResult} is retained by the current thread so that a
+ * {@link #describeMismatch(Object, Description)} for the same item straight afterwards, as made by
+ * {@code assertThat}, does not evaluate the match again. The result is discarded by the next match made on the
+ * thread by a matcher that is not frozen, and is ignored once this matcher or its property matchers are
+ * reconfigured. The item is recognised by identity, so if it is changed between the match and the description,
+ * the description may show the property values read by the match rather than the current ones.
+ * <p>
+ * When only a boolean result is wanted, property matchers that declare a {@link PropertyCost} are evaluated
+ * cheapest first, and expensive properties are not read once the result is decided.
+ * <p>
+ * Once configured, a matcher can be frozen with {@link #freeze()}. A frozen matcher cannot be modified, and
+ * can safely be shared between threads, e.g. in a static field.
+ *
+ * @param <T> type of matchable target object
+ */
+public class CompositePropertyMatcher<T> extends PathAwareDiagnosingMatcher<T> implements PropertyMatcherRegistry {
+    /**
+     * The last failed match made on each thread by a matcher that is not frozen.
+     */
+    private static final ThreadLocal<LastMismatch> LAST_MISMATCH = ThreadLocal.withInitial(LastMismatch::new);
+
+    private String matchedObjectDescription;
+    private List<PropertyMatcher<?>> propertyMatcherList = new ArrayList<PropertyMatcher<?>>();
+
+    /**
+     * Counts changes to the property matchers, so that a retained mismatch made with an earlier configuration
+     * is not reused.
+     */
+    private int configuration;
+
+    /**
+     * The specified property matchers, fixed when this matcher is frozen. Null if not frozen.
+     */
+    private PropertyMatcher<?>[] specifiedPropertyMatchers;
+
+    /**
+     * Determines the order of fail-fast evaluation, or null to evaluate in the declared order.
+     */
+    private AdaptiveOrdering adaptiveOrdering;
+
+    /**
+     * Indicates whether any registered property matcher declares a cost other than {@link PropertyCost#NORMAL}.
+     */
+    private boolean costHinted;
+
+    /**
+     * The maximum number of mismatches described by this matcher, and by the tree of matchers it heads.
+     */
+    private int mismatchLimit = MismatchLimit.UNLIMITED;
+    private int totalMismatchLimit = MismatchLimit.UNLIMITED;
+
+    /**
+     * An accumulator kept for reuse by the next fail-fast evaluation. Taken with getAndSet so that
+     * concurrent evaluations never share an accumulator.
+     */
+    private final AtomicReference<MatchAccumulator> spareAccumulator = new AtomicReference<MatchAccumulator>();
+
+    /**
+     * Constructor.
+     *
+     * @param matchedObjectDescription a description of the concrete class that is to be matched. E.g.
+     * if this class will be used to match a Widget object, the description should be "a Widget". This is
+     * required to generate a meaningful and readable describeTo message.
+     */
+    protected CompositePropertyMatcher(String matchedObjectDescription) {
+        if (matchedObjectDescription == null) {
+            throw new IllegalArgumentException("matchedObjectDescription is required but was null");
+        }
+
+        this.matchedObjectDescription = matchedObjectDescription;
+    }
+
+    /**
+     * Register a PropertyMatcher instance. Registered property matchers are used
+     * to generate the describeTo text. If a given property matcher does not have an assigned
+     * path provider, this instance will be assigned.
+     *
+     * @param propertyMatcher the PropertyMatcher instances
+     */
+    @Override
+    public void registerPropertyMatcher(PropertyMatcher<?> propertyMatcher) {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot register property matcher " + propertyMatcher.getPropertyName()
+                    + " with a frozen matcher");
+        }
+
+        if (propertyMatcher.getPathProvider() == null) {
+            propertyMatcher.setPathProvider(this);
+        }
+
+        propertyMatcher.setRegistrySlot(propertyMatcherList.size());
+        propertyMatcherList.add(propertyMatcher);
+        configuration++;
+
+        if (propertyMatcher.getCost() != PropertyCost.NORMAL) {
+            costHinted = true;
+        }
+    }
+
+    @Override
+    public void propertyMatcherChanged(PropertyMatcher<?> propertyMatcher) {
+        configuration++;
+    }
+
+    /**
+     * Prevents further modification of this matcher, its property matchers and any nested
+     * composite property matchers, and prepares it for concurrent use. Nested matchers are found
+     * within Hamcrest's own matchers, such as {@code is(...)}, {@code hasItem(...)} and
+     * {@code contains(...)}, but not within matchers from other libraries. A composite wrapped in any other
+     * matcher must be frozen before it is wrapped.
+     * <p>
+     * The frozen matcher applies only the specified property matchers, and their paths and property
+     * accessors are resolved once. A frozen matcher does not retain the result of a failed match, so describing
+     * a mismatch evaluates the match again.
+     * <p>
+     * Only the outermost matcher should be frozen directly, since the path of a frozen matcher cannot change.
+     *
+     * @return this instance
+     */
+    public CompositePropertyMatcher<T> freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+
+        freezePath();
+        List<PropertyMatcher<?>> specified = new ArrayList<PropertyMatcher<?>>();
+
+        for (PropertyMatcher<?> propertyMatcher : propertyMatcherList) {
+            propertyMatcher.freeze();
+
+            if (propertyMatcher.isSpecified()) {
+                specified.add(propertyMatcher);
+            }
+        }
+
+        propertyMatcherList = Collections.unmodifiableList(propertyMatcherList);
+        specifiedPropertyMatchers = specified.toArray(new PropertyMatcher<?>[specified.size()]);
+        return this;
+    }
+
+    /**
+     * Gets the registered property matchers, in the order of registration.
+     *
+     * @return the property matchers; the list must not be modified
+     */
+    List<PropertyMatcher<?>> getPropertyMatchers() {
+        return propertyMatcherList;
+    }
+
+    /**
+     * Gets the specified property matchers, cheapest first and otherwise in the order registered, which is the
+     * order in which they are applied when only a boolean result is wanted and no adaptive ordering is in use.
+     *
+     * @return a new list of the specified property matchers
+     */
+    List<PropertyMatcher<?>> specifiedPropertyMatchersByCost() {
+        PropertyMatcher<?>[] frozenMatchers = specifiedPropertyMatchers;
+        List<PropertyMatcher<?>> specified;
+
+        if (frozenMatchers != null) {
+            specified = new ArrayList<PropertyMatcher<?>>(Arrays.asList(frozenMatchers));
+        } else {
+            specified = new ArrayList<PropertyMatcher<?>>();
+
+            for (PropertyMatcher<?> propertyMatcher : propertyMatcherList) {
+                if (propertyMatcher.isSpecified()) {
+                    specified.add(propertyMatcher);
+                }
+            }
+        }
+
+        specified.sort(Comparator.comparing(PropertyMatcher::getCost));
+        return specified;
+    }
+
+    /**
+     * Indicates whether the result of this matcher is decided entirely by applying each specified property
+     * matcher to the item, so that it can be evaluated by reading and testing each property separately.
+     * This is the case when {@link #appliesPropertyMatchersOnly()} is true and every specified property matcher
+     * is a {@link ReflectingPropertyMatcher} that reads its property separately.
+     *
+     * @return true if the matcher can be evaluated property by property
+     */
+    boolean isCompilable() {
+        if (!appliesPropertyMatchersOnly()) {
+            return false;
+        }
+
+        for (PropertyMatcher<?> propertyMatcher : propertyMatcherList) {
+            if (propertyMatcher.isSpecified() && !ReflectingPropertyMatcher.readsPropertySeparately(propertyMatcher)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether this matcher leaves the application of its property matchers entirely to this class,
+     * and does nothing else when matching, so that {@link CompiledMatcher}, {@link MethodHandleMatcher} and
+     * {@link MatcherNetwork} can evaluate it property by property. A subclass can return true if it does not log
+     * mismatches, and either does not override {@link #matchesSafely(Object, MatchAccumulator)} or overrides it
+     * only to apply each of its property matchers to the value of the property it names, as the matchers generated
+     * by smog-processor do; subclasses of such a class that do anything else must return false again.
+     *
+     * @return false by default
+     */
+    protected boolean appliesPropertyMatchersOnly() {
+        return false;
+    }
+
+    /**
+     * Limits the number of failed property matchers described by this matcher. Once a further failure is found,
+     * the remaining property matchers are not applied and the description ends with "at least 1 more", so that a
+     * badly broken item neither produces an enormous description nor takes long to describe.
+     *
+     * @param limit the maximum number of failed property matchers to describe
+     * @return this instance
+     */
+    public CompositePropertyMatcher<T> limitMismatches(int limit) {
+        this.mismatchLimit = checkMismatchLimit(limit);
+        return this;
+    }
+
+    /**
+     * Limits the number of failed leaf properties described by this matcher and all of the matchers
+     * nested within it. The limit is ignored while an enclosing matcher with a total limit is describing
+     * the mismatch. Once the limit is reached, the matcher in which a further failure occurs stops applying its
+     * property matchers and notes that there are more.
+     *
+     * @param limit the maximum number of failed leaf properties to describe
+     * @return this instance
+     */
+    public CompositePropertyMatcher<T> limitTotalMismatches(int limit) {
+        this.totalMismatchLimit = checkMismatchLimit(limit);
+        return this;
+    }
+
+    private int checkMismatchLimit(int limit) {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot change the mismatch limit of a frozen matcher");
+        }
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Mismatch limit must be at least 1: " + limit);
+        }
+
+        return limit;
+    }
+
+    /**
+     * Evaluates property matchers in an order learned from their failure rates and evaluation times
+     * when only a boolean result is wanted, i.e. for {@link #matches(Object)}. Mismatch descriptions
+     * still follow the declared order.
+     * <p>
+     * This includes property matchers applied by subclasses in {@link #matchesSafely(Object, MatchAccumulator)},
+     * which are collected and evaluated once the subclass returns. Declared {@link PropertyCost}s take
+     * precedence over the learned order. Subclasses that need the outcome of
+     * a match before applying further matchers should not use adaptive ordering.
+     *
+     * @param adaptiveOrdering the ordering, which must not be in use by another matcher
+     * @return this instance
+     */
+    public CompositePropertyMatcher<T> useAdaptiveOrdering(AdaptiveOrdering adaptiveOrdering) {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot change the ordering of a frozen matcher");
+        }
+
+        if (adaptiveOrdering == null) {
+            throw new IllegalArgumentException("adaptiveOrdering is required but was null");
+        }
+
+        adaptiveOrdering.bind(propertyMatcherList);
+        this.adaptiveOrdering = adaptiveOrdering;
+        return this;
+    }
+
+    /**
+     * Indicates whether this matcher has been frozen.
+     *
+     * @return true if this matcher can no longer be modified; false otherwise
+     */
+    public boolean isFrozen() {
+        return specifiedPropertyMatchers != null;
+    }
+
+    public final void describeTo(Description description) {
+        description.appendText(matchedObjectDescription).appendText(" that (");
+        boolean first = true;
+
+        for (PropertyMatcher<?> matcher : propertyMatcherList) {
+            if (matcher.isSpecified()) {
+                if (first) {
+                    first = false;
+                } else {
+                    description.appendText(" and ");
+                }
+
+                matcher.describeTo(description);
+            }
+        }
+
+        description.appendText(")");
+    }
+
+    /**
+     * Matches the item and returns the result, which can be used to describe any mismatch
+     * without evaluating the match again.
+     *
+     * @param item the item to match
+     * @return the match result
+     */
+    @SuppressWarnings("unchecked")
+    public final MatchResult evaluate(Object item) {
+        if (!isMatchable(item)) {
+            return new MatchResult(item, Collections.singletonList(new MatchResult.Entry(this, item)));
+        }
+
+        return evaluateSafely((T) item);
+    }
+
+    @Override
+    protected final boolean matchesSafely(T item, Description mismatchDescription) {
+        if (mismatchDescription instanceof Description.NullDescription) {
+            return evaluateSafely(item).matches();
+        }
+
+        boolean limitingTree = MismatchLimit.beginTree(totalMismatchLimit);
+        boolean describing = MatchListeners.beginDescribing();
+
+        try {
+            MatchResult mismatch = isFrozen() ? null : LAST_MISMATCH.get().find(this, item);
+            if (mismatch != null) {
+                mismatch.describeMismatch(mismatchDescription, mismatchLimit);
+                return false;
+            }
+
+            MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription, propertyMatcherList);
+            matchAccumulator.limitMismatches(mismatchLimit);
+            applyPropertyMatchers(item, matchAccumulator);
+            matchAccumulator.describeSuppressedMismatches();
+            return matchAccumulator.result();
+        } finally {
+            if (describing) {
+                MatchListeners.endDescribing();
+            }
+
+            if (limitingTree) {
+                MismatchLimit.endTree();
+            }
+        }
+    }
+
+    private MatchResult evaluateSafely(T item) {
+        if (MatchEvents.isRecording()) {
+            return MatchEvents.recordCompositeMatch(this, () -> evaluateListened(item));
+        }
+
+        return evaluateListened(item);
+    }
+
+    private MatchResult evaluateListened(T item) {
+        MatchListener listener = MatchListeners.current();
+        if (listener == null) {
+            return evaluateUninstrumented(item);
+        }
+
+        long start = System.nanoTime();
+        MatchResult result = evaluateUninstrumented(item);
+        listener.compositeMatched(this, result.matches(), System.nanoTime() - start);
+        return result;
+    }
+
+    private MatchResult evaluateUninstrumented(T item) {
+        AdaptiveOrdering ordering = adaptiveOrdering;
+        MatchAccumulator matchAccumulator = spareAccumulator.getAndSet(null);
+
+        if (matchAccumulator == null) {
+            matchAccumulator = new MatchAccumulator(Description.NONE, propertyMatcherList);
+        }
+
+        boolean ordered = ordering != null || costHinted;
+        matchAccumulator.reset(Description.NONE, ordered);
+        applyPropertyMatchers(item, matchAccumulator);
+
+        if (ordered) {
+            matchAccumulator.evaluateCollected(ordering);
+        }
+
+        MatchResult result = matchAccumulator.getMatchResult(item);
+        if (!isFrozen()) {
+            LAST_MISMATCH.get().retain(this, result);
+        }
+
+        matchAccumulator.release();
+        spareAccumulator.set(matchAccumulator);
+        return result;
+    }
+
+    private void applyPropertyMatchers(T item, MatchAccumulator matchAccumulator) {
+        // Give subclasses an opportunity to match PropertyMatchers manually
+        matchesSafely(item, matchAccumulator);
+
+        // Any remaining PropertyMatchers that have not been matched manually by subclasses
+        // are matched automatically against 'item'.
+        // Note this is only likely to be the right thing if the property matchers
+        // are able to determine their own property value from the parent object, such
+        // as is done by ReflectingPropertyMatcher.
+        // Once the result is decided, the accumulator only records them for describing the mismatch.
+        PropertyMatcher<?>[] frozenMatchers = specifiedPropertyMatchers;
+
+        if (frozenMatchers != null) {
+            for (PropertyMatcher<?> propertyMatcher : frozenMatchers) {
+                if (!matchAccumulator.hasBeenApplied(propertyMatcher)) {
+                    matchAccumulator.matches(propertyMatcher, item);
+                }
+            }
+        } else {
+            for (int i = 0; i < propertyMatcherList.size(); i++) {
+                PropertyMatcher<?> propertyMatcher = propertyMatcherList.get(i);
+
+                if (!matchAccumulator.hasBeenApplied(propertyMatcher)) {
+                    matchAccumulator.matches(propertyMatcher, item);
+                }
+            }
+        }
+    }
+
+    protected void matchesSafely(T item, MatchAccumulator matchAccumulator) {
+    }
+
+    /**
+     * Holds the last failed match made on a thread, together with the configuration of the matcher that made it.
+     */
+    private static final class LastMismatch {
+        private CompositePropertyMatcher<?> matcher;
+        private int configuration;
+        private MatchResult result;
+
+        void retain(CompositePropertyMatcher<?> matcher, MatchResult result) {
+            boolean matched = result.matches();
+            this.matcher = matched ? null : matcher;
+            this.configuration = matcher.configuration;
+            this.result = matched ? null : result;
+        }
+
+        MatchResult find(CompositePropertyMatcher<?> matcher, Object item) {
+            if (this.matcher == matcher && configuration == matcher.configuration && result.isFor(item)) {
+                return result;
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ReflectingPropertyMatcher.PropertyAccessor;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * An immutable collection of items that can be queried with matchers, using indexes on selected properties
+ * to avoid testing every item.
+ * <p>
+ * A hash index supports property matchers assigned {@code equalTo} (or {@code is}) matchers. A range index
+ * supports those and the {@code Comparable} ordering matchers such as {@code greaterThan} and
+ * {@code lessThanOrEqualTo}, including combinations with {@code allOf}. When a {@link CompositePropertyMatcher}
+ * is queried, its property matchers with such matchers on indexed properties select the candidate items,
+ * and the full matcher is then applied to the candidates only. Other matchers are applied to every item.
+ * <p>
+ * An index on a property reads the bean property of that name from each item, so it is only used for property
+ * matchers of the same name that match that bean property, as a {@link ReflectingPropertyMatcher} does.
+ *
+ * @param <T> the type of item
+ */
+public final class IndexedCollection<T> {
+    private final List<T> items;
+    private final Map<String, Map<Object, int[]>> hashIndexes = new HashMap<String, Map<Object, int[]>>();
+    private final Map<String, NavigableMap<Object, int[]>> rangeIndexes = new HashMap<String, NavigableMap<Object, int[]>>();
+
+    private IndexedCollection(Collection<? extends T> items) {
+        this.items = Collections.unmodifiableList(new ArrayList<T>(items));
+    }
+
+    /**
+     * Creates an indexed collection containing a snapshot of the given items, initially with no indexes.
+     *
+     * @param items the items
+     * @param <T> the type of item
+     * @return the collection
+     */
+    public static <T> IndexedCollection<T> of(Collection<? extends T> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("No items");
+        }
+
+        return new IndexedCollection<T>(items);
+    }
+
+    /**
+     * Builds a hash index on a property of the items.
+     *
+     * @param propertyName the name of the bean property
+     * @return this instance
+     */
+    public IndexedCollection<T> withHashIndex(String propertyName) {
+        Map<Object, List<Integer>> positions = new HashMap<Object, List<Integer>>();
+        PropertyAccessor accessor = new PropertyAccessor(propertyName);
+
+        for (int i = 0; i < items.size(); i++) {
+            Object value = accessor.getPropertyValue(items.get(i));
+            positions.computeIfAbsent(value, v -> new ArrayList<Integer>()).add(i);
+        }
+
+        hashIndexes.put(propertyName, toPositionArrays(positions, new HashMap<Object, int[]>()));
+        return this;
+    }
+
+    /**
+     * Builds a range index on a property of the items, whose values must be mutually {@code Comparable}.
+     * Items whose property value is null are not indexed, since no ordering matcher accepts null.
+     *
+     * @param propertyName the name of the bean property
+     * @return this instance
+     */
+    public IndexedCollection<T> withRangeIndex(String propertyName) {
+        Map<Object, List<Integer>> positions = new TreeMap<Object, List<Integer>>();
+        PropertyAccessor accessor = new PropertyAccessor(propertyName);
+
+        for (int i = 0; i < items.size(); i++) {
+            Object value = accessor.getPropertyValue(items.get(i));
+
+            if (value != null) {
+                if (!(value instanceof Comparable)) {
+                    throw new IllegalArgumentException("Property " + propertyName + " is not Comparable: " + value);
+                }
+
+                positions.computeIfAbsent(value, v -> new ArrayList<Integer>()).add(i);
+            }
+        }
+
+        rangeIndexes.put(propertyName, toPositionArrays(positions, new TreeMap<Object, int[]>()));
+        return this;
+    }
+
+    /**
+     * Gets the items, in their original order.
+     *
+     * @return the items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Finds all items that match.
+     *
+     * @param matcher the matcher
+     * @return the matching items, in their original order
+     */
+    public List<T> findAll(Matcher<? super T> matcher) {
+        List<T> found = new ArrayList<T>();
+        BitSet candidates = findCandidates(matcher);
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (matcher.matches(items.get(i))) {
+                found.add(items.get(i));
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds the first item that matches.
+     *
+     * @param matcher the matcher
+     * @return the first matching item in the original order, if any
+     */
+    public Optional<T> findFirst(Matcher<? super T> matcher) {
+        BitSet candidates = findCandidates(matcher);
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (matcher.matches(items.get(i))) {
+                return Optional.ofNullable(items.get(i));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Selects the positions of the items that might match, using any indexes that apply.
+     */
+    private BitSet findCandidates(Matcher<?> matcher) {
+        BitSet candidates = null;
+
+        if (matcher instanceof CompositePropertyMatcher) {
+            for (PropertyMatcher<?> propertyMatcher : ((CompositePropertyMatcher<?>) matcher).getPropertyMatchers()) {
+                // The index holds property values read by name, which only a reflecting property matcher is known to use
+                if (!ReflectingPropertyMatcher.readsPropertySeparately(propertyMatcher)) {
+                    continue;
+                }
+
+                BitSet selected = selectByIndex(propertyMatcher);
+
+                if (selected != null) {
+                    if (candidates == null) {
+                        candidates = selected;
+                    } else {
+                        candidates.and(selected);
+                    }
+                }
+            }
+        }
+
+        if (candidates == null) {
+            candidates = new BitSet(items.size());
+            candidates.set(0, items.size());
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Selects the positions of the items that satisfy a property matcher's constraint.
+     *
+     * @return the positions, or null if no index applies
+     */
+    private BitSet selectByIndex(PropertyMatcher<?> propertyMatcher) {
+        PropertyConstraint constraint = PropertyConstraint.of(propertyMatcher.getMatcher());
+        if (constraint == null) {
+            return null;
+        }
+
+        String propertyName = propertyMatcher.getPropertyName();
+        Map<Object, int[]> hashIndex = hashIndexes.get(propertyName);
+        NavigableMap<Object, int[]> rangeIndex = rangeIndexes.get(propertyName);
+
+        if (constraint.isEquality()) {
+            Object value = constraint.getValue();
+
+            // Arrays are matched by content, which a hash index cannot look up
+            if (value != null && value.getClass().isArray()) {
+                return null;
+            } else if (hashIndex != null) {
+                return select(Collections.singletonList(hashIndex.get(value)));
+            } else if (rangeIndex != null && value instanceof Comparable) {
+                return selectRange(rangeIndex, (Comparable<?>) value, true, (Comparable<?>) value, true);
+            }
+        } else if (rangeIndex != null) {
+            return selectRange(rangeIndex, constraint.getLower(), constraint.isLowerInclusive(),
+                    constraint.getUpper(), constraint.isUpperInclusive());
+        }
+
+        return null;
+    }
+
+    private BitSet selectRange(NavigableMap<Object, int[]> rangeIndex, Comparable<?> lower, boolean lowerInclusive,
+                               Comparable<?> upper, boolean upperInclusive) {
+        try {
+            NavigableMap<Object, int[]> range = rangeIndex;
+
+            if (lower != null) {
+                range = range.tailMap(lower, lowerInclusive);
+            }
+
+            if (upper != null) {
+                range = range.headMap(upper, upperInclusive);
+            }
+
+            return select(range.values());
+        } catch (ClassCastException e) {
+            // The bounds are not comparable with the indexed values
+            return null;
+        } catch (IllegalArgumentException e) {
+            // The upper bound is below the lower bound, so nothing can match
+            return new BitSet();
+        }
+    }
+
+    private BitSet select(Collection<int[]> positionArrays) {
+        BitSet selected = new BitSet(items.size());
+
+        for (int[] positions : positionArrays) {
+            if (positions != null) {
+                for (int position : positions) {
+                    selected.set(position);
+                }
+            }
+        }
+
+        return selected;
+    }
+
+    private static <M extends Map<Object, int[]>> M toPositionArrays(Map<Object, List<Integer>> positions, M index) {
+        for (Map.Entry<Object, List<Integer>> entry : positions.entrySet()) {
+            index.put(entry.getKey(), IntArrays.toArray(entry.getValue()));
+        }
+
+        return index;
+    }
+}
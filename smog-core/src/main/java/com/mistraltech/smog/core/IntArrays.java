@@ -0,0 +1,21 @@
+package com.mistraltech.smog.core;
+
+import java.util.List;
+
+/**
+ * Converts the lists of positions and ids built up by the matcher engines into the arrays they run from.
+ */
+final class IntArrays {
+    private IntArrays() {
+    }
+
+    static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+
+        return array;
+    }
+}
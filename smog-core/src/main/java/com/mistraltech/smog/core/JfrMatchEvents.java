@@ -0,0 +1,156 @@
+package com.mistraltech.smog.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The JDK Flight Recorder events emitted by {@link MatchEvents}. This class refers to the {@code jdk.jfr}
+ * module, so it must only be loaded once that module is known to be present.
+ */
+final class JfrMatchEvents {
+    private JfrMatchEvents() {
+    }
+
+    /**
+     * Tracks whether any flight recording is running, so that {@link MatchEvents#isRecording()} is
+     * kept up to date.
+     */
+    static void register() {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                updateRecording(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changedRecording) {
+                updateRecording(FlightRecorder.getFlightRecorder());
+            }
+        });
+    }
+
+    private static void updateRecording(FlightRecorder recorder) {
+        boolean running = false;
+
+        for (Recording recording : recorder.getRecordings()) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                running = true;
+                break;
+            }
+        }
+
+        MatchEvents.setRecording(running);
+    }
+
+    static MatchResult recordCompositeMatch(CompositePropertyMatcher<?> matcher, Supplier<MatchResult> evaluation) {
+        CompositeMatchEvent event = new CompositeMatchEvent();
+        event.begin();
+        MatchResult result = evaluation.get();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.matcherClass = matcher.getClass();
+            event.path = matcher.getPath();
+            event.matched = result.matches();
+            event.commit();
+        }
+
+        return result;
+    }
+
+    static Object recordPropertyRead(ReflectingPropertyMatcher<?> matcher, Object item, Function<Object, Object> reader) {
+        PropertyReadEvent event = new PropertyReadEvent();
+        event.begin();
+        boolean succeeded = false;
+
+        try {
+            Object value = reader.apply(item);
+            succeeded = true;
+            return value;
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.matcherClass = matcher.getClass();
+                event.beanClass = item.getClass();
+                event.path = matcher.getPathProvider() != null ? matcher.getPath() : matcher.getPropertyName();
+                event.succeeded = succeeded;
+                event.commit();
+            }
+        }
+    }
+
+    static boolean recordMismatchDescription(PathAwareDiagnosingMatcher<?> matcher, Supplier<Boolean> description) {
+        MismatchDescriptionEvent event = new MismatchDescriptionEvent();
+        event.begin();
+        boolean matched = description.get();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.matcherClass = matcher.getClass();
+            event.path = matcher.getPath();
+            event.matched = matched;
+            event.commit();
+        }
+
+        return matched;
+    }
+
+    @Name("com.mistraltech.smog.CompositeMatch")
+    @Label("Composite Match")
+    @Category("SMOG")
+    @Description("Evaluation of an item by a composite property matcher")
+    static class CompositeMatchEvent extends Event {
+        @Label("Matcher Class")
+        Class<?> matcherClass;
+
+        @Label("Path")
+        String path;
+
+        @Label("Matched")
+        boolean matched;
+    }
+
+    @Name("com.mistraltech.smog.PropertyRead")
+    @Label("Property Read")
+    @Category("SMOG")
+    @Description("Reflective read of a property by a reflecting property matcher")
+    static class PropertyReadEvent extends Event {
+        @Label("Matcher Class")
+        Class<?> matcherClass;
+
+        @Label("Bean Class")
+        Class<?> beanClass;
+
+        @Label("Path")
+        String path;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("com.mistraltech.smog.MismatchDescription")
+    @Label("Mismatch Description")
+    @Category("SMOG")
+    @Description("Rendering of a mismatch description by a composite property matcher")
+    static class MismatchDescriptionEvent extends Event {
+        @Label("Matcher Class")
+        Class<?> matcherClass;
+
+        @Label("Path")
+        String path;
+
+        @Label("Matched")
+        boolean matched;
+    }
+}
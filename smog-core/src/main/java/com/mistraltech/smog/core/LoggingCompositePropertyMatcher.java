@@ -1,7 +1,6 @@
 package com.mistraltech.smog.core;
 
 import org.hamcrest.Description;
-import org.hamcrest.StringDescription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,27 +24,39 @@ public class LoggingCompositePropertyMatcher<T> extends CompositePropertyMatcher
         return description;
     }
 
+    @Override
+    protected boolean isLogEnabled() {
+        return LOGGER.isDebugEnabled();
+    }
+
     @Override
     protected void writeLog(String text) {
         LOGGER.debug(text);
     }
 
     /**
-     * A type of Description that substitutes parts of the description matching a regular expression
-     * with some other text.
+     * A type of Description that substitutes occurrences of some text with some other text
+     * as the description is written.
      */
-    private static class TextSubstitutingDescription extends StringDescription {
-        final String regex;
+    private static class TextSubstitutingDescription extends AppendableDescription {
+        final String target;
         final String replacement;
 
-        public TextSubstitutingDescription(String regex, String replacement) {
-            this.regex = regex;
+        public TextSubstitutingDescription(String target, String replacement) {
+            super(new StringBuilder());
+            this.target = target;
             this.replacement = replacement;
         }
 
         @Override
-        public String toString() {
-            return super.toString().replaceAll(regex, replacement);
+        protected void append(String str) {
+            if (str.equals(target)) {
+                super.append(replacement);
+            } else if (str.contains(target)) {
+                super.append(str.replace(target, replacement));
+            } else {
+                super.append(str);
+            }
         }
     }
 }
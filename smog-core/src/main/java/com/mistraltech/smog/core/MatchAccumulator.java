@@ -0,0 +1,598 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A helper class that interposes in the invocation of the matches() method of multiple matchers and
+ * coordinates the building of a cumulative mismatch description for those that fail.
+ * <p>
+ * If the mismatch description is {@link Description#NONE}, no description is being built and the accumulator
+ * works fail-fast: once a match has failed, the remaining matchers are not invoked. Instead, the failed matcher
+ * and those that follow it are retained so that a {@link MatchResult} can describe the mismatch later.
+ * <p>
+ * Property matchers registered with the {@link CompositePropertyMatcher} that created the accumulator are
+ * tracked by their registry slot in a bit mask, so that applying them allocates nothing.
+ * <p>
+ * When the composite orders its evaluation, by {@link PropertyCost} or {@link AdaptiveOrdering}, a fail-fast
+ * accumulator first collects the matchers and the items (or property readers) they are applied to, and then
+ * evaluates them in order.
+ */
+public final class MatchAccumulator {
+    /**
+     * The text that appears between elements of a mismatch description.
+     */
+    public static final String MISMATCH_CONJUNCTIVE_ADVERB = "\n     and: ";
+
+    private static final int COST_RANK_SHIFT = 24;
+
+    /**
+     * Indicates whether the matchers tested so far have all succeeded.
+     */
+    private boolean currentlyMatching = true;
+
+    /**
+     * Builds the mismatch description.
+     */
+    private Description mismatchDescription;
+
+    /**
+     * Indicates whether matchers can be skipped once a match has failed.
+     */
+    private boolean failFast;
+
+    /**
+     * Limits the mismatches described when not working fail-fast. Null when working fail-fast.
+     */
+    private MismatchLimit mismatchLimit;
+
+    /**
+     * The property matchers whose applied state is tracked by registry slot.
+     */
+    private final List<PropertyMatcher<?>> registeredMatchers;
+
+    /**
+     * Identifies the registered matchers in the first 64 slots that have been tested.
+     */
+    private long appliedSlots;
+
+    /**
+     * Identifies the registered matchers in slots beyond the first 64 that have been tested. Null until needed.
+     */
+    private long[] appliedOverflowSlots;
+
+    /**
+     * Identifies other matchers that have been tested. This allows clients to ask whether
+     * a given matcher has been tested previously. Backed by an IdentityHashMap, which does not allocate
+     * when entries are added after it has been cleared. Null until needed.
+     */
+    private Set<Matcher<?>> appliedMatchers;
+
+    /**
+     * When working fail-fast, the failed matcher and the matchers applied after it, which are described
+     * by the {@link MatchResult}. Null until a match fails.
+     */
+    private List<MatchResult.Entry> mismatchEntries;
+
+    /**
+     * Indicates whether matchers are collected for later evaluation rather than evaluated immediately.
+     */
+    private boolean collecting;
+
+    /**
+     * The collected matchers, with the items or property readers they are applied to, in the order applied.
+     * Allocated on first use and reused thereafter.
+     */
+    private Matcher<?>[] collectedMatchers;
+    private Object[] collectedSources;
+    private Function<Object, ?>[] collectedReaders;
+    private int collectedCount;
+
+    /**
+     * The property values read by registered {@link ReflectingPropertyMatcher}s during this evaluation, and the
+     * beans they were read from, indexed by slot. Allocated on first use and reused thereafter.
+     */
+    private Object[] memoizedSources;
+    private Object[] memoizedValues;
+    private boolean memoized;
+
+    /**
+     * Scratch space for evaluating collected matchers. Allocated on first use and reused thereafter.
+     */
+    private int[] evaluationOrder;
+    private int[] evaluationRanks;
+    private boolean[] evaluated;
+
+    /**
+     * Constructor.
+     *
+     * @param mismatchDescription the description object used for recording the mismatch description
+     */
+    public MatchAccumulator(Description mismatchDescription) {
+        this(mismatchDescription, Collections.<PropertyMatcher<?>>emptyList());
+    }
+
+    /**
+     * Constructor for an accumulator that tracks registered property matchers by slot.
+     *
+     * @param mismatchDescription the description object used for recording the mismatch description
+     * @param registeredMatchers the registered property matchers, indexed by slot
+     */
+    MatchAccumulator(Description mismatchDescription, List<PropertyMatcher<?>> registeredMatchers) {
+        this.registeredMatchers = registeredMatchers;
+        reset(mismatchDescription);
+    }
+
+    /**
+     * Restores the initial state so that the accumulator can be reused.
+     *
+     * @param mismatchDescription the description object used for recording the mismatch description
+     */
+    void reset(Description mismatchDescription) {
+        reset(mismatchDescription, false);
+    }
+
+    /**
+     * Restores the initial state so that the accumulator can be reused.
+     *
+     * @param mismatchDescription the description object used for recording the mismatch description
+     * @param collecting true if matchers are to be collected and evaluated by
+     * {@link #evaluateCollected(AdaptiveOrdering)}, which requires a fail-fast accumulator
+     */
+    void reset(Description mismatchDescription, boolean collecting) {
+        release();
+        this.mismatchDescription = mismatchDescription;
+        this.failFast = mismatchDescription instanceof Description.NullDescription;
+        this.mismatchLimit = failFast ? null : new MismatchLimit(MismatchLimit.UNLIMITED);
+        this.currentlyMatching = true;
+        this.appliedSlots = 0L;
+        this.collecting = collecting && failFast;
+
+        if (appliedOverflowSlots != null) {
+            Arrays.fill(appliedOverflowSlots, 0L);
+        }
+    }
+
+    /**
+     * Drops the references this accumulator holds to the items, property values and matchers of the last
+     * evaluation, so that an accumulator kept for reuse does not keep them reachable. The accumulator must be
+     * reset before it is used again.
+     */
+    void release() {
+        this.mismatchEntries = null;
+
+        if (collectedCount > 0) {
+            Arrays.fill(collectedMatchers, 0, collectedCount, null);
+            Arrays.fill(collectedSources, 0, collectedCount, null);
+            Arrays.fill(collectedReaders, 0, collectedCount, null);
+            collectedCount = 0;
+        }
+
+        if (appliedMatchers != null) {
+            appliedMatchers.clear();
+        }
+
+        if (memoized) {
+            Arrays.fill(memoizedSources, null);
+            Arrays.fill(memoizedValues, null);
+            memoized = false;
+        }
+    }
+
+    /**
+     * Invokes the {@link Matcher#matches(java.lang.Object)} method on the supplied matcher against a given target object
+     * and appends relevant text to the mismatch description if the match fails.
+     * <p>
+     * The matcher is not invoked if the result has already been decided (see {@link #isDecided()}), although
+     * it is still regarded as having been applied and, when only the result is wanted, is retained for describing
+     * the mismatch later.
+     *
+     * @param matcher the matcher to invoke
+     * @param item the target object to be matched
+     * @param <P> the type of item to be matched
+     * @return this instance, to allow multiple calls to be chained
+     */
+    public <P> MatchAccumulator matches(Matcher<?> matcher, P item) {
+        if (collecting) {
+            collect(matcher, item, null);
+        } else if (isDecided()) {
+            retainUnapplied(matcher, item, null);
+        } else {
+            Object value = readMemoizedValue(matcher, item, null);
+
+            if (!matchesValue(matcher, value)) {
+                handleMismatch(matcher, value);
+            }
+        }
+
+        markApplied(matcher);
+        return this;
+    }
+
+    /**
+     * Invokes the {@link Matcher#matches(java.lang.Object)} method on the supplied matcher against a property
+     * of a given source object, and appends relevant text to the mismatch description if the match fails.
+     * <p>
+     * The property is read from the source object only if the matcher is invoked. If the result has
+     * already been decided (see {@link #isDecided()}), the property is not read unless the mismatch is described.
+     * If the matcher is a registered property matcher, the property is read at most once per evaluation, however
+     * many times the matcher is applied; a {@link ReflectingPropertyMatcher} takes the value returned by the
+     * property reader as its property value, rather than reading the property itself.
+     *
+     * @param matcher the matcher to invoke
+     * @param source the object containing the property to be matched
+     * @param propertyReader reads the property to be matched from the source object, e.g. Person::getName
+     * @param <S> the type of the source object
+     * @return this instance, to allow multiple calls to be chained
+     */
+    @SuppressWarnings("unchecked")
+    public <S> MatchAccumulator matches(Matcher<?> matcher, S source, Function<? super S, ?> propertyReader) {
+        if (collecting) {
+            collect(matcher, source, (Function<Object, ?>) propertyReader);
+            markApplied(matcher);
+            return this;
+        }
+
+        if (isDecided()) {
+            retainUnapplied(matcher, source, (Function<Object, ?>) propertyReader);
+            markApplied(matcher);
+            return this;
+        }
+
+        Object value = readMemoizedValue(matcher, source, (Function<Object, ?>) propertyReader);
+
+        if (!matchesValue(matcher, value)) {
+            handleMismatch(matcher, value);
+        }
+
+        markApplied(matcher);
+        return this;
+    }
+
+    private void retainUnapplied(Matcher<?> matcher, Object source, Function<Object, ?> propertyReader) {
+        // The mismatch entries are only needed for a MatchResult; a description beyond its limit needs nothing
+        if (failFast) {
+            mismatchEntries.add(new MatchResult.Entry(matcher, source, propertyReader));
+        }
+    }
+
+    private void collect(Matcher<?> matcher, Object source, Function<Object, ?> propertyReader) {
+        if (collectedMatchers == null || collectedCount == collectedMatchers.length) {
+            int capacity = collectedMatchers == null ? Math.max(8, registeredMatchers.size()) : collectedCount * 2;
+            collectedMatchers = Arrays.copyOf(collectedMatchers == null ? new Matcher<?>[0] : collectedMatchers, capacity);
+            collectedSources = Arrays.copyOf(collectedSources == null ? new Object[0] : collectedSources, capacity);
+            collectedReaders = collectedReaders == null ? newReaders(capacity) : Arrays.copyOf(collectedReaders, capacity);
+        }
+
+        collectedMatchers[collectedCount] = matcher;
+        collectedSources[collectedCount] = source;
+        collectedReaders[collectedCount] = propertyReader;
+        collectedCount++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, ?>[] newReaders(int capacity) {
+        return (Function<Object, ?>[]) new Function<?, ?>[capacity];
+    }
+
+    /**
+     * Evaluates the collected matchers, stopping at the first failure. Matchers that are not registered
+     * property matchers are evaluated first, in the order applied. Registered property matchers are then
+     * evaluated cheapest first (see {@link PropertyCost}), and within the same cost in the order ranked by
+     * the supplied ordering, if any, or the declared order. If a match fails, the failed matcher and the
+     * matchers that were not evaluated are retained in the order applied, for describing the mismatch.
+     *
+     * @param ordering ranks the registered property matchers and records their outcomes; can be null
+     */
+    void evaluateCollected(AdaptiveOrdering ordering) {
+        int count = collectedCount;
+        if (count == 0) {
+            return;
+        }
+
+        ensureEvaluationCapacity(count);
+
+        int[] ranks = ordering != null ? ordering.getRanks() : null;
+        for (int position = 0; position < count; position++) {
+            Matcher<?> matcher = collectedMatchers[position];
+            int slot = slotOf(matcher);
+
+            if (slot < 0) {
+                evaluationRanks[position] = -1;
+            } else {
+                int rank = ranks != null && slot < ranks.length ? ranks[slot] : slot;
+                // The cost takes precedence over the rank
+                evaluationRanks[position] = (((PropertyMatcher<?>) matcher).getCost().ordinal() << COST_RANK_SHIFT) + rank;
+            }
+
+            evaluated[position] = false;
+            insertByRank(position);
+        }
+
+        boolean timed = ordering != null && ordering.startEvaluation();
+        int failedPosition = -1;
+        Object failedItem = null;
+
+        for (int i = 0; i < count && failedPosition < 0; i++) {
+            int position = evaluationOrder[i];
+            Matcher<?> matcher = collectedMatchers[position];
+            long start = timed ? System.nanoTime() : 0L;
+
+            Function<Object, ?> propertyReader = collectedReaders[position];
+            Object item = readMemoizedValue(matcher, collectedSources[position], propertyReader);
+            boolean matched = matchesValue(matcher, item);
+
+            evaluated[position] = true;
+
+            if (ordering != null) {
+                ordering.recordEvaluation(slotOf(matcher), matched, timed ? System.nanoTime() - start : -1L);
+            }
+
+            if (!matched) {
+                failedPosition = position;
+                failedItem = item;
+            }
+        }
+
+        if (failedPosition >= 0) {
+            mismatchEntries = new ArrayList<MatchResult.Entry>();
+
+            for (int position = 0; position < count; position++) {
+                if (position == failedPosition) {
+                    mismatchEntries.add(new MatchResult.Entry(collectedMatchers[position], failedItem));
+                } else if (!evaluated[position]) {
+                    mismatchEntries.add(new MatchResult.Entry(collectedMatchers[position],
+                            collectedSources[position], collectedReaders[position]));
+                }
+            }
+
+            currentlyMatching = false;
+        }
+    }
+
+    private void ensureEvaluationCapacity(int count) {
+        if (evaluationOrder == null || evaluationOrder.length < count) {
+            evaluationOrder = new int[collectedMatchers.length];
+            evaluationRanks = new int[collectedMatchers.length];
+            evaluated = new boolean[collectedMatchers.length];
+        }
+    }
+
+    /**
+     * Inserts a position into the evaluation order, which is sorted by rank and then by position.
+     */
+    private void insertByRank(int position) {
+        int rank = evaluationRanks[position];
+        int i = position;
+
+        while (i > 0 && evaluationRanks[evaluationOrder[i - 1]] > rank) {
+            evaluationOrder[i] = evaluationOrder[i - 1];
+            i--;
+        }
+
+        evaluationOrder[i] = position;
+    }
+
+    /**
+     * Reads the value that a matcher is to be applied to, using the property reader if there is one, and
+     * otherwise reading the property of a {@link ReflectingPropertyMatcher}. The value read for a registered
+     * property matcher is remembered by slot for the rest of the evaluation, whichever way it was read, so that
+     * the property is read at most once. For other matchers without a property reader, it is the source itself.
+     */
+    private Object readMemoizedValue(Matcher<?> matcher, Object source, Function<Object, ?> propertyReader) {
+        if (propertyReader == null && !ReflectingPropertyMatcher.readsPropertySeparately(matcher)) {
+            return source;
+        }
+
+        int slot = slotOf(matcher);
+        if (slot < 0) {
+            return read(matcher, source, propertyReader);
+        }
+
+        if (memoizedSources == null || slot >= memoizedSources.length) {
+            int size = registeredMatchers.size();
+            memoizedSources = Arrays.copyOf(memoizedSources == null ? new Object[0] : memoizedSources, size);
+            memoizedValues = Arrays.copyOf(memoizedValues == null ? new Object[0] : memoizedValues, size);
+        }
+
+        if (memoizedSources[slot] != source) {
+            memoizedValues[slot] = read(matcher, source, propertyReader);
+            memoizedSources[slot] = source;
+            memoized = true;
+        }
+
+        return memoizedValues[slot];
+    }
+
+    private static Object read(Matcher<?> matcher, Object source, Function<Object, ?> propertyReader) {
+        return propertyReader != null
+                ? propertyReader.apply(source)
+                : ((ReflectingPropertyMatcher<?>) matcher).readPropertyValue(source);
+    }
+
+    /**
+     * Reads the value that a matcher is to be applied to, without memoization.
+     *
+     * @param matcher the matcher
+     * @param item the item
+     * @return the property value for a {@link ReflectingPropertyMatcher}; otherwise the item
+     */
+    static Object readValue(Matcher<?> matcher, Object item) {
+        return ReflectingPropertyMatcher.readsPropertySeparately(matcher)
+                ? ((ReflectingPropertyMatcher<?>) matcher).readPropertyValue(item)
+                : item;
+    }
+
+    /**
+     * Applies a matcher to a value obtained from {@link #readValue(Matcher, Object)}.
+     */
+    static boolean matchesValue(Matcher<?> matcher, Object value) {
+        return ReflectingPropertyMatcher.readsPropertySeparately(matcher)
+                ? ((ReflectingPropertyMatcher<?>) matcher).matchesPropertyValue(value)
+                : matcher.matches(value);
+    }
+
+    /**
+     * Describes the mismatch of a value obtained from {@link #readValue(Matcher, Object)}.
+     */
+    static void describeValueMismatch(Matcher<?> matcher, Object value, Description description) {
+        if (ReflectingPropertyMatcher.readsPropertySeparately(matcher)) {
+            ((ReflectingPropertyMatcher<?>) matcher).describePropertyValueMismatch(value, description);
+        } else {
+            matcher.describeMismatch(value, description);
+        }
+    }
+
+    private <P> void handleMismatch(Matcher<?> matcher, P item) {
+        if (failFast) {
+            // The mismatch is described later, if at all, by the MatchResult
+            mismatchEntries = new ArrayList<MatchResult.Entry>();
+            mismatchEntries.add(new MatchResult.Entry(matcher, item));
+        } else if (mismatchLimit.tryDescribe(matcher)) {
+            if (mismatchLimit.hasDescribedBefore()) {
+                // This is not the first failure so add some joining text to mismatch description
+                mismatchDescription.appendText(MISMATCH_CONJUNCTIVE_ADVERB);
+            }
+
+            describeValueMismatch(matcher, item, mismatchDescription);
+        }
+
+        currentlyMatching = false;
+    }
+
+    /**
+     * Limits the number of mismatches described, when not working fail-fast. Once a further mismatch is found,
+     * no more matchers are applied, and {@link #describeSuppressedMismatches()} notes that there are more.
+     *
+     * @param limit the maximum number of mismatches to describe
+     */
+    void limitMismatches(int limit) {
+        if (!failFast) {
+            mismatchLimit = new MismatchLimit(limit);
+        }
+    }
+
+    /**
+     * Appends a count of the mismatches that were not described because of the mismatch limits.
+     */
+    void describeSuppressedMismatches() {
+        if (mismatchLimit != null) {
+            mismatchLimit.describeSuppressed(mismatchDescription);
+        }
+    }
+
+    /**
+     * The cumulative currentlyMatching result.
+     *
+     * @return true if this instance was constructed with currentlyMatching equal to or
+     * defaulted to true and all subsequent currentlyMatching() invocations were successful; false otherwise.
+     */
+    public boolean result() {
+        return currentlyMatching;
+    }
+
+    /**
+     * Indicates whether the cumulative result is already known to be a mismatch and either no mismatch description
+     * is being built, or the description has found more mismatches than its limit allows (see
+     * {@link #limitMismatches(int)}), so there is no need to apply further matchers.
+     *
+     * @return true if further matchers need not be applied; false otherwise
+     */
+    public boolean isDecided() {
+        return failFast ? !currentlyMatching : mismatchLimit.isExceeded();
+    }
+
+    /**
+     * Indicates whether the provided matcher has been applied (i.e. its matches method invoked
+     * and its result accumulated).
+     *
+     * @param matcher the subject of the query
+     * @return true if the matches method of the supplied matcher has been invoked; false otherwise
+     */
+    public boolean hasBeenApplied(Matcher<?> matcher) {
+        int slot = slotOf(matcher);
+
+        if (slot < 0) {
+            return appliedMatchers != null && appliedMatchers.contains(matcher);
+        } else if (slot < Long.SIZE) {
+            return (appliedSlots & (1L << slot)) != 0;
+        } else {
+            int word = slot / Long.SIZE - 1;
+            return appliedOverflowSlots != null && word < appliedOverflowSlots.length
+                    && (appliedOverflowSlots[word] & (1L << slot)) != 0;
+        }
+    }
+
+    private void markApplied(Matcher<?> matcher) {
+        int slot = slotOf(matcher);
+
+        if (slot < 0) {
+            if (appliedMatchers == null) {
+                appliedMatchers = Collections.newSetFromMap(new IdentityHashMap<Matcher<?>, Boolean>());
+            }
+
+            appliedMatchers.add(matcher);
+        } else if (slot < Long.SIZE) {
+            appliedSlots |= 1L << slot;
+        } else {
+            int word = slot / Long.SIZE - 1;
+
+            if (appliedOverflowSlots == null || word >= appliedOverflowSlots.length) {
+                long[] overflow = new long[registeredMatchers.size() / Long.SIZE];
+
+                if (appliedOverflowSlots != null) {
+                    System.arraycopy(appliedOverflowSlots, 0, overflow, 0, appliedOverflowSlots.length);
+                }
+
+                appliedOverflowSlots = overflow;
+            }
+
+            // Shift distance is taken modulo 64
+            appliedOverflowSlots[word] |= 1L << slot;
+        }
+    }
+
+    /**
+     * Gets the registry slot of a matcher.
+     *
+     * @param matcher the matcher
+     * @return the slot, or -1 if the matcher is not one of the registered matchers
+     */
+    private int slotOf(Matcher<?> matcher) {
+        if (matcher instanceof PropertyMatcher) {
+            int slot = ((PropertyMatcher<?>) matcher).getRegistrySlot();
+
+            if (slot >= 0 && slot < registeredMatchers.size() && registeredMatchers.get(slot) == matcher) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the result of the matchers applied so far.
+     *
+     * @param item the item being matched
+     * @return the match result
+     */
+    MatchResult getMatchResult(Object item) {
+        if (currentlyMatching) {
+            return MatchResult.matched();
+        }
+
+        if (!failFast) {
+            throw new IllegalStateException("Mismatch has already been described");
+        }
+
+        return new MatchResult(item, mismatchEntries);
+    }
+}
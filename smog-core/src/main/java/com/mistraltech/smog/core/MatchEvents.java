@@ -0,0 +1,58 @@
+package com.mistraltech.smog.core;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Emits JDK Flight Recorder events for match evaluations, property reads and mismatch descriptions.
+ * <p>
+ * While no recording is running, {@link #isRecording()} is false and matchers call straight through, so
+ * the only cost is one volatile read. On runtimes without the {@code jdk.jfr} module, events are never
+ * emitted and the JFR classes are never loaded.
+ */
+final class MatchEvents {
+    private static volatile boolean recording;
+
+    static {
+        if (isFlightRecorderAvailable()) {
+            JfrMatchEvents.register();
+        }
+    }
+
+    private MatchEvents() {
+    }
+
+    /**
+     * Indicates whether a flight recording is running, so events might be committed.
+     *
+     * @return true if events should be emitted
+     */
+    static boolean isRecording() {
+        return recording;
+    }
+
+    static void setRecording(boolean isRecording) {
+        recording = isRecording;
+    }
+
+    static MatchResult recordCompositeMatch(CompositePropertyMatcher<?> matcher, Supplier<MatchResult> evaluation) {
+        return JfrMatchEvents.recordCompositeMatch(matcher, evaluation);
+    }
+
+    static Object recordPropertyRead(ReflectingPropertyMatcher<?> matcher, Object item, Function<Object, Object> reader) {
+        return JfrMatchEvents.recordPropertyRead(matcher, item, reader);
+    }
+
+    static boolean recordMismatchDescription(PathAwareDiagnosingMatcher<?> matcher, Supplier<Boolean> description) {
+        return JfrMatchEvents.recordMismatchDescription(matcher, description);
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
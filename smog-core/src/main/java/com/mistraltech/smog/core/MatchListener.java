@@ -0,0 +1,31 @@
+package com.mistraltech.smog.core;
+
+/**
+ * Receives notification of each evaluation performed by composite and property matchers, for
+ * instrumentation such as {@link MatchStatistics}.
+ * <p>
+ * A listener is installed globally with {@link MatchListeners#install(MatchListener)}. It is called on the
+ * matching thread, so implementations must be thread-safe and should return quickly. Evaluations made
+ * only to describe a mismatch are not reported.
+ */
+public interface MatchListener {
+    /**
+     * Called when a composite matcher has evaluated an item.
+     *
+     * @param matcher the composite matcher
+     * @param matched whether the item matched
+     * @param nanos the elapsed time in nanoseconds, including the time taken by nested matchers
+     */
+    default void compositeMatched(CompositePropertyMatcher<?> matcher, boolean matched, long nanos) {
+    }
+
+    /**
+     * Called when a property matcher has evaluated a property value.
+     *
+     * @param matcher the property matcher
+     * @param matched whether the value matched
+     * @param nanos the elapsed time in nanoseconds
+     */
+    default void propertyMatched(PropertyMatcher<?> matcher, boolean matched, long nanos) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.mistraltech.smog.core;
+
+/**
+ * Holds the globally installed {@link MatchListener}. When no listener is installed, matchers
+ * neither read the clock nor call any listener.
+ */
+public final class MatchListeners {
+    private static volatile MatchListener listener;
+
+    /**
+     * Set on a thread while it describes a mismatch, during which the listener is not called.
+     */
+    private static final ThreadLocal<Boolean> DESCRIBING = new ThreadLocal<Boolean>();
+
+    private MatchListeners() {
+    }
+
+    /**
+     * Installs a listener, replacing any listener already installed.
+     *
+     * @param matchListener the listener
+     */
+    public static void install(MatchListener matchListener) {
+        if (matchListener == null) {
+            throw new IllegalArgumentException("No match listener");
+        }
+
+        listener = matchListener;
+    }
+
+    /**
+     * Removes the installed listener, if any.
+     */
+    public static void uninstall() {
+        listener = null;
+    }
+
+    /**
+     * Gets the installed listener.
+     *
+     * @return the listener, or null if none is installed or this thread is describing a mismatch
+     */
+    static MatchListener current() {
+        MatchListener current = listener;
+        return current != null && DESCRIBING.get() == null ? current : null;
+    }
+
+    /**
+     * Stops calling the listener on this thread while a mismatch is described, unless already stopped.
+     *
+     * @return true if this call stopped it, in which case {@link #endDescribing()} must be called
+     */
+    static boolean beginDescribing() {
+        if (listener == null || DESCRIBING.get() != null) {
+            return false;
+        }
+
+        DESCRIBING.set(Boolean.TRUE);
+        return true;
+    }
+
+    static void endDescribing() {
+        DESCRIBING.remove();
+    }
+}
@@ -0,0 +1,178 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The result of matching an item with a {@link CompositePropertyMatcher}.
+ * <p>
+ * A result is produced by a single, fail-fast evaluation of the matcher. A mismatch result retains the first
+ * failing matcher and any matchers that were not applied once the result was known, so that the mismatch can be
+ * described later without evaluating the match again. Matchers that were not applied are applied only when the
+ * mismatch is described.
+ */
+public final class MatchResult {
+    private static final MatchResult MATCHED = new MatchResult(null, Collections.<Entry>emptyList());
+
+    private final Object item;
+    private final List<Entry> mismatchEntries;
+
+    MatchResult(Object item, List<Entry> mismatchEntries) {
+        this.item = item;
+        this.mismatchEntries = mismatchEntries;
+    }
+
+    /**
+     * Gets the result for a successful match.
+     *
+     * @return a successful result
+     */
+    public static MatchResult matched() {
+        return MATCHED;
+    }
+
+    /**
+     * Indicates whether the match succeeded.
+     *
+     * @return true if the item matched; false otherwise
+     */
+    public boolean matches() {
+        return mismatchEntries.isEmpty();
+    }
+
+    /**
+     * Indicates whether this is the result of matching the given item.
+     *
+     * @param candidate the item
+     * @return true if this result was produced for the given item instance
+     */
+    boolean isFor(Object candidate) {
+        return !matches() && item == candidate;
+    }
+
+    /**
+     * Appends a description of the mismatch, if any, to the supplied description.
+     *
+     * @param description the description to append to
+     */
+    public void describeMismatch(Description description) {
+        describeMismatch(description, MismatchLimit.UNLIMITED);
+    }
+
+    /**
+     * Appends a description of the mismatch, describing at most the given number of failed matchers and
+     * noting that there are more.
+     *
+     * @param description the description to append to
+     * @param limit the maximum number of failed matchers to describe
+     */
+    void describeMismatch(Description description, int limit) {
+        MismatchLimit mismatchLimit = new MismatchLimit(limit);
+
+        for (Entry entry : mismatchEntries) {
+            if (entry.matches()) {
+                continue;
+            }
+
+            if (!mismatchLimit.tryDescribe(entry.getMatcher())) {
+                // The matchers beyond the limit are not applied
+                break;
+            }
+
+            if (mismatchLimit.hasDescribedBefore()) {
+                description.appendText(MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB);
+            }
+
+            entry.describeMismatch(description);
+        }
+
+        mismatchLimit.describeSuppressed(description);
+    }
+
+    /**
+     * Gets a structured report of each mismatch, in the order that the matchers were applied. Matchers that
+     * were not applied during the evaluation are applied now.
+     *
+     * @return the mismatches; empty if the item matched
+     */
+    public List<MismatchReport> getMismatches() {
+        if (matches()) {
+            return Collections.emptyList();
+        }
+
+        List<MismatchReport> mismatches = new ArrayList<MismatchReport>(mismatchEntries.size());
+        for (Entry entry : mismatchEntries) {
+            if (!entry.matches()) {
+                mismatches.add(entry.toMismatchReport());
+            }
+        }
+
+        return Collections.unmodifiableList(mismatches);
+    }
+
+    /**
+     * A matcher together with the item it was, or is still to be, applied to. For a
+     * {@link ReflectingPropertyMatcher} the item is the property value read from the bean, so
+     * that the property is read only once.
+     */
+    static final class Entry {
+        private final Matcher<?> matcher;
+        private final Object source;
+        private final Function<Object, ?> propertyReader;
+        private Object item;
+        private Boolean matches;
+
+        /**
+         * Constructs an entry for a matcher that has not yet been applied.
+         *
+         * @param matcher the matcher
+         * @param source the item to apply the matcher to, or the object to read it from if propertyReader is not null
+         * @param propertyReader reads the item from source; can be null
+         */
+        Entry(Matcher<?> matcher, Object source, Function<Object, ?> propertyReader) {
+            this.matcher = matcher;
+            this.source = source;
+            this.propertyReader = propertyReader;
+        }
+
+        /**
+         * Constructs an entry for a matcher that has been applied and failed.
+         *
+         * @param matcher the matcher
+         * @param item the item that did not match, as returned by {@link MatchAccumulator#readValue}
+         */
+        Entry(Matcher<?> matcher, Object item) {
+            this.matcher = matcher;
+            this.source = item;
+            this.propertyReader = null;
+            this.item = item;
+            this.matches = false;
+        }
+
+        Matcher<?> getMatcher() {
+            return matcher;
+        }
+
+        boolean matches() {
+            if (matches == null) {
+                item = propertyReader != null ? propertyReader.apply(source) : MatchAccumulator.readValue(matcher, source);
+                matches = MatchAccumulator.matchesValue(matcher, item);
+            }
+
+            return matches;
+        }
+
+        void describeMismatch(Description description) {
+            MatchAccumulator.describeValueMismatch(matcher, item, description);
+        }
+
+        MismatchReport toMismatchReport() {
+            return new MismatchReport(matcher, item);
+        }
+    }
+}
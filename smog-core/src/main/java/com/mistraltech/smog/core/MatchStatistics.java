@@ -0,0 +1,133 @@
+package com.mistraltech.smog.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MatchListener} that counts evaluations and failures, and totals the time taken, for each
+ * matcher class and property path. Property evaluations are counted under the class of the composite
+ * matcher that owns the property, or under the property matcher's own class if it has no owner.
+ * <p>
+ * Counters are striped, so recording does not lock and does not allocate once a matcher class and path
+ * has been seen.
+ */
+public class MatchStatistics implements MatchListener {
+    private final ConcurrentMap<Class<?>, ConcurrentMap<PropertyPath, Counter>> counters =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<PropertyPath, Counter>>();
+
+    @Override
+    public void compositeMatched(CompositePropertyMatcher<?> matcher, boolean matched, long nanos) {
+        counterFor(matcher.getClass(), matcher.getPropertyPath()).record(matched, nanos);
+    }
+
+    @Override
+    public void propertyMatched(PropertyMatcher<?> matcher, boolean matched, long nanos) {
+        PathProvider owner = matcher.getPathProvider();
+        Class<?> matcherClass = owner instanceof CompositePropertyMatcher ? owner.getClass() : matcher.getClass();
+
+        counterFor(matcherClass, matcher.getReportedPath()).record(matched, nanos);
+    }
+
+    /**
+     * Gets a snapshot of the counters recorded so far.
+     *
+     * @return a counter for each matcher class and property path evaluated
+     */
+    public List<Counter> getCounters() {
+        List<Counter> snapshot = new ArrayList<Counter>();
+
+        for (ConcurrentMap<PropertyPath, Counter> pathCounters : counters.values()) {
+            snapshot.addAll(pathCounters.values());
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Gets the counter for a matcher class and property path.
+     *
+     * @param matcherClass the matcher class
+     * @param path the property path
+     * @return the counter, or null if no such matcher has been evaluated
+     */
+    public Counter getCounter(Class<?> matcherClass, PropertyPath path) {
+        Map<PropertyPath, Counter> pathCounters = counters.get(matcherClass);
+        return pathCounters != null ? pathCounters.get(path) : null;
+    }
+
+    /**
+     * Discards all counters.
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    private Counter counterFor(Class<?> matcherClass, PropertyPath path) {
+        ConcurrentMap<PropertyPath, Counter> pathCounters = counters.get(matcherClass);
+        if (pathCounters == null) {
+            pathCounters = counters.computeIfAbsent(matcherClass,
+                    c -> new ConcurrentHashMap<PropertyPath, Counter>());
+        }
+
+        Counter counter = pathCounters.get(path);
+        if (counter == null) {
+            counter = pathCounters.computeIfAbsent(path, p -> new Counter(matcherClass, p));
+        }
+
+        return counter;
+    }
+
+    /**
+     * The evaluations of one matcher class at one property path.
+     */
+    public static final class Counter {
+        private final Class<?> matcherClass;
+        private final PropertyPath path;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        Counter(Class<?> matcherClass, PropertyPath path) {
+            this.matcherClass = matcherClass;
+            this.path = path;
+        }
+
+        void record(boolean matched, long nanos) {
+            evaluations.increment();
+            if (!matched) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+        }
+
+        public Class<?> getMatcherClass() {
+            return matcherClass;
+        }
+
+        public PropertyPath getPath() {
+            return path;
+        }
+
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            return matcherClass.getName() + " at " + path + ": " + getEvaluations() + " evaluations, "
+                    + getFailures() + " failures, " + getTotalNanos() + "ns";
+        }
+    }
+}
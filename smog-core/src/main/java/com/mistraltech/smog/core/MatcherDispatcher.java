@@ -0,0 +1,224 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ReflectingPropertyMatcher.PropertyAccessor;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Finds which of many matchers match an item, without applying every matcher to every item.
+ * <p>
+ * The dispatcher chooses the property that the most matchers constrain with {@code equalTo} (or {@code is}) through
+ * a {@link ReflectingPropertyMatcher}, and indexes the matchers by the expected value. To dispatch an item, it reads
+ * that property once and applies only the matchers indexed under the value read, together with the matchers that do
+ * not constrain the property. The result is the same as applying every matcher in turn, provided that composite
+ * matchers apply their reflecting property matchers to the item itself, as they do unless a subclass applies
+ * them to something else.
+ * <p>
+ * Composite matchers are frozen when the dispatcher is created, since changing them would invalidate the index.
+ *
+ * @param <T> the type of item matched
+ */
+public final class MatcherDispatcher<T> {
+    private static final int[] NONE = new int[0];
+
+    private final List<Matcher<? super T>> matchers;
+    private final String propertyName;
+    private final PropertyAccessor propertyAccessor;
+    private final Map<Object, int[]> indexedMatchers;
+    private final int[] unindexedMatchers;
+
+    private MatcherDispatcher(List<Matcher<? super T>> matchers, String propertyName,
+                              Map<Object, int[]> indexedMatchers, int[] unindexedMatchers) {
+        this.matchers = matchers;
+        this.propertyName = propertyName;
+        this.propertyAccessor = propertyName != null ? new PropertyAccessor(propertyName) : null;
+        this.indexedMatchers = indexedMatchers;
+        this.unindexedMatchers = unindexedMatchers;
+    }
+
+    /**
+     * Creates a dispatcher for the given matchers.
+     *
+     * @param matchers the matchers, in the order in which matches are to be reported
+     * @param <T> the type of item matched
+     * @return the dispatcher
+     */
+    public static <T> MatcherDispatcher<T> of(List<? extends Matcher<? super T>> matchers) {
+        if (matchers == null) {
+            throw new IllegalArgumentException("No matchers");
+        }
+
+        List<Matcher<? super T>> frozenMatchers = new ArrayList<Matcher<? super T>>(matchers.size());
+        List<Map<String, Object>> constraints = new ArrayList<Map<String, Object>>(matchers.size());
+        Map<String, Integer> constraintCounts = new HashMap<String, Integer>();
+
+        for (Matcher<? super T> matcher : matchers) {
+            if (matcher instanceof CompositePropertyMatcher) {
+                ((CompositePropertyMatcher<?>) matcher).freeze();
+            }
+
+            Map<String, Object> equalities = equalityConstraints(matcher);
+            for (String name : equalities.keySet()) {
+                constraintCounts.merge(name, 1, Integer::sum);
+            }
+
+            frozenMatchers.add(matcher);
+            constraints.add(equalities);
+        }
+
+        String propertyName = null;
+        for (Map.Entry<String, Integer> entry : constraintCounts.entrySet()) {
+            if (propertyName == null || entry.getValue() > constraintCounts.get(propertyName)) {
+                propertyName = entry.getKey();
+            }
+        }
+
+        Map<Object, List<Integer>> indexed = new HashMap<Object, List<Integer>>();
+        List<Integer> unindexed = new ArrayList<Integer>();
+
+        for (int i = 0; i < frozenMatchers.size(); i++) {
+            Map<String, Object> equalities = constraints.get(i);
+
+            if (propertyName != null && equalities.containsKey(propertyName)) {
+                indexed.computeIfAbsent(equalities.get(propertyName), v -> new ArrayList<Integer>()).add(i);
+            } else {
+                unindexed.add(i);
+            }
+        }
+
+        Map<Object, int[]> indexedMatchers = new HashMap<Object, int[]>();
+        for (Map.Entry<Object, List<Integer>> entry : indexed.entrySet()) {
+            indexedMatchers.put(entry.getKey(), IntArrays.toArray(entry.getValue()));
+        }
+
+        return new MatcherDispatcher<T>(Collections.unmodifiableList(frozenMatchers), propertyName,
+                indexedMatchers, IntArrays.toArray(unindexed));
+    }
+
+    /**
+     * Gets the name of the property used to select matchers.
+     *
+     * @return the property name, or null if no property is indexed and every matcher is always applied
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Finds the first matcher that matches the item.
+     *
+     * @param item the item
+     * @return the first matching matcher in the order given, if any
+     */
+    public Optional<Matcher<? super T>> findFirst(Object item) {
+        int first = applyCandidates(item, null);
+        return first >= 0 ? Optional.of(matchers.get(first)) : Optional.empty();
+    }
+
+    /**
+     * Finds all the matchers that match the item.
+     *
+     * @param item the item
+     * @return the matching matchers, in the order given
+     */
+    public List<Matcher<? super T>> findAll(Object item) {
+        List<Matcher<? super T>> found = new ArrayList<Matcher<? super T>>();
+        applyCandidates(item, found);
+        return found;
+    }
+
+    /**
+     * Applies the matchers that might match the item, in the order given: every matcher if no index applies,
+     * otherwise the indexed candidates merged with the unindexed matchers.
+     *
+     * @param found the list to add each matching matcher to, or null to stop at the first that matches
+     * @return the position of the last matcher that matched, or -1 if none matched
+     */
+    private int applyCandidates(Object item, List<Matcher<? super T>> found) {
+        int[] indexed = candidatesFor(item);
+        int count = indexed != null ? indexed.length + unindexedMatchers.length : matchers.size();
+        int matched = -1;
+        int i = 0;
+        int u = 0;
+
+        for (int n = 0; n < count; n++) {
+            int next;
+
+            if (indexed == null) {
+                next = n;
+            } else if (u >= unindexedMatchers.length || (i < indexed.length && indexed[i] < unindexedMatchers[u])) {
+                next = indexed[i++];
+            } else {
+                next = unindexedMatchers[u++];
+            }
+
+            if (matchers.get(next).matches(item)) {
+                matched = next;
+
+                if (found == null) {
+                    break;
+                }
+
+                found.add(matchers.get(next));
+            }
+        }
+
+        return matched;
+    }
+
+    /**
+     * Gets the positions of the indexed matchers that might match the item.
+     *
+     * @return the positions, or null if every matcher must be applied
+     */
+    private int[] candidatesFor(Object item) {
+        if (propertyAccessor == null || item == null) {
+            return null;
+        }
+
+        Object value;
+        try {
+            value = propertyAccessor.getPropertyValue(item);
+        } catch (RuntimeException e) {
+            // Let the matchers themselves decide how to handle an item without the property
+            return null;
+        }
+
+        if (value != null && value.getClass().isArray()) {
+            return null;
+        }
+
+        int[] indexed = indexedMatchers.get(value);
+        return indexed != null ? indexed : NONE;
+    }
+
+    /**
+     * Finds the property values required by a composite matcher's reflecting property matchers.
+     */
+    private static Map<String, Object> equalityConstraints(Matcher<?> matcher) {
+        if (!(matcher instanceof CompositePropertyMatcher)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Object> equalities = new HashMap<String, Object>();
+
+        for (PropertyMatcher<?> propertyMatcher : ((CompositePropertyMatcher<?>) matcher).getPropertyMatchers()) {
+            if (ReflectingPropertyMatcher.readsPropertySeparately(propertyMatcher)) {
+                PropertyConstraint constraint = PropertyConstraint.of(propertyMatcher.getMatcher());
+
+                if (constraint != null && constraint.isEquality()
+                        && (constraint.getValue() == null || !constraint.getValue().getClass().isArray())) {
+                    equalities.put(propertyMatcher.getPropertyName(), constraint.getValue());
+                }
+            }
+        }
+
+        return equalities;
+    }
+}
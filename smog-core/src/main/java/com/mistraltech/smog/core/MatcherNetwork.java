@@ -0,0 +1,329 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates many matchers against the same item, sharing the work that the matchers have in common.
+ * <p>
+ * Composite matchers are compiled into a network of property reads and tests. A property is read once per item
+ * however many composites match it, and a test is made once per item however many composites include it. Tests
+ * are shared when they apply structurally equal matchers to the same property, such as two separately created
+ * {@code equalTo("Brian")} matchers, or the same matcher instance. Matchers created by {@code equalTo}, {@code is},
+ * {@code greaterThan}, {@code greaterThanOrEqualTo}, {@code lessThan}, {@code lessThanOrEqualTo} and
+ * {@code comparesEqualTo} are compared structurally; any other matcher is shared only as the same instance.
+ * Nested composites with the same tests on the same property are shared too.
+ * <p>
+ * A composite matcher is compiled when it declares that it only applies its property matchers (see
+ * {@link CompositePropertyMatcher#appliesPropertyMatchersOnly()}) and every property matcher it specifies is a
+ * {@link ReflectingPropertyMatcher}. Other matchers are applied as they are, once per item. Compiled composites are evaluated
+ * fail-fast, as when only a boolean result is wanted, so the result is the same as applying every matcher in turn.
+ * The evaluation of a compiled composite is not reported to a {@link MatchListener}, although its property tests are.
+ * <p>
+ * Composite matchers are frozen when the network is created, since changing them would invalidate the network.
+ * A network can be shared between threads.
+ *
+ * @param <T> the type of item matched
+ */
+public final class MatcherNetwork<T> {
+    /**
+     * The source of a read or test that applies to the item itself rather than a property of it.
+     */
+    private static final int ITEM = -1;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte PASSED = 1;
+    private static final byte FAILED = 2;
+
+    private final List<Matcher<? super T>> matchers;
+    private final int[] matcherTests;
+
+    private final ReflectingPropertyMatcher<?>[] readers;
+    private final int[] readSources;
+
+    private final int[] testSources;
+    private final Predicate<Object>[] testPredicates;
+    private final CompositePropertyMatcher<?>[] testComposites;
+    private final int[][] testChildren;
+
+    private MatcherNetwork(List<Matcher<? super T>> matchers, Builder builder) {
+        this.matchers = matchers;
+        this.matcherTests = builder.matcherTests;
+        this.readers = builder.readers.toArray(new ReflectingPropertyMatcher<?>[0]);
+        this.readSources = IntArrays.toArray(builder.readSources);
+        this.testSources = IntArrays.toArray(builder.testSources);
+        this.testPredicates = builder.testPredicates();
+        this.testComposites = builder.testComposites.toArray(new CompositePropertyMatcher<?>[0]);
+        this.testChildren = builder.testChildren.toArray(new int[0][]);
+    }
+
+    /**
+     * Creates a network for the given matchers.
+     *
+     * @param matchers the matchers, in the order in which matches are to be reported
+     * @param <T> the type of item matched
+     * @return the network
+     */
+    public static <T> MatcherNetwork<T> of(List<? extends Matcher<? super T>> matchers) {
+        if (matchers == null) {
+            throw new IllegalArgumentException("No matchers");
+        }
+
+        List<Matcher<? super T>> frozenMatchers = new ArrayList<Matcher<? super T>>(matchers.size());
+        Builder builder = new Builder(matchers.size());
+
+        for (Matcher<? super T> matcher : matchers) {
+            if (matcher instanceof CompositePropertyMatcher) {
+                ((CompositePropertyMatcher<?>) matcher).freeze();
+            }
+
+            builder.matcherTests[frozenMatchers.size()] = builder.test(ITEM, matcher);
+            frozenMatchers.add(matcher);
+        }
+
+        return new MatcherNetwork<T>(Collections.unmodifiableList(frozenMatchers), builder);
+    }
+
+    /**
+     * Gets the number of distinct property reads in the network. Each is made at most once per item.
+     *
+     * @return the number of property reads
+     */
+    public int getPropertyReadCount() {
+        return readers.length;
+    }
+
+    /**
+     * Gets the number of distinct tests in the network, including compiled composites and matchers applied
+     * as they are. Each is made at most once per item.
+     *
+     * @return the number of tests
+     */
+    public int getTestCount() {
+        return testSources.length;
+    }
+
+    /**
+     * Finds the first matcher that matches the item.
+     *
+     * @param item the item
+     * @return the first matching matcher in the order given, if any
+     */
+    public Optional<Matcher<? super T>> findFirst(Object item) {
+        Evaluation evaluation = new Evaluation(item);
+
+        for (int i = 0; i < matcherTests.length; i++) {
+            if (evaluation.passes(matcherTests[i])) {
+                return Optional.of(matchers.get(i));
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Finds all the matchers that match the item.
+     *
+     * @param item the item
+     * @return the matching matchers, in the order given
+     */
+    public List<Matcher<? super T>> findAll(Object item) {
+        Evaluation evaluation = new Evaluation(item);
+        List<Matcher<? super T>> found = new ArrayList<Matcher<? super T>>();
+
+        for (int i = 0; i < matcherTests.length; i++) {
+            if (evaluation.passes(matcherTests[i])) {
+                found.add(matchers.get(i));
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * The reads and test results for a single item.
+     */
+    private final class Evaluation {
+        private final Object item;
+        private final Object[] values = new Object[readers.length];
+        private final boolean[] read = new boolean[readers.length];
+        private final byte[] results = new byte[testSources.length];
+
+        private Evaluation(Object item) {
+            this.item = item;
+        }
+
+        private Object valueOf(int source) {
+            if (source == ITEM) {
+                return item;
+            }
+
+            if (!read[source]) {
+                values[source] = readers[source].readPropertyValue(valueOf(readSources[source]));
+                read[source] = true;
+            }
+
+            return values[source];
+        }
+
+        private boolean passes(int test) {
+            if (results[test] == UNKNOWN) {
+                results[test] = evaluate(test) ? PASSED : FAILED;
+            }
+
+            return results[test] == PASSED;
+        }
+
+        private boolean evaluate(int test) {
+            Object value = valueOf(testSources[test]);
+            CompositePropertyMatcher<?> composite = testComposites[test];
+
+            if (composite == null) {
+                return testPredicates[test].test(value);
+            }
+
+            if (!composite.isMatchable(value)) {
+                return false;
+            }
+
+            for (int child : testChildren[test]) {
+                if (!passes(child)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Compiles matchers into reads and tests, sharing those that are equivalent.
+     */
+    private static final class Builder {
+        private final int[] matcherTests;
+
+        private final Map<List<Object>, Integer> readIds = new HashMap<List<Object>, Integer>();
+        private final List<ReflectingPropertyMatcher<?>> readers = new ArrayList<ReflectingPropertyMatcher<?>>();
+        private final List<Integer> readSources = new ArrayList<Integer>();
+
+        private final Map<List<Object>, Integer> testIds = new HashMap<List<Object>, Integer>();
+        private final List<Integer> testSources = new ArrayList<Integer>();
+        private final List<Predicate<Object>> testPredicates = new ArrayList<Predicate<Object>>();
+        private final List<CompositePropertyMatcher<?>> testComposites = new ArrayList<CompositePropertyMatcher<?>>();
+        private final List<int[]> testChildren = new ArrayList<int[]>();
+
+        private Builder(int matcherCount) {
+            this.matcherTests = new int[matcherCount];
+        }
+
+        /**
+         * Gets the test that applies a matcher to the item or to a property value.
+         */
+        private int test(int source, Matcher<?> matcher) {
+            if (matcher instanceof CompositePropertyMatcher && ((CompositePropertyMatcher<?>) matcher).isCompilable()) {
+                return compositeTest(source, (CompositePropertyMatcher<?>) matcher);
+            }
+
+            return leafTest(source, new Identity(matcher), matcher::matches);
+        }
+
+        private int compositeTest(int source, CompositePropertyMatcher<?> composite) {
+            List<PropertyMatcher<?>> propertyMatchers = composite.specifiedPropertyMatchersByCost();
+            int[] children = new int[propertyMatchers.size()];
+            for (int i = 0; i < children.length; i++) {
+                ReflectingPropertyMatcher<?> propertyMatcher = (ReflectingPropertyMatcher<?>) propertyMatchers.get(i);
+                int read = read(source, propertyMatcher);
+                Matcher<?> matcher = propertyMatcher.getMatcher();
+
+                if (matcher instanceof CompositePropertyMatcher && ((CompositePropertyMatcher<?>) matcher).isCompilable()) {
+                    children[i] = compositeTest(read, (CompositePropertyMatcher<?>) matcher);
+                } else {
+                    PropertyConstraint constraint = PropertyConstraint.exactlyOf(matcher);
+                    children[i] = leafTest(read, constraint != null ? constraint : new Identity(matcher),
+                            propertyMatcher::matchesPropertyValue);
+                }
+            }
+
+            List<Object> key = Arrays.<Object>asList(source, composite.getClass(), Arrays.toString(children));
+            Integer id = testIds.get(key);
+
+            if (id == null) {
+                id = addTest(source, null, composite, children);
+                testIds.put(key, id);
+            }
+
+            return id;
+        }
+
+        private int leafTest(int source, Object matcherKey, Predicate<Object> predicate) {
+            List<Object> key = Arrays.<Object>asList(source, matcherKey);
+            Integer id = testIds.get(key);
+
+            if (id == null) {
+                id = addTest(source, predicate, null, null);
+                testIds.put(key, id);
+            }
+
+            return id;
+        }
+
+        private int addTest(int source, Predicate<Object> predicate, CompositePropertyMatcher<?> composite,
+                            int[] children) {
+            testSources.add(source);
+            testPredicates.add(predicate);
+            testComposites.add(composite);
+            testChildren.add(children);
+            return testSources.size() - 1;
+        }
+
+        private int read(int source, ReflectingPropertyMatcher<?> propertyMatcher) {
+            ReflectingPropertyMatcher.PropertyAccessor accessor = propertyMatcher.getPropertyAccessor();
+            List<Object> key = Arrays.<Object>asList(source, propertyMatcher.getPropertyName(),
+                    new Identity(accessor.getAccessorCache()));
+            Integer id = readIds.get(key);
+
+            if (id == null) {
+                readers.add(propertyMatcher);
+                readSources.add(source);
+                id = readers.size() - 1;
+                readIds.put(key, id);
+            }
+
+            return id;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Predicate<Object>[] testPredicates() {
+            return (Predicate<Object>[]) testPredicates.toArray(new Predicate<?>[0]);
+        }
+    }
+
+    /**
+     * Compares an object by identity, for objects that are shared only as the same instance.
+     */
+    private static final class Identity {
+        private final Object object;
+
+        private Identity(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity && ((Identity) o).object == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+/**
+ * A {@link CompositePropertyMatcher} compiled into a single {@link MethodHandle} predicate, so that the JIT can
+ * inline the whole matcher tree, including nested composites, as one unit.
+ * <p>
+ * The predicate is composed of the read method handles of the properties, filtered through tests of the values
+ * they return. Matchers created by {@code equalTo}, {@code is}, {@code greaterThan}, {@code greaterThanOrEqualTo},
+ * {@code lessThan}, {@code lessThanOrEqualTo} and {@code comparesEqualTo} are tested inline, without boxing when
+ * the property is an {@code int}, {@code long} or {@code double}. Any other matcher is called as it is, and so is
+ * a nested composite matcher whose result is not decided entirely by its reflecting property matchers
+ * (see {@link MatcherNetwork}). Read methods are resolved for the declared bean class and the declared types of
+ * the properties; a bean of another class, and a property whose read method cannot be resolved in advance, is
+ * matched by the original matcher.
+ * <p>
+ * Mismatches are described by the original matcher, so descriptions are unchanged. While a {@link MatchListener}
+ * is installed or a Flight Recorder recording is running, {@link #matches(Object)} also defers to the original
+ * matcher, so that every evaluation is reported.
+ * <p>
+ * The JIT treats a method handle as a constant, and so inlines through it, only when it is read from a
+ * {@code static final} field. For the best performance, keep the handle returned by {@link #asMethodHandle()}
+ * in such a field and invoke it directly:
+ * <pre>
+ * private static final MethodHandle IS_BRIAN = MethodHandleMatcher.compile(
+ *         aPersonThat().hasName("Brian").hasAge(greaterThan(18)), Person.class).asMethodHandle();
+ *
+ * boolean matches = (boolean) IS_BRIAN.invokeExact((Object) person);
+ * </pre>
+ *
+ * @param <T> type of matchable target object
+ */
+public final class MethodHandleMatcher<T> extends BaseMatcher<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType PREDICATE_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+    private static final MethodHandle MATCHES = virtual(Matcher.class, "matches", PREDICATE_TYPE);
+    private static final MethodHandle IS_INSTANCE = virtual(Class.class, "isInstance", PREDICATE_TYPE);
+    private static final MethodHandle IS_MATCHABLE = virtual(PathAwareDiagnosingMatcher.class, "isMatchable",
+            PREDICATE_TYPE);
+    private static final MethodHandle FALSE = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, false), 0, Object.class);
+    private static final MethodHandle TRUE = MethodHandles.dropArguments(
+            MethodHandles.constant(boolean.class, true), 0, Object.class);
+
+    private static final MethodHandle EQUALS_OBJECT = test("equalsObject", Object.class, Object.class);
+    private static final MethodHandle EQUALS_INT = test("equalsInt", int.class, int.class);
+    private static final MethodHandle EQUALS_LONG = test("equalsLong", long.class, long.class);
+    private static final MethodHandle EQUALS_DOUBLE = test("equalsDouble", double.class, double.class);
+    private static final MethodHandle COMPARE_OBJECT = test("compareObject", Comparable.class, int.class, Object.class);
+    private static final MethodHandle COMPARE_INT = test("compareInt", int.class, int.class, int.class);
+    private static final MethodHandle COMPARE_LONG = test("compareLong", long.class, int.class, long.class);
+    private static final MethodHandle COMPARE_DOUBLE = test("compareDouble", double.class, int.class, double.class);
+    private static final MethodHandle UNREADABLE = helper("unreadable", Object.class,
+            Method.class, String.class, Throwable.class, Object.class);
+
+    private final CompositePropertyMatcher<T> matcher;
+    private final MethodHandle predicate;
+    private final boolean compiled;
+
+    private MethodHandleMatcher(CompositePropertyMatcher<T> matcher, MethodHandle predicate, boolean compiled) {
+        this.matcher = matcher;
+        this.predicate = predicate;
+        this.compiled = compiled;
+    }
+
+    /**
+     * Compiles a matcher for beans of the given class. The matcher is frozen
+     * (see {@link CompositePropertyMatcher#freeze()}), since changing it would invalidate the predicate. A matcher
+     * that does not declare that it only applies its property matchers
+     * (see {@link CompositePropertyMatcher#appliesPropertyMatchersOnly()}) is not compiled, and the predicate simply
+     * calls it; {@link #isCompiled()} tells which happened.
+     *
+     * @param matcher the matcher to compile
+     * @param beanClass the class of the beans to be matched
+     * @param <T> type of matchable target object
+     * @return the compiled matcher, which can be shared between threads
+     */
+    public static <T> MethodHandleMatcher<T> compile(CompositePropertyMatcher<T> matcher, Class<? extends T> beanClass) {
+        if (matcher == null) {
+            throw new IllegalArgumentException("No matcher");
+        }
+
+        if (beanClass == null) {
+            throw new IllegalArgumentException("No bean class");
+        }
+
+        matcher.freeze();
+        return new MethodHandleMatcher<T>(matcher, composite(matcher, beanClass), matcher.isCompilable());
+    }
+
+    /**
+     * Gets the matcher that was compiled.
+     *
+     * @return the original matcher
+     */
+    public CompositePropertyMatcher<T> getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Indicates whether the matcher was compiled into tests of its properties, rather than being called as it is.
+     *
+     * @return true if the matcher was compiled
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Gets the compiled predicate. It takes the item as an {@code Object} and returns a {@code boolean}, and does
+     * not defer to the original matcher while a {@link MatchListener} is installed or a recording is running.
+     *
+     * @return the predicate
+     */
+    public MethodHandle asMethodHandle() {
+        return predicate;
+    }
+
+    @Override
+    public boolean matches(Object item) {
+        if (MatchListeners.current() != null || MatchEvents.isRecording()) {
+            return matcher.matches(item);
+        }
+
+        try {
+            return (boolean) predicate.invokeExact(item);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        matcher.describeTo(description);
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description mismatchDescription) {
+        matcher.describeMismatch(item, mismatchDescription);
+    }
+
+    /**
+     * Builds the predicate for a composite matcher applied to a bean of, or expected to be of, the given class.
+     */
+    private static MethodHandle composite(CompositePropertyMatcher<?> composite, Class<?> beanClass) {
+        MethodHandle original = MATCHES.bindTo(composite);
+
+        if (!composite.isCompilable()) {
+            return original;
+        }
+
+        List<PropertyMatcher<?>> propertyMatchers = composite.specifiedPropertyMatchersByCost();
+        MethodHandle body = TRUE;
+        for (int i = propertyMatchers.size() - 1; i >= 0; i--) {
+            MethodHandle property = property((ReflectingPropertyMatcher<?>) propertyMatchers.get(i), beanClass);
+            body = MethodHandles.guardWithTest(property, body, FALSE);
+        }
+
+        MethodHandle compiled = MethodHandles.guardWithTest(IS_MATCHABLE.bindTo(composite), body, FALSE);
+        return MethodHandles.guardWithTest(IS_INSTANCE.bindTo(beanClass), compiled, original);
+    }
+
+    /**
+     * Builds the predicate for a reflecting property matcher applied to a bean of the given class.
+     */
+    private static MethodHandle property(ReflectingPropertyMatcher<?> propertyMatcher, Class<?> beanClass) {
+        String propertyName = propertyMatcher.getPropertyName();
+        Method readMethod;
+        MethodHandle getter;
+
+        try {
+            readMethod = propertyMatcher.getPropertyAccessor().getAccessorCache().getReadMethod(beanClass, propertyName);
+            getter = LOOKUP.unreflect(readMethod);
+        } catch (PropertyNotFoundException | IllegalAccessException e) {
+            return MATCHES.bindTo(propertyMatcher);
+        }
+
+        Class<?> valueType = readMethod.getReturnType();
+        getter = getter.asType(MethodType.methodType(valueType, Object.class));
+
+        // Reported as reflection would, so callers see the same exceptions as from the original matcher
+        MethodHandle unreadable = MethodHandles.insertArguments(UNREADABLE, 0, readMethod, propertyName)
+                .asType(MethodType.methodType(valueType, Throwable.class, Object.class));
+        getter = MethodHandles.catchException(getter, Throwable.class, unreadable);
+
+        return MethodHandles.filterArguments(valueTest(propertyMatcher.getMatcher(), valueType), 0, getter);
+    }
+
+    /**
+     * Builds the predicate that tests a property value of the given type.
+     */
+    private static MethodHandle valueTest(Matcher<?> matcher, Class<?> valueType) {
+        MethodType type = MethodType.methodType(boolean.class, valueType);
+        PropertyConstraint constraint = PropertyConstraint.exactlyOf(matcher);
+
+        if (matcher instanceof CompositePropertyMatcher && !valueType.isPrimitive()) {
+            return composite((CompositePropertyMatcher<?>) matcher, valueType).asType(type);
+        } else if (constraint != null && constraint.isEquality()) {
+            Object expected = constraint.getValue();
+            MethodHandle test = valueType == int.class && expected instanceof Integer ? EQUALS_INT
+                    : valueType == long.class && expected instanceof Long ? EQUALS_LONG
+                    : valueType == double.class && expected instanceof Double ? EQUALS_DOUBLE
+                    : EQUALS_OBJECT;
+            return MethodHandles.insertArguments(test, 0, expected).asType(type);
+        } else if (constraint != null) {
+            Comparable<?> expected = constraint.getComparand();
+            MethodHandle test = valueType == int.class && expected instanceof Integer ? COMPARE_INT
+                    : valueType == long.class && expected instanceof Long ? COMPARE_LONG
+                    : valueType == double.class && expected instanceof Double ? COMPARE_DOUBLE
+                    : COMPARE_OBJECT;
+            return MethodHandles.insertArguments(test, 0, expected, constraint.getAcceptedSigns()).asType(type);
+        }
+
+        return MATCHES.bindTo(matcher).asType(type);
+    }
+
+    private static boolean equalsObject(Object expected, Object value) {
+        return value == null ? expected == null : value.equals(expected);
+    }
+
+    private static boolean equalsInt(int expected, int value) {
+        return value == expected;
+    }
+
+    private static boolean equalsLong(long expected, long value) {
+        return value == expected;
+    }
+
+    private static boolean equalsDouble(double expected, double value) {
+        // As Double.equals
+        return Double.doubleToLongBits(value) == Double.doubleToLongBits(expected);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean compareObject(Comparable expected, int acceptedSigns, Object value) {
+        return value != null && accepts(acceptedSigns, ((Comparable) value).compareTo(expected));
+    }
+
+    private static boolean compareInt(int expected, int acceptedSigns, int value) {
+        return accepts(acceptedSigns, Integer.compare(value, expected));
+    }
+
+    private static boolean compareLong(long expected, int acceptedSigns, long value) {
+        return accepts(acceptedSigns, Long.compare(value, expected));
+    }
+
+    private static boolean compareDouble(double expected, int acceptedSigns, double value) {
+        return accepts(acceptedSigns, Double.compare(value, expected));
+    }
+
+    private static boolean accepts(int acceptedSigns, int comparison) {
+        return (acceptedSigns & (1 << (Integer.signum(comparison) + 1))) != 0;
+    }
+
+    private static Object unreadable(Method readMethod, String propertyName, Throwable e, Object bean) {
+        throw new PropertyUnreadableException(bean.getClass(), readMethod, propertyName,
+                new InvocationTargetException(e));
+    }
+
+    private static MethodHandle test(String name, Class<?>... parameterTypes) {
+        return helper(name, boolean.class, parameterTypes);
+    }
+
+    private static MethodHandle helper(String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            return LOOKUP.findStatic(MethodHandleMatcher.class, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> type, String name, MethodType methodType) {
+        try {
+            return LOOKUP.findVirtual(type, name, methodType);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
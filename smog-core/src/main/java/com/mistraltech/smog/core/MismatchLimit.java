@@ -0,0 +1,109 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+/**
+ * Limits the number of mismatches described by one composite matcher, and by the whole tree of matchers
+ * being described on the current thread. Once a mismatch beyond either limit is found, no further matchers
+ * need be evaluated, and the rest are summarised as "at least N more".
+ */
+final class MismatchLimit {
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * The number of leaf mismatches that may still be described by the tree currently being described on
+     * this thread, or null if the tree is unlimited.
+     */
+    private static final ThreadLocal<int[]> TREE_REMAINING = new ThreadLocal<int[]>();
+
+    private final int limit;
+    private int describedCount;
+    private int suppressedCount;
+
+    MismatchLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Starts limiting the mismatches described on this thread, unless a limit is already in force.
+     *
+     * @param totalLimit the maximum number of leaf mismatches to describe
+     * @return true if the caller started the limit and must call {@link #endTree()}
+     */
+    static boolean beginTree(int totalLimit) {
+        if (totalLimit == UNLIMITED || TREE_REMAINING.get() != null) {
+            return false;
+        }
+
+        TREE_REMAINING.set(new int[]{totalLimit});
+        return true;
+    }
+
+    static void endTree() {
+        TREE_REMAINING.remove();
+    }
+
+    /**
+     * Decides whether a mismatch is to be described, and counts it.
+     *
+     * @param matcher the matcher that did not match
+     * @return true if the mismatch should be described; false if it is only counted
+     */
+    boolean tryDescribe(Matcher<?> matcher) {
+        int[] treeRemaining = TREE_REMAINING.get();
+
+        if (describedCount >= limit || (treeRemaining != null && treeRemaining[0] <= 0)) {
+            suppressedCount++;
+            return false;
+        }
+
+        describedCount++;
+
+        if (treeRemaining != null && isLeaf(matcher)) {
+            treeRemaining[0]--;
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether a mismatch beyond the limits has been found, so that no further matchers need be applied.
+     *
+     * @return true if a mismatch has not been described
+     */
+    boolean isExceeded() {
+        return suppressedCount > 0;
+    }
+
+    /**
+     * Indicates whether a mismatch was described before the one just accepted by {@link #tryDescribe(Matcher)},
+     * so that joining text is needed.
+     *
+     * @return true if an earlier mismatch has been described
+     */
+    boolean hasDescribedBefore() {
+        return describedCount > 1;
+    }
+
+    /**
+     * Appends a count of the mismatches that were not described, if any. Since matchers are not applied once the
+     * limits are exceeded, the count is a lower bound.
+     *
+     * @param description the description to append to
+     */
+    void describeSuppressed(Description description) {
+        if (suppressedCount > 0) {
+            if (describedCount > 0) {
+                description.appendText(MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB);
+            }
+
+            description.appendText("at least " + suppressedCount + " more");
+        }
+    }
+
+    private static boolean isLeaf(Matcher<?> matcher) {
+        Matcher<?> expected = matcher instanceof PropertyMatcher ? ((PropertyMatcher<?>) matcher).getMatcher() : matcher;
+        return !(expected instanceof CompositePropertyMatcher);
+    }
+}
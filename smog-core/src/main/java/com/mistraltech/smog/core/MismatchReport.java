@@ -0,0 +1,122 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A structured description of one mismatch: where it occurred, the actual value and the matcher it failed.
+ * <p>
+ * Reports are obtained from {@link MatchResult#getMismatches()}. They hold only references to the matcher and
+ * the value, so they are cheap to create. Text is rendered, and the mismatches within a nested composite are
+ * found, only when asked for.
+ */
+public final class MismatchReport {
+    private final Matcher<?> matcher;
+    private final Object actual;
+    private List<MismatchReport> children;
+
+    MismatchReport(Matcher<?> matcher, Object actual) {
+        this.matcher = matcher;
+        this.actual = actual;
+    }
+
+    /**
+     * Gets the path of the mismatching property.
+     *
+     * @return the path, or {@link PropertyPath#ROOT} if the matcher does not know its path
+     */
+    public PropertyPath getPath() {
+        if (matcher instanceof PropertyMatcher && ((PropertyMatcher<?>) matcher).getPathProvider() != null) {
+            return ((PropertyMatcher<?>) matcher).getPropertyPath();
+        } else if (matcher instanceof PathProvider) {
+            return ((PathProvider) matcher).getPropertyPath();
+        }
+
+        return PropertyPath.ROOT;
+    }
+
+    /**
+     * Gets the value that did not match.
+     *
+     * @return the actual value
+     */
+    public Object getActual() {
+        return actual;
+    }
+
+    /**
+     * Gets the matcher that the actual value failed. For a property, this is the matcher assigned to the property.
+     *
+     * @return the expected matcher
+     */
+    public Matcher<?> getExpected() {
+        if (matcher instanceof PropertyMatcher) {
+            return ((PropertyMatcher<?>) matcher).getMatcher();
+        }
+
+        return matcher;
+    }
+
+    /**
+     * Gets the mismatches within the actual value, when the expected matcher is itself a composite matcher.
+     *
+     * @return the nested mismatches; empty for a leaf mismatch
+     */
+    public List<MismatchReport> getChildren() {
+        if (children == null) {
+            Matcher<?> expected = getExpected();
+
+            if (expected instanceof CompositePropertyMatcher && ((CompositePropertyMatcher<?>) expected).isMatchable(actual)) {
+                children = ((CompositePropertyMatcher<?>) expected).evaluate(actual).getMismatches();
+            } else {
+                children = Collections.emptyList();
+            }
+        }
+
+        return children;
+    }
+
+    /**
+     * Appends the text description of this mismatch, as would appear in an assertion failure.
+     *
+     * @param description the description to append to
+     */
+    public void describeTo(Description description) {
+        MatchAccumulator.describeValueMismatch(matcher, actual, description);
+    }
+
+    /**
+     * Renders this mismatch as nested maps, lists and strings, suitable for serializing to JSON or similar.
+     * Each map has the keys {@code path}, {@code actual}, {@code expected} and {@code children}.
+     *
+     * @return the machine-readable form
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("path", getPath().toString());
+        map.put("actual", String.valueOf(actual));
+        map.put("expected", StringDescription.toString(getExpected()));
+
+        List<Map<String, Object>> childMaps = new ArrayList<Map<String, Object>>();
+        for (MismatchReport child : getChildren()) {
+            childMaps.add(child.toMap());
+        }
+        map.put("children", childMaps);
+
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        StringDescription description = new StringDescription();
+        describeTo(description);
+        return description.toString();
+    }
+}
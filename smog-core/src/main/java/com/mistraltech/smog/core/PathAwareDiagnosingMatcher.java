@@ -0,0 +1,166 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.StringDescription;
+import org.hamcrest.internal.ReflectiveTypeFinder;
+
+/**
+ * A variation on Hamcrest's {@link org.hamcrest.TypeSafeDiagnosingMatcher} that replaces the
+ * {@link org.hamcrest.TypeSafeDiagnosingMatcher#matches(Object)} and
+ * {@link org.hamcrest.TypeSafeDiagnosingMatcher#describeMismatch(Object, Description)} methods.
+ * <p>
+ * A more elegant implementation would extend TypeSafeDiagnosingMatcher, but the
+ * methods we want to override are final.
+ *
+ * @param <T> the type of object we expect to be matching against
+ */
+abstract class PathAwareDiagnosingMatcher<T> extends BaseMatcher<T> implements PathAware, PathProvider {
+    private static final ReflectiveTypeFinder TYPE_FINDER = new ReflectiveTypeFinder("matchesSafely", 2, 0);
+
+    /**
+     * Identifies subclasses that override {@link #logMismatch(Object)}, {@link #createLogMismatchDescription()}
+     * or {@link #writeLog(String)}, whose mismatches are logged unless they also override {@link #isLogEnabled()}.
+     * Mismatches of other subclasses would only be described to be discarded by the base {@code writeLog}.
+     */
+    private static final ClassValue<Boolean> LOGS_MISMATCHES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != PathAwareDiagnosingMatcher.class; c = c.getSuperclass()) {
+                if (declares(c, "logMismatch", Object.class) || declares(c, "createLogMismatchDescription")
+                        || declares(c, "writeLog", String.class)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean declares(Class<?> type, String name, Class<?>... parameterTypes) {
+            try {
+                type.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final Class<?> expectedType;
+    private PathProvider pathProvider;
+
+    /**
+     * The path fixed when the matcher was frozen, or null if not frozen.
+     */
+    private PropertyPath frozenPath;
+
+    protected PathAwareDiagnosingMatcher(ReflectiveTypeFinder typeFinder) {
+        this.expectedType = typeFinder.findExpectedType(getClass());
+    }
+
+    protected PathAwareDiagnosingMatcher() {
+        this(TYPE_FINDER);
+    }
+
+    /**
+     * Matches the item, which is known to be non-null and of the expected type.
+     * <p>
+     * When invoked by {@link #matches(Object)}, the mismatch description is {@link Description#NONE} and
+     * implementations may return as soon as the result is known.
+     *
+     * @param item the item to match
+     * @param mismatchDescription the description to which any mismatches are appended
+     * @return true if the item matches; false otherwise
+     */
+    protected abstract boolean matchesSafely(T item, Description mismatchDescription);
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final boolean matches(Object item) {
+        boolean matches = isMatchable(item) && matchesSafely((T) item, Description.NONE);
+
+        if (!matches && pathProvider == null && isLogEnabled()) {
+            logMismatch(item);
+        }
+
+        return matches;
+    }
+
+    /**
+     * Indicates whether mismatches should be logged. Checked before any work is done to describe a mismatch
+     * for logging.
+     *
+     * @return true by default if the class overrides {@link #logMismatch(Object)},
+     * {@link #createLogMismatchDescription()} or {@link #writeLog(String)}; false otherwise
+     */
+    protected boolean isLogEnabled() {
+        return LOGS_MISMATCHES.get(getClass());
+    }
+
+    protected void logMismatch(Object item) {
+        Description mismatchDescription = createLogMismatchDescription();
+        describeMismatch(item, mismatchDescription);
+        writeLog(mismatchDescription.toString());
+    }
+
+    protected Description createLogMismatchDescription() {
+        return new StringDescription().appendText(String.format("%s didn't match - ", this.getClass().getName()));
+    }
+
+    protected void writeLog(String text) {
+        // No op
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void describeMismatch(Object item, Description mismatchDescription) {
+        if (!isMatchable(item)) {
+            mismatchDescription.appendText(getPath()).appendText(" ");
+            super.describeMismatch(item, mismatchDescription);
+        } else if (MatchEvents.isRecording()) {
+            MatchEvents.recordMismatchDescription(this, () -> matchesSafely((T) item, mismatchDescription));
+        } else {
+            matchesSafely((T) item, mismatchDescription);
+        }
+    }
+
+    /**
+     * Indicates whether the item can be passed to {@link #matchesSafely(Object, Description)}.
+     *
+     * @param item the item
+     * @return true if the item is non-null and of the expected type
+     */
+    final boolean isMatchable(Object item) {
+        return item != null && expectedType.isInstance(item);
+    }
+
+    public String getPath() {
+        return getPropertyPath().toString();
+    }
+
+    @Override
+    public PropertyPath getPropertyPath() {
+        if (frozenPath != null) {
+            return frozenPath;
+        }
+
+        return pathProvider != null ? pathProvider.getPropertyPath() : PropertyPath.ROOT;
+    }
+
+    public void setPathProvider(PathProvider pathProvider) {
+        if (frozenPath != null) {
+            throw new IllegalStateException("Cannot change the path of a frozen matcher");
+        }
+
+        this.pathProvider = pathProvider;
+    }
+
+    /**
+     * Fixes the path of this matcher so that it can no longer change, and renders it.
+     */
+    void freezePath() {
+        PropertyPath path = getPropertyPath();
+        path.toString();
+        frozenPath = path;
+    }
+}
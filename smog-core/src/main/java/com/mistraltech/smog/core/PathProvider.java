@@ -0,0 +1,30 @@
+package com.mistraltech.smog.core;
+
+/**
+ * Implemented by classes that are capable of providing a path.
+ * <p>
+ * No interpretation is put on the meaning of the path, nor its format which
+ * is represented simply as a String. Implementations may also provide the path in
+ * structured form as a {@link PropertyPath}, which allows it to be cached and shared.
+ */
+public interface PathProvider {
+
+    /**
+     * Gets the path.
+     *
+     * @return the path as a string
+     */
+    String getPath();
+
+    /**
+     * Gets the path in structured form.
+     * <p>
+     * The default implementation wraps the result of {@link #getPath()}. Implementations should return
+     * the same instance for as long as the path is unchanged, so that dependent paths can be cached.
+     *
+     * @return the path
+     */
+    default PropertyPath getPropertyPath() {
+        return PropertyPath.of(getPath());
+    }
+}
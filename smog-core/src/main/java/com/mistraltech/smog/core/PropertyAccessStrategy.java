@@ -0,0 +1,130 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.util.PropertyReader;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * Strategies for turning a resolved property read method into a {@link PropertyReader}.
+ */
+public enum PropertyAccessStrategy {
+    /**
+     * Reads properties by invoking the read method reflectively.
+     */
+    REFLECTION {
+        @Override
+        public PropertyReader createReader(Method readMethod) {
+            return new ReflectivePropertyReader(readMethod);
+        }
+    },
+
+    /**
+     * Reads properties through a {@link Function} spun for the read method by {@link LambdaMetafactory}, so that
+     * each property is read by a class of its own that calls the read method directly, and that the JIT can
+     * inline as it would a direct call. Falls back to {@link #REFLECTION} if the read method is not accessible
+     * to SMOG, or its class cannot be seen from SMOG's class loader, e.g. when it was loaded by a child loader.
+     */
+    METHOD_HANDLE {
+        @Override
+        public PropertyReader createReader(Method readMethod) {
+            Function<Object, Object> getter = spinGetter(readMethod);
+
+            if (getter == null) {
+                return REFLECTION.createReader(readMethod);
+            }
+
+            return new FunctionPropertyReader(readMethod, getter);
+        }
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FUNCTION_FACTORY_TYPE = MethodType.methodType(Function.class);
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Creates a reader for the given read method.
+     *
+     * @param readMethod the property read method
+     * @return a property reader
+     */
+    public abstract PropertyReader createReader(Method readMethod);
+
+    private static final class ReflectivePropertyReader implements PropertyReader {
+        private final Method readMethod;
+
+        private ReflectivePropertyReader(Method readMethod) {
+            this.readMethod = readMethod;
+        }
+
+        @Override
+        public Method getReadMethod() {
+            return readMethod;
+        }
+
+        @Override
+        public Object read(Object bean) throws IllegalAccessException, InvocationTargetException {
+            return readMethod.invoke(bean);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> spinGetter(Method readMethod) {
+        if (!isVisible(readMethod.getDeclaringClass())) {
+            return null;
+        }
+
+        try {
+            MethodHandle getter = LOOKUP.unreflect(readMethod);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", FUNCTION_FACTORY_TYPE, FUNCTION_TYPE,
+                    getter, getter.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            // Not accessible from here, or not a method that a spun class can call
+            return null;
+        }
+    }
+
+    /**
+     * Indicates whether SMOG's class loader resolves the name of the class to the class itself, which a class
+     * spun by {@link LambdaMetafactory} needs in order to call its methods.
+     */
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, PropertyAccessStrategy.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static final class FunctionPropertyReader implements PropertyReader {
+        private final Method readMethod;
+        private final Function<Object, Object> getter;
+
+        private FunctionPropertyReader(Method readMethod, Function<Object, Object> getter) {
+            this.readMethod = readMethod;
+            this.getter = getter;
+        }
+
+        @Override
+        public Method getReadMethod() {
+            return readMethod;
+        }
+
+        @Override
+        public Object read(Object bean) throws InvocationTargetException {
+            try {
+                return getter.apply(bean);
+            } catch (Throwable e) {
+                // Reported as reflection would, so callers see the same exceptions whichever strategy is used
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+}
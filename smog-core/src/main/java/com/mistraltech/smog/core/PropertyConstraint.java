@@ -0,0 +1,243 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.number.OrderingComparison;
+
+import java.lang.reflect.Field;
+import java.util.Objects;
+
+/**
+ * An equality or range condition recognised in a Hamcrest matcher, which can be used to look up candidates
+ * in an index before the matcher itself is applied.
+ * <p>
+ * Matchers created by {@code equalTo}, {@code is}, {@code greaterThan}, {@code greaterThanOrEqualTo},
+ * {@code lessThan}, {@code lessThanOrEqualTo}, {@code comparesEqualTo} and {@code allOf} are recognised.
+ * Any value the matcher accepts satisfies the constraint, but the reverse need not hold.
+ */
+final class PropertyConstraint {
+    private static final Field IS_EQUAL_VALUE = field(IsEqual.class, "expectedValue");
+    private static final Field IS_MATCHER = field(Is.class, "matcher");
+    private static final Field ALL_OF_MATCHERS = field(AllOf.class, "matchers");
+
+    private static final Class<?> COMPARATOR_MATCHER_CLASS = OrderingComparison.greaterThan(0).getClass();
+    private static final Field COMPARATOR = field(COMPARATOR_MATCHER_CLASS, "comparator");
+    private static final Field COMPARATOR_EXPECTED = field(COMPARATOR_MATCHER_CLASS, "expected");
+    private static final Field COMPARATOR_MIN = field(COMPARATOR_MATCHER_CLASS, "minCompare");
+    private static final Field COMPARATOR_MAX = field(COMPARATOR_MATCHER_CLASS, "maxCompare");
+    private static final Class<?> NATURAL_ORDER_CLASS = naturalOrderClass();
+
+    private final boolean equality;
+    private final Object value;
+    private final Comparable<?> lower;
+    private final boolean lowerInclusive;
+    private final Comparable<?> upper;
+    private final boolean upperInclusive;
+
+    private PropertyConstraint(boolean equality, Object value, Comparable<?> lower, boolean lowerInclusive,
+                               Comparable<?> upper, boolean upperInclusive) {
+        this.equality = equality;
+        this.value = value;
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * Recognises the constraint expressed by a matcher.
+     *
+     * @param matcher the matcher; can be null
+     * @return the constraint, or null if the matcher is not recognised
+     */
+    static PropertyConstraint of(Matcher<?> matcher) {
+        if (matcher == null) {
+            return null;
+        }
+
+        try {
+            if (matcher.getClass() == IsEqual.class && IS_EQUAL_VALUE != null) {
+                return new PropertyConstraint(true, IS_EQUAL_VALUE.get(matcher), null, false, null, false);
+            } else if (matcher.getClass() == Is.class && IS_MATCHER != null) {
+                return of((Matcher<?>) IS_MATCHER.get(matcher));
+            } else if (matcher.getClass() == COMPARATOR_MATCHER_CLASS && NATURAL_ORDER_CLASS != null
+                    && COMPARATOR_EXPECTED != null && COMPARATOR_MIN != null && COMPARATOR_MAX != null) {
+                return ofComparison(matcher);
+            } else if (matcher.getClass() == AllOf.class && ALL_OF_MATCHERS != null) {
+                return ofAll((Iterable<?>) ALL_OF_MATCHERS.get(matcher));
+            }
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Recognises the constraint expressed by a matcher that accepts exactly the values satisfying the constraint,
+     * so that two such matchers with equal constraints are interchangeable.
+     *
+     * @param matcher the matcher; can be null
+     * @return the constraint, or null if the matcher is not recognised or accepts only some of those values
+     */
+    static PropertyConstraint exactlyOf(Matcher<?> matcher) {
+        if (matcher == null) {
+            return null;
+        }
+
+        try {
+            if (matcher.getClass() == IsEqual.class && IS_EQUAL_VALUE != null) {
+                Object expected = IS_EQUAL_VALUE.get(matcher);
+                return expected == null || !expected.getClass().isArray() ? of(matcher) : null;
+            } else if (matcher.getClass() == Is.class && IS_MATCHER != null) {
+                return exactlyOf((Matcher<?>) IS_MATCHER.get(matcher));
+            } else if (matcher.getClass() == COMPARATOR_MATCHER_CLASS) {
+                return of(matcher);
+            }
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    private static PropertyConstraint ofComparison(Matcher<?> matcher) throws IllegalAccessException {
+        if (COMPARATOR.get(matcher).getClass() != NATURAL_ORDER_CLASS) {
+            return null;
+        }
+
+        Comparable<?> expected = (Comparable<?>) COMPARATOR_EXPECTED.get(matcher);
+        int minCompare = COMPARATOR_MIN.getInt(matcher);
+        int maxCompare = COMPARATOR_MAX.getInt(matcher);
+
+        // The matcher accepts values whose comparison with expected has a sign between minCompare and maxCompare
+        return new PropertyConstraint(false, null,
+                minCompare > -1 ? expected : null, minCompare == 0,
+                maxCompare < 1 ? expected : null, maxCompare == 0);
+    }
+
+    private static PropertyConstraint ofAll(Iterable<?> matchers) {
+        PropertyConstraint combined = null;
+
+        try {
+            for (Object matcher : matchers) {
+                PropertyConstraint constraint = of((Matcher<?>) matcher);
+
+                if (constraint != null) {
+                    combined = combined == null ? constraint : combined.and(constraint);
+                }
+            }
+        } catch (ClassCastException e) {
+            // The bounds cannot be compared with each other, as in allOf(greaterThan(1), lessThan(2L))
+            return null;
+        }
+
+        return combined;
+    }
+
+    private PropertyConstraint and(PropertyConstraint other) {
+        if (equality) {
+            return this;
+        } else if (other.equality) {
+            return other;
+        }
+
+        boolean otherLowerTighter = lower == null || (other.lower != null && compare(other.lower, lower) > 0);
+        boolean otherUpperTighter = upper == null || (other.upper != null && compare(other.upper, upper) < 0);
+
+        return new PropertyConstraint(false, null,
+                otherLowerTighter ? other.lower : lower, otherLowerTighter ? other.lowerInclusive : lowerInclusive,
+                otherUpperTighter ? other.upper : upper, otherUpperTighter ? other.upperInclusive : upperInclusive);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable a, Comparable b) {
+        return a.compareTo(b);
+    }
+
+    boolean isEquality() {
+        return equality;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    Comparable<?> getLower() {
+        return lower;
+    }
+
+    boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    Comparable<?> getUpper() {
+        return upper;
+    }
+
+    boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof PropertyConstraint)) {
+            return false;
+        }
+
+        PropertyConstraint other = (PropertyConstraint) o;
+        return equality == other.equality && Objects.equals(value, other.value)
+                && Objects.equals(lower, other.lower) && lowerInclusive == other.lowerInclusive
+                && Objects.equals(upper, other.upper) && upperInclusive == other.upperInclusive;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(equality, value, lower, lowerInclusive, upper, upperInclusive);
+    }
+
+    /**
+     * Gets the value that a comparison matcher compares property values with.
+     *
+     * @return the value, or null if this is an equality constraint
+     */
+    Comparable<?> getComparand() {
+        return lower != null ? lower : upper;
+    }
+
+    /**
+     * Gets the signs of the comparison with {@link #getComparand()} that a comparison matcher accepts.
+     *
+     * @return a mask in which bit 0 accepts less, bit 1 accepts equal and bit 2 accepts greater
+     */
+    int getAcceptedSigns() {
+        return (lower == null ? 1 : 0)
+                | ((lower == null || lowerInclusive) && (upper == null || upperInclusive) ? 2 : 0)
+                | (upper == null ? 4 : 0);
+    }
+
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            // A different Hamcrest version; matchers of this type are not recognised
+            return null;
+        }
+    }
+
+    private static Class<?> naturalOrderClass() {
+        try {
+            return COMPARATOR != null ? COMPARATOR.get(OrderingComparison.greaterThan(0)).getClass() : null;
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+}
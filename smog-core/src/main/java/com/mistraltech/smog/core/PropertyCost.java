@@ -0,0 +1,24 @@
+package com.mistraltech.smog.core;
+
+/**
+ * The relative cost of reading and matching a property. Used by {@link CompositePropertyMatcher} to
+ * evaluate cheap properties first when only a boolean result is wanted, so that expensive properties,
+ * such as those with getters that compute derived collections, are not read once a cheaper property
+ * has failed to match.
+ */
+public enum PropertyCost {
+    /**
+     * Cheaper than most properties, e.g. a simple field getter for a primitive value.
+     */
+    CHEAP,
+
+    /**
+     * The default cost.
+     */
+    NORMAL,
+
+    /**
+     * More expensive than most properties, e.g. a getter that allocates or calls another service.
+     */
+    EXPENSIVE
+}
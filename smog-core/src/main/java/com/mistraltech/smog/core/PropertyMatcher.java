@@ -39,6 +39,31 @@ public class PropertyMatcher<T> extends BaseMatcher<T> implements PathProvider {
      */
     private PathProvider pathProvider;
 
+    /**
+     * The path of this property, derived from the path provider's path when it was last requested.
+     */
+    private PropertyPath propertyPath;
+
+    /**
+     * The registry this instance is registered with, or null if not registered.
+     */
+    private final PropertyMatcherRegistry registry;
+
+    /**
+     * The index of this instance in the registry it is registered with, or -1 if not registered.
+     */
+    private int registrySlot = -1;
+
+    /**
+     * The relative cost of reading and matching the property.
+     */
+    private final PropertyCost cost;
+
+    /**
+     * Indicates whether this instance has been frozen, after which it can no longer be modified.
+     */
+    private boolean frozen;
+
     /**
      * Constructor that takes a PropertyMatcherRegistry. This instance will register itself with the registry.
      *
@@ -58,11 +83,31 @@ public class PropertyMatcher<T> extends BaseMatcher<T> implements PathProvider {
      * to the object containing this attribute in the target object graph; can be null
      */
     public PropertyMatcher(String propertyName, PropertyMatcherRegistry registry, PathProvider pathProvider) {
+        this(propertyName, registry, pathProvider, PropertyCost.NORMAL);
+    }
+
+    /**
+     * Constructor that takes and assigns a {@link PathProvider} and declares the cost of the property.
+     *
+     * @param propertyName name of the attribute that this PropertyMatcher matches against in the target object
+     * @param registry the PropertyMatcherRegistry to register with; can be null
+     * @param pathProvider provides this PropertyMatcher with its path context. I.e. the property path that leads
+     * to the object containing this attribute in the target object graph; can be null
+     * @param cost the relative cost of reading and matching the property
+     */
+    public PropertyMatcher(String propertyName, PropertyMatcherRegistry registry, PathProvider pathProvider,
+                           PropertyCost cost) {
         if (propertyName == null) {
             throw new IllegalArgumentException("No property name");
         }
 
+        if (cost == null) {
+            throw new IllegalArgumentException("No property cost");
+        }
+
         this.propertyName = propertyName;
+        this.cost = cost;
+        this.registry = registry;
 
         if (pathProvider != null) {
             setPathProvider(pathProvider);
@@ -89,7 +134,9 @@ public class PropertyMatcher<T> extends BaseMatcher<T> implements PathProvider {
      * @param pathProvider the path provider
      */
     public void setPathProvider(PathProvider pathProvider) {
+        checkNotFrozen();
         this.pathProvider = pathProvider;
+        this.propertyPath = null;
     }
 
     /**
@@ -102,27 +149,153 @@ public class PropertyMatcher<T> extends BaseMatcher<T> implements PathProvider {
      * @param matcher the matcher
      */
     public void setMatcher(Matcher<? super T> matcher) {
+        checkNotFrozen();
         this.matcher = matcher;
         if (matcher instanceof PathAware) {
             ((PathAware) matcher).setPathProvider(this);
         }
+
+        if (registry != null) {
+            registry.propertyMatcherChanged(this);
+        }
+    }
+
+    /**
+     * Prevents further modification of this instance, fixes its path and freezes the assigned
+     * matcher if it is a {@link CompositePropertyMatcher}, or any composite property matchers it wraps
+     * (see {@link WrappedMatchers}).
+     * <p>
+     * Invoked when the registry this instance is registered with is frozen.
+     */
+    void freeze() {
+        if (frozen) {
+            return;
+        }
+
+        getPropertyPath().toString();
+        frozen = true;
+
+        WrappedMatchers.freeze(matcher);
+    }
+
+    /**
+     * Indicates whether this instance has been frozen.
+     *
+     * @return true if this instance can no longer be modified; false otherwise
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Property matcher for " + propertyName + " is frozen");
+        }
+    }
+
+    /**
+     * Gets the index of this instance in the registry it is registered with.
+     *
+     * @return the slot, or -1 if no slot has been assigned
+     */
+    int getRegistrySlot() {
+        return registrySlot;
+    }
+
+    /**
+     * Assigns the index of this instance in the registry it is registered with.
+     *
+     * @param registrySlot the slot
+     */
+    void setRegistrySlot(int registrySlot) {
+        this.registrySlot = registrySlot;
     }
 
     public String getPropertyName() {
         return propertyName;
     }
 
+    /**
+     * Gets the relative cost of reading and matching the property.
+     *
+     * @return the cost
+     */
+    public PropertyCost getCost() {
+        return cost;
+    }
+
     public String getPath() {
+        return getPropertyPath().toString();
+    }
+
+    /**
+     * Gets the path of this property. The path is derived from the path provider's path and is
+     * reused for as long as the path provider's path is unchanged.
+     *
+     * @return the path
+     */
+    @Override
+    public PropertyPath getPropertyPath() {
         if (pathProvider == null) {
             throw new IllegalStateException("No PathProvider assigned");
         }
 
-        String pathContext = pathProvider.getPath();
-        return pathContext + (pathContext.length() > 0 ? "." : "") + propertyName;
+        PropertyPath path = propertyPath;
+
+        if (frozen) {
+            return path;
+        }
+
+        PropertyPath parentPath = pathProvider.getPropertyPath();
+
+        if (path == null || !parentPath.equals(path.getParent())) {
+            path = parentPath.property(propertyName);
+            propertyPath = path;
+        }
+
+        return path;
+    }
+
+    /**
+     * Gets the path under which evaluations of this property are reported. A property matcher used on its own,
+     * without a path provider, is reported at the root.
+     *
+     * @return the path
+     */
+    PropertyPath getReportedPath() {
+        if (pathProvider != null) {
+            return getPropertyPath();
+        }
+
+        PropertyPath path = propertyPath;
+
+        if (path == null || !PropertyPath.ROOT.equals(path.getParent())) {
+            path = PropertyPath.ROOT.property(propertyName);
+            propertyPath = path;
+        }
+
+        return path;
     }
 
     public boolean matches(Object item) {
-        return matcher == null || matcher.matches(item);
+        MatchListener listener = MatchListeners.current();
+        if (listener == null) {
+            return matcher == null || matcher.matches(item);
+        }
+
+        long start = System.nanoTime();
+        boolean matched = matcher == null || matcher.matches(item);
+        listener.propertyMatched(this, matched, System.nanoTime() - start);
+        return matched;
+    }
+
+    /**
+     * Gets the assigned matcher.
+     *
+     * @return the matcher, or null if none has been assigned
+     */
+    Matcher<? super T> getMatcher() {
+        return matcher;
     }
 
     public boolean isSpecified() {
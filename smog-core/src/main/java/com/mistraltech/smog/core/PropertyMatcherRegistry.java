@@ -0,0 +1,16 @@
+package com.mistraltech.smog.core;
+
+/**
+ * Allows a PropertyMatcher to be added to a register of {@link PropertyMatcher}s.
+ */
+public interface PropertyMatcherRegistry {
+    void registerPropertyMatcher(PropertyMatcher<?> propertyMatcher);
+
+    /**
+     * Notifies the registry that a registered property matcher has been assigned a different matcher.
+     *
+     * @param propertyMatcher the property matcher
+     */
+    default void propertyMatcherChanged(PropertyMatcher<?> propertyMatcher) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.mistraltech.smog.core;
+
+/**
+ * An immutable path to a property in a matched object graph, relative to the root object being matched.
+ * <p>
+ * A path is a chain of property name segments. Paths share their prefix with the path they were derived from,
+ * so deriving a child path does not copy its parent. The string form, e.g. "person.address.postCode", is
+ * rendered only when first requested and is then retained.
+ */
+public final class PropertyPath {
+    /**
+     * The empty path, denoting the root object being matched.
+     */
+    public static final PropertyPath ROOT = new PropertyPath(null, "");
+
+    private final PropertyPath parent;
+    private final String name;
+    private final int hash;
+    private String rendered;
+
+    private PropertyPath(PropertyPath parent, String name) {
+        this.parent = parent;
+        this.name = name;
+        this.hash = parent == null ? 0 : 31 * parent.hash + name.hashCode();
+    }
+
+    /**
+     * Gets a path from its string form. The string is treated as a single opaque segment.
+     *
+     * @param path the path as a string
+     * @return the path; {@link #ROOT} if path is empty
+     */
+    public static PropertyPath of(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("No path");
+        }
+
+        return path.isEmpty() ? ROOT : new PropertyPath(ROOT, path);
+    }
+
+    /**
+     * Gets the path of a named property of the object at this path.
+     *
+     * @param propertyName the property name
+     * @return the child path
+     */
+    public PropertyPath property(String propertyName) {
+        if (propertyName == null) {
+            throw new IllegalArgumentException("No property name");
+        }
+
+        return new PropertyPath(this, propertyName);
+    }
+
+    /**
+     * Gets the path that this path was derived from.
+     *
+     * @return the parent path, or null if this is the root path
+     */
+    public PropertyPath getParent() {
+        return parent;
+    }
+
+    /**
+     * Indicates whether this is the root path.
+     *
+     * @return true if this path has no segments
+     */
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof PropertyPath)) {
+            return false;
+        }
+
+        PropertyPath other = (PropertyPath) o;
+
+        // Compare the last segments first; shared prefixes are then resolved by the identity check
+        return hash == other.hash
+                && name.equals(other.name)
+                && (parent == null ? other.parent == null : parent.equals(other.parent));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        String result = rendered;
+
+        if (result == null) {
+            result = render();
+            rendered = result;
+        }
+
+        return result;
+    }
+
+    private String render() {
+        if (isRoot()) {
+            return name;
+        }
+
+        String parentPath = parent.toString();
+        return parentPath.isEmpty() ? name : parentPath + "." + name;
+    }
+}
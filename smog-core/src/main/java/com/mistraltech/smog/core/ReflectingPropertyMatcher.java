@@ -0,0 +1,248 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.util.PropertyAccessorCache;
+import com.mistraltech.smog.core.util.PropertyReader;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * A type of {@link PropertyMatcher} that gets the property value to match against from the supplied bean
+ * by reflection.
+ *
+ * @param <T> the type of the property being matched
+ */
+public class ReflectingPropertyMatcher<T> extends PropertyMatcher<T> {
+    /**
+     * Identifies subclasses that do not override {@link #matches(Object)} or {@link #describeMismatch(Object, Description)},
+     * so that the property can be read once and then matched and described without reading it again.
+     */
+    private static final ClassValue<Boolean> READS_PROPERTY_SEPARATELY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("matches", Object.class).getDeclaringClass() == ReflectingPropertyMatcher.class
+                        && type.getMethod("describeMismatch", Object.class, Description.class).getDeclaringClass()
+                        == ReflectingPropertyMatcher.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private PropertyAccessor propertyAccessor;
+
+    /**
+     * Constructs an instance without a pathProvider, for use when the pathProvider is not known at construction time.
+     *
+     * @param propertyName name of the attribute that this PropertyMatcher matches against in the target object
+     * @param registry the PropertyMatcherRegistry to register with; can be null
+     * @see #ReflectingPropertyMatcher(String, PropertyMatcherRegistry, PathProvider)
+     */
+    public ReflectingPropertyMatcher(String propertyName, PropertyMatcherRegistry registry) {
+        this(propertyName, registry, null);
+    }
+
+    /**
+     * Constructor that takes and assigns a {@link PathProvider}.
+     *
+     * @param propertyName name of the attribute that this PropertyMatcher matches against in the target object
+     * @param registry the PropertyMatcherRegistry to register with; can be null
+     * @param pathProvider provides this PropertyMatcher with its path context. I.e. the property path that leads
+     * to the object containing this attribute in the target object graph; can be null
+     * @see PropertyMatcher#PropertyMatcher(String, PropertyMatcherRegistry, PathProvider)
+     */
+    public ReflectingPropertyMatcher(String propertyName, PropertyMatcherRegistry registry, PathProvider pathProvider) {
+        this(propertyName, registry, pathProvider, PropertyAccessorCache.getDefault());
+    }
+
+    /**
+     * Constructor that takes and assigns a {@link PathProvider} and reads property values using readers
+     * from the supplied cache.
+     *
+     * @param propertyName name of the attribute that this PropertyMatcher matches against in the target object
+     * @param registry the PropertyMatcherRegistry to register with; can be null
+     * @param pathProvider provides this PropertyMatcher with its path context. I.e. the property path that leads
+     * to the object containing this attribute in the target object graph; can be null
+     * @param accessorCache the cache that provides property readers, which determines the {@link PropertyAccessStrategy}
+     * @see #ReflectingPropertyMatcher(String, PropertyMatcherRegistry, PathProvider)
+     */
+    public ReflectingPropertyMatcher(String propertyName, PropertyMatcherRegistry registry, PathProvider pathProvider,
+                                     PropertyAccessorCache accessorCache) {
+        this(propertyName, registry, pathProvider, accessorCache, PropertyCost.NORMAL);
+    }
+
+    /**
+     * Constructor that takes and assigns a {@link PathProvider}, reads property values using readers
+     * from the supplied cache and declares the cost of the property. An expensive property is only read
+     * if the match cannot be decided by cheaper properties.
+     *
+     * @param propertyName name of the attribute that this PropertyMatcher matches against in the target object
+     * @param registry the PropertyMatcherRegistry to register with; can be null
+     * @param pathProvider provides this PropertyMatcher with its path context. I.e. the property path that leads
+     * to the object containing this attribute in the target object graph; can be null
+     * @param accessorCache the cache that provides property readers, which determines the {@link PropertyAccessStrategy}
+     * @param cost the relative cost of reading and matching the property
+     * @see PropertyMatcher#PropertyMatcher(String, PropertyMatcherRegistry, PathProvider, PropertyCost)
+     */
+    public ReflectingPropertyMatcher(String propertyName, PropertyMatcherRegistry registry, PathProvider pathProvider,
+                                     PropertyAccessorCache accessorCache, PropertyCost cost) {
+        super(propertyName, registry, pathProvider, cost);
+        propertyAccessor = new PropertyAccessor(propertyName, accessorCache);
+    }
+
+    @Override
+    public boolean matches(Object item) {
+        return !super.isSpecified() || super.matches(readProperty(item));
+    }
+
+    @Override
+    public void describeMismatch(Object item, Description mismatchDescription) {
+        super.describeMismatch(readProperty(item), mismatchDescription);
+    }
+
+    /**
+     * Indicates whether the supplied matcher is a ReflectingPropertyMatcher whose property can be read
+     * with {@link #readPropertyValue(Object)} and then matched with {@link #matchesPropertyValue(Object)}.
+     *
+     * @param matcher the matcher
+     * @return true if the property can be read separately from matching it
+     */
+    static boolean readsPropertySeparately(Matcher<?> matcher) {
+        return matcher instanceof ReflectingPropertyMatcher && READS_PROPERTY_SEPARATELY.get(matcher.getClass());
+    }
+
+    /**
+     * Reads the property from the supplied bean, unless no matcher is assigned.
+     *
+     * @param item the bean
+     * @return the property value, or null if no matcher is assigned
+     */
+    Object readPropertyValue(Object item) {
+        return isSpecified() ? readProperty(item) : null;
+    }
+
+    private Object readProperty(Object item) {
+        if (MatchEvents.isRecording()) {
+            return MatchEvents.recordPropertyRead(this, item, propertyAccessor::getPropertyValue);
+        }
+
+        return propertyAccessor.getPropertyValue(item);
+    }
+
+    /**
+     * Matches a property value previously read by {@link #readPropertyValue(Object)}.
+     *
+     * @param value the property value
+     * @return true if the value matches or no matcher is assigned
+     */
+    boolean matchesPropertyValue(Object value) {
+        return !isSpecified() || super.matches(value);
+    }
+
+    /**
+     * Describes the mismatch of a property value previously read by {@link #readPropertyValue(Object)}.
+     *
+     * @param value the property value
+     * @param mismatchDescription the description to append to
+     */
+    void describePropertyValueMismatch(Object value, Description mismatchDescription) {
+        super.describeMismatch(value, mismatchDescription);
+    }
+
+    /**
+     * Gets the accessor that reads the property.
+     *
+     * @return the property accessor
+     */
+    PropertyAccessor getPropertyAccessor() {
+        return propertyAccessor;
+    }
+
+    @Override
+    void freeze() {
+        super.freeze();
+        propertyAccessor.retainResolvedReader();
+    }
+
+    static class PropertyAccessor {
+        private final String propertyName;
+        private final PropertyAccessorCache accessorCache;
+
+        /**
+         * Indicates whether the most recently resolved reader is retained for reuse.
+         */
+        private boolean retainResolvedReader;
+
+        /**
+         * The most recently resolved reader, when retained.
+         */
+        private volatile ResolvedReader resolvedReader;
+
+        public PropertyAccessor(String propertyName) {
+            this(propertyName, PropertyAccessorCache.getDefault());
+        }
+
+        PropertyAccessor(String propertyName, PropertyAccessorCache accessorCache) {
+            this.propertyName = propertyName;
+            this.accessorCache = accessorCache;
+        }
+
+        public Object getPropertyValue(Object item) {
+            final PropertyReader propertyReader = getPropertyReader(item.getClass());
+
+            try {
+                return propertyReader.read(item);
+            } catch (IllegalAccessException e) {
+                throw new PropertyUnreadableException(item.getClass(), propertyReader.getReadMethod(), propertyName, e);
+            } catch (InvocationTargetException e) {
+                throw new PropertyUnreadableException(item.getClass(), propertyReader.getReadMethod(), propertyName, e);
+            }
+        }
+
+        /**
+         * Gets the cache that provides property readers. Accessors for the same property name that share
+         * a cache read the same value.
+         *
+         * @return the accessor cache
+         */
+        PropertyAccessorCache getAccessorCache() {
+            return accessorCache;
+        }
+
+        /**
+         * Retains the reader resolved for the most recently matched bean class, so that matching
+         * beans of the same class does not consult the cache.
+         */
+        void retainResolvedReader() {
+            retainResolvedReader = true;
+        }
+
+        private PropertyReader getPropertyReader(Class<?> beanClass) {
+            if (!retainResolvedReader) {
+                return accessorCache.getPropertyReader(beanClass, propertyName);
+            }
+
+            ResolvedReader resolved = resolvedReader;
+
+            if (resolved == null || resolved.beanClass != beanClass) {
+                resolved = new ResolvedReader(beanClass, accessorCache.getPropertyReader(beanClass, propertyName));
+                resolvedReader = resolved;
+            }
+
+            return resolved.propertyReader;
+        }
+    }
+
+    private static final class ResolvedReader {
+        private final Class<?> beanClass;
+        private final PropertyReader propertyReader;
+
+        private ResolvedReader(Class<?> beanClass, PropertyReader propertyReader) {
+            this.beanClass = beanClass;
+            this.propertyReader = propertyReader;
+        }
+    }
+}
+
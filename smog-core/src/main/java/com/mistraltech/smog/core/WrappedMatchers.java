@@ -0,0 +1,104 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.collection.ArrayAsIterableMatcher;
+import org.hamcrest.collection.IsArray;
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.hamcrest.collection.IsIterableContainingInOrder;
+import org.hamcrest.collection.IsIterableContainingInRelativeOrder;
+import org.hamcrest.collection.IsMapContaining;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.AnyOf;
+import org.hamcrest.core.CombinableMatcher;
+import org.hamcrest.core.DescribedAs;
+import org.hamcrest.core.Every;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsIterableContaining;
+import org.hamcrest.core.IsNot;
+
+import java.lang.reflect.Field;
+
+/**
+ * Finds the composite property matchers wrapped by Hamcrest's own matchers, such as {@code is}, {@code not},
+ * {@code allOf}, {@code anyOf}, {@code everyItem}, {@code hasItem} and {@code contains}, so that they can be
+ * frozen along with the matcher that holds them.
+ * <p>
+ * Only the fields listed here, which hold the wrapped matchers or the lists of them built by Hamcrest, are read;
+ * values given to matchers such as {@code isIn(...)} are never looked into. On a Hamcrest version where the fields
+ * differ, and for wrappers from other libraries, the wrapped composites are not found, and must be frozen by the
+ * caller before they are wrapped.
+ */
+final class WrappedMatchers {
+    private static final Field[] WRAPPER_FIELDS = {
+            field(Is.class, "matcher"),
+            field(IsNot.class, "matcher"),
+            field(DescribedAs.class, "matcher"),
+            field(CombinableMatcher.class, "matcher"),
+            field(AllOf.class, "matchers"),
+            // AnyOf keeps its matchers in its package-private superclass
+            field(AnyOf.class.getSuperclass(), "matchers"),
+            field(Every.class, "matcher"),
+            field(IsIterableContaining.class, "elementMatcher"),
+            field(IsIterableContainingInOrder.class, "matchers"),
+            field(IsIterableContainingInAnyOrder.class, "matchers"),
+            field(IsIterableContainingInRelativeOrder.class, "matchers"),
+            field(ArrayAsIterableMatcher.class, "matchers"),
+            field(IsArray.class, "elementMatchers"),
+            field(IsMapContaining.class, "keyMatcher"),
+            field(IsMapContaining.class, "valueMatcher")
+    };
+
+    private WrappedMatchers() {
+    }
+
+    /**
+     * Freezes the matcher if it is a composite property matcher, or else the composite property matchers
+     * wrapped within it.
+     *
+     * @param matcher the matcher; can be null
+     */
+    static void freeze(Object matcher) {
+        if (matcher instanceof CompositePropertyMatcher) {
+            ((CompositePropertyMatcher<?>) matcher).freeze();
+        } else if (matcher instanceof Matcher) {
+            for (Field field : WRAPPER_FIELDS) {
+                if (field != null && field.getDeclaringClass().isInstance(matcher)) {
+                    freezeAll(read(field, matcher));
+                }
+            }
+        }
+    }
+
+    private static void freezeAll(Object wrapped) {
+        if (wrapped instanceof Iterable) {
+            for (Object matcher : (Iterable<?>) wrapped) {
+                freeze(matcher);
+            }
+        } else if (wrapped instanceof Matcher[]) {
+            for (Matcher<?> matcher : (Matcher<?>[]) wrapped) {
+                freeze(matcher);
+            }
+        } else {
+            freeze(wrapped);
+        }
+    }
+
+    private static Object read(Field field, Object matcher) {
+        try {
+            return field.get(matcher);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Field is not accessible: " + field, e);
+        }
+    }
+
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            // A different Hamcrest version; matchers wrapped by this type are not found
+            return null;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.mistraltech.smog.core.annotation;
 
+import com.mistraltech.smog.core.PropertyCost;
+
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
@@ -20,4 +22,12 @@ public @interface MatchesProperty {
      * @return the matched property name
      */
     String value();
+
+    /**
+     * The relative cost of reading and matching the property. Generated matchers evaluate cheap
+     * properties first and do not read expensive ones once the result of a match is decided.
+     *
+     * @return the property cost
+     */
+    PropertyCost cost() default PropertyCost.NORMAL;
 }
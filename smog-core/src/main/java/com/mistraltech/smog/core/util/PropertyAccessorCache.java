@@ -0,0 +1,142 @@
+package com.mistraltech.smog.core.util;
+
+import com.mistraltech.smog.core.PropertyAccessStrategy;
+import com.mistraltech.smog.core.PropertyNotFoundException;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of property readers, keyed by bean class and property name.
+ * <p>
+ * The read method for a given property of a given class is resolved once, by bean introspection, and
+ * turned into a {@link PropertyReader} using the cache's {@link PropertyAccessStrategy}. The reader is reused
+ * for all subsequent lookups. The cache is safe for concurrent use.
+ * <p>
+ * Entries are held against the bean class itself using a {@link ClassValue}, so the cache does not
+ * prevent the class loader of a bean class from being garbage collected when it is discarded.
+ */
+public final class PropertyAccessorCache {
+    private static final PropertyAccessorCache DEFAULT_INSTANCE = new PropertyAccessorCache();
+
+    private final ClassValue<ConcurrentMap<String, PropertyReader>> propertyReaders =
+            new ClassValue<ConcurrentMap<String, PropertyReader>>() {
+                @Override
+                protected ConcurrentMap<String, PropertyReader> computeValue(Class<?> beanClass) {
+                    return new ConcurrentHashMap<String, PropertyReader>();
+                }
+            };
+
+    private final PropertyAccessStrategy accessStrategy;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Constructs a cache that creates readers using the {@link PropertyAccessStrategy#METHOD_HANDLE} strategy.
+     */
+    public PropertyAccessorCache() {
+        this(PropertyAccessStrategy.METHOD_HANDLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param accessStrategy the strategy used to create readers for resolved read methods
+     */
+    public PropertyAccessorCache(PropertyAccessStrategy accessStrategy) {
+        if (accessStrategy == null) {
+            throw new IllegalArgumentException("accessStrategy is required but was null");
+        }
+
+        this.accessStrategy = accessStrategy;
+    }
+
+    /**
+     * Gets the cache instance shared by default by all {@link com.mistraltech.smog.core.ReflectingPropertyMatcher}s.
+     *
+     * @return the default cache
+     */
+    public static PropertyAccessorCache getDefault() {
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * Gets the reader for the named property of the given bean class, creating it if it
+     * has not been requested before.
+     *
+     * @param beanClass the class of the bean
+     * @param propertyName the property name
+     * @return the property reader
+     * @throws PropertyNotFoundException if the bean class does not have a readable property with the given name
+     */
+    public PropertyReader getPropertyReader(Class<?> beanClass, String propertyName) {
+        final ConcurrentMap<String, PropertyReader> readersByName = propertyReaders.get(beanClass);
+
+        PropertyReader propertyReader = readersByName.get(propertyName);
+        if (propertyReader != null) {
+            hitCount.increment();
+            return propertyReader;
+        }
+
+        missCount.increment();
+
+        propertyReader = accessStrategy.createReader(resolveReadMethod(beanClass, propertyName));
+        PropertyReader existingPropertyReader = readersByName.putIfAbsent(propertyName, propertyReader);
+
+        return existingPropertyReader != null ? existingPropertyReader : propertyReader;
+    }
+
+    /**
+     * Gets the read method for the named property of the given bean class.
+     *
+     * @param beanClass the class of the bean
+     * @param propertyName the property name
+     * @return the read method
+     * @throws PropertyNotFoundException if the bean class does not have a readable property with the given name
+     * @see #getPropertyReader(Class, String)
+     */
+    public Method getReadMethod(Class<?> beanClass, String propertyName) {
+        return getPropertyReader(beanClass, propertyName).getReadMethod();
+    }
+
+    /**
+     * Gets the strategy used to create readers.
+     *
+     * @return the access strategy
+     */
+    public PropertyAccessStrategy getAccessStrategy() {
+        return accessStrategy;
+    }
+
+    /**
+     * The number of lookups that were satisfied from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * The number of lookups that required the read method to be resolved.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private static Method resolveReadMethod(Class<?> beanClass, String propertyName) {
+        PropertyDescriptor property = new PropertyDescriptorLocator(beanClass).getPropertyDescriptor(propertyName);
+
+        final Method readMethod = property.getReadMethod();
+        if (readMethod == null) {
+            throw new PropertyNotFoundException(beanClass, propertyName);
+        }
+
+        return readMethod;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mistraltech.smog.core.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the value of a single property from a bean, using a previously resolved read method.
+ */
+public interface PropertyReader {
+
+    /**
+     * Gets the read method that this reader invokes.
+     *
+     * @return the read method
+     */
+    Method getReadMethod();
+
+    /**
+     * Reads the property value from the given bean.
+     *
+     * @param bean the bean
+     * @return the property value
+     * @throws IllegalAccessException if the read method is not accessible
+     * @throws InvocationTargetException if the read method throws an exception
+     */
+    Object read(Object bean) throws IllegalAccessException, InvocationTargetException;
+}
@@ -0,0 +1,187 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveOrderingTest {
+
+    @Test
+    public void evaluatesInDeclaredOrderInitially() {
+        AdaptiveOrdering ordering = AdaptiveOrdering.create();
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        CountingPropertyMatcher prop1 = new CountingPropertyMatcher("prop1", "y", cpm);
+        CountingPropertyMatcher prop2 = new CountingPropertyMatcher("prop2", "x", cpm);
+        cpm.useAdaptiveOrdering(ordering);
+
+        assertFalse(cpm.evaluate("y").matches());
+
+        assertEquals(1, prop1.getInvocationCount());
+        assertEquals(1, prop2.getInvocationCount());
+        assertEquals(Arrays.asList("prop1", "prop2"), ordering.getLearnedOrder());
+    }
+
+    @Test
+    public void evaluatesFrequentlyFailingPropertyFirstOnceLearned() {
+        AdaptiveOrdering ordering = AdaptiveOrdering.create().withReorderInterval(10);
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        CountingPropertyMatcher prop1 = new CountingPropertyMatcher("prop1", "y", cpm);
+        CountingPropertyMatcher prop2 = new CountingPropertyMatcher("prop2", "x", cpm);
+        cpm.useAdaptiveOrdering(ordering);
+
+        for (int i = 0; i < 10; i++) {
+            cpm.evaluate("y");
+        }
+
+        assertEquals(Arrays.asList("prop2", "prop1"), ordering.getLearnedOrder());
+
+        int prop1Count = prop1.getInvocationCount();
+        assertFalse(cpm.evaluate("y").matches());
+        assertEquals(prop1Count, prop1.getInvocationCount());
+    }
+
+    @Test
+    public void describesMismatchInDeclaredOrder() {
+        AdaptiveOrdering ordering = AdaptiveOrdering.create().withReorderInterval(10);
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        new CountingPropertyMatcher("prop1", "y", cpm);
+        new CountingPropertyMatcher("prop2", "x", cpm);
+        cpm.useAdaptiveOrdering(ordering);
+
+        for (int i = 0; i < 10; i++) {
+            cpm.evaluate("y");
+        }
+
+        StringDescription description = new StringDescription();
+        cpm.evaluate("z").describeMismatch(description);
+
+        assertEquals("prop1 was \"z\" (expected \"y\")" + MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB
+                + "prop2 was \"z\" (expected \"x\")", description.toString());
+    }
+
+    @Test
+    public void matchesWhenAllPropertiesMatch() {
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        new CountingPropertyMatcher("prop1", "y", cpm);
+        cpm.useAdaptiveOrdering(AdaptiveOrdering.create());
+
+        assertTrue(cpm.matches("y"));
+    }
+
+    @Test
+    public void canStoreAndLoadLearnedOrder() {
+        AdaptiveOrdering ordering = AdaptiveOrdering.create().withReorderInterval(10);
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        new CountingPropertyMatcher("prop1", "y", cpm);
+        new CountingPropertyMatcher("prop2", "x", cpm);
+        cpm.useAdaptiveOrdering(ordering);
+        for (int i = 0; i < 10; i++) {
+            cpm.evaluate("y");
+        }
+
+        Properties properties = new Properties();
+        ordering.store(properties, "fooMatcher");
+        assertEquals("prop2,prop1", properties.getProperty("fooMatcher"));
+
+        CompositePropertyMatcher<String> newCpm = new CompositePropertyMatcher<String>("foo");
+        CountingPropertyMatcher newProp1 = new CountingPropertyMatcher("prop1", "y", newCpm);
+        new CountingPropertyMatcher("prop2", "x", newCpm);
+        newCpm.useAdaptiveOrdering(AdaptiveOrdering.load(properties, "fooMatcher"));
+
+        assertFalse(newCpm.evaluate("y").matches());
+        assertEquals(0, newProp1.getInvocationCount());
+    }
+
+    @Test
+    public void loadStartsWithDeclaredOrderWhenNothingStored() {
+        AdaptiveOrdering ordering = AdaptiveOrdering.load(new Properties(), "fooMatcher");
+
+        assertTrue(ordering.getLearnedOrder().isEmpty());
+    }
+
+    @Test
+    public void cannotBeUsedByTwoMatchers() {
+        AdaptiveOrdering ordering = AdaptiveOrdering.create();
+        new CompositePropertyMatcher<String>("foo").useAdaptiveOrdering(ordering);
+        CompositePropertyMatcher<String> other = new CompositePropertyMatcher<String>("bar");
+
+        Exception e = assertThrows(IllegalStateException.class, () -> other.useAdaptiveOrdering(ordering));
+        assertEquals("Adaptive ordering is already in use by another matcher", e.getMessage());
+    }
+
+    @Test
+    public void cannotBeAddedToFrozenMatcher() {
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo").freeze();
+
+        Exception e = assertThrows(IllegalStateException.class, () -> cpm.useAdaptiveOrdering(AdaptiveOrdering.create()));
+        assertEquals("Cannot change the ordering of a frozen matcher", e.getMessage());
+    }
+
+    @Test
+    public void canBeUsedByFrozenMatcherSharedBetweenThreads() throws Exception {
+        AdaptiveOrdering ordering = AdaptiveOrdering.create().withReorderInterval(1);
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        new PropertyMatcher<String>("prop1", cpm).setMatcher(CoreMatchers.equalTo("x"));
+        new PropertyMatcher<String>("prop2", cpm).setMatcher(CoreMatchers.startsWith("x"));
+        cpm.useAdaptiveOrdering(ordering).freeze();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 20000; j++) {
+                        cpm.matches(j % 3 == 0 ? "x" : "y");
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2, ordering.getLearnedOrder().size());
+    }
+
+    @Test
+    public void cannotSetReorderIntervalLessThanOne() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+                () -> AdaptiveOrdering.create().withReorderInterval(0));
+        assertEquals("Reorder interval must be at least 1: 0", e.getMessage());
+    }
+
+    private static class CountingPropertyMatcher extends PropertyMatcher<String> {
+        private int invocationCount;
+
+        private CountingPropertyMatcher(String propertyName, String expected, PropertyMatcherRegistry registry) {
+            super(propertyName, registry);
+            setMatcher(CoreMatchers.equalTo(expected));
+        }
+
+        @Override
+        public boolean matches(Object item) {
+            invocationCount++;
+            return super.matches(item);
+        }
+
+        private int getInvocationCount() {
+            return invocationCount;
+        }
+    }
+}
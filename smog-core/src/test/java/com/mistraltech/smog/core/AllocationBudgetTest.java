@@ -0,0 +1,106 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+
+import static com.mistraltech.smog.core.AllocationMeter.assertAllocatesAtMost;
+import static com.mistraltech.smog.core.AllocationMeter.bytesPerOperation;
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher.aPostCodeThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the allocation-free matching path. Budgets are in bytes per operation, and can be changed for JVMs that
+ * allocate differently with the system properties smog.allocation.matchBudget and
+ * smog.allocation.mismatchBudgetPerProperty.
+ */
+public class AllocationBudgetTest {
+    private static final long SUCCESSFUL_MATCH_BUDGET = Long.getLong("smog.allocation.matchBudget", 0);
+    private static final long MISMATCH_BUDGET_PER_PROPERTY = Long.getLong("smog.allocation.mismatchBudgetPerProperty", 96);
+
+    private final Person bob = aPerson()
+            .withName("bob")
+            .withAge(34)
+            .withAddress(new Address(21, new PostCode("out", "in")))
+            .build();
+
+    private final Person dennis = aPerson()
+            .withName("dennis")
+            .withAge(36)
+            .withAddress(new Address(22, new PostCode("up", "in")))
+            .build();
+
+    @Test
+    public void successfulMatchOnFrozenCompositeDoesNotAllocate() {
+        Matcher<Person> matcher = nestedMatcher().freeze();
+
+        assertAllocatesAtMost(SUCCESSFUL_MATCH_BUDGET, () -> matcher.matches(bob));
+    }
+
+    @Test
+    public void successfulMatchOnUnfrozenCompositeDoesNotAllocate() {
+        Matcher<Person> matcher = nestedMatcher();
+
+        assertAllocatesAtMost(SUCCESSFUL_MATCH_BUDGET, () -> matcher.matches(bob));
+    }
+
+    @Test
+    public void successfulPropertyMatchDoesNotAllocate() {
+        PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("name", null);
+        propertyMatcher.setMatcher(equalTo("bob"));
+
+        assertAllocatesAtMost(SUCCESSFUL_MATCH_BUDGET, () -> propertyMatcher.matches("bob"));
+    }
+
+    @Test
+    public void successfulReflectingPropertyMatchDoesNotAllocate() {
+        ReflectingPropertyMatcher<String> propertyMatcher = new ReflectingPropertyMatcher<String>("name", null);
+        propertyMatcher.setMatcher(equalTo("bob"));
+
+        assertAllocatesAtMost(SUCCESSFUL_MATCH_BUDGET, () -> propertyMatcher.matches(bob));
+    }
+
+    @Test
+    public void successfulAccumulationDoesNotAllocate() {
+        PropertyMatcher<String> nameMatcher = new PropertyMatcher<String>("name", null);
+        nameMatcher.setMatcher(equalTo("bob"));
+        PropertyMatcher<Integer> ageMatcher = new PropertyMatcher<Integer>("age", null);
+        ageMatcher.setMatcher(equalTo(34));
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+
+        assertAllocatesAtMost(SUCCESSFUL_MATCH_BUDGET, () -> {
+            matchAccumulator.reset(Description.NONE);
+            return matchAccumulator
+                    .matches(nameMatcher, bob.getName())
+                    .matches(ageMatcher, bob.getAge())
+                    .result();
+        });
+    }
+
+    @Test
+    public void mismatchAllocatesInProportionToPropertiesMatched() {
+        Matcher<Person> matcher = nestedMatcher().freeze();
+
+        double bytesPerMismatch = bytesPerOperation(() -> matcher.matches(dennis));
+
+        // The result records the failed name property and the three Person properties applied after it
+        assertTrue(bytesPerMismatch <= 4 * MISMATCH_BUDGET_PER_PROPERTY,
+                "Allocated " + bytesPerMismatch + " bytes per mismatch");
+    }
+
+    private static CompositePropertyMatcher<Person> nestedMatcher() {
+        return aPersonThat()
+                .hasName("bob")
+                .hasAge(34)
+                .hasAddress(anAddressThat()
+                        .hasHouseNumber(21)
+                        .hasPostCode(aPostCodeThat().hasOuter("out").hasInner("in")));
+    }
+}
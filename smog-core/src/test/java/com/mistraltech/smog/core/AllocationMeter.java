@@ -0,0 +1,116 @@
+package com.mistraltech.smog.core;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the bytes allocated by the current thread while repeatedly performing an operation,
+ * using the HotSpot per-thread allocation counter.
+ */
+final class AllocationMeter {
+    private static final int WARM_UP_ITERATIONS = 20000;
+    private static final int MEASURED_ITERATIONS = 10000;
+    private static final int MEASUREMENT_ROUNDS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+    private static final boolean ESCAPE_ANALYSIS = escapeAnalysis();
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * Asserts that an operation allocates no more than a budget, on average over many iterations.
+     * The test is skipped on JVMs that cannot measure per-thread allocation. A budget of zero is only met once
+     * the C2 compiler has removed short-lived allocations by escape analysis, so it is also skipped when the JVM
+     * runs without C2 (e.g. -Xint or -XX:TieredStopAtLevel=1) or with the JaCoCo agent, whose probes defeat it.
+     *
+     * @param budget the maximum number of bytes per operation
+     * @param operation the operation
+     */
+    static void assertAllocatesAtMost(long budget, BooleanSupplier operation) {
+        assumeTrue(budget > 0 || ESCAPE_ANALYSIS, "A zero allocation budget needs escape analysis by C2");
+
+        double bytesPerOperation = bytesPerOperation(operation);
+
+        assertTrue(bytesPerOperation <= budget,
+                "Allocated " + bytesPerOperation + " bytes per operation, budget is " + budget);
+    }
+
+    /**
+     * Measures the average number of bytes allocated by an operation. The operation is warmed up first
+     * so that class loading and one-off initialisation are not counted, and the lowest of several rounds is
+     * taken, since a one-off allocation by the JVM during a round can only add to it.
+     *
+     * @param operation the operation
+     * @return the mean bytes allocated per operation, not rounded, so that a few bytes over many iterations count
+     */
+    static double bytesPerOperation(BooleanSupplier operation) {
+        assumeTrue(THREAD_MX_BEAN != null, "Per-thread allocation measurement is not supported");
+
+        int sink = 0;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            sink += operation.getAsBoolean() ? 1 : 0;
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long lowest = Long.MAX_VALUE;
+
+        for (int round = 0; round < MEASUREMENT_ROUNDS; round++) {
+            long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                sink += operation.getAsBoolean() ? 1 : 0;
+            }
+            long after = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+
+            lowest = Math.min(lowest, after - before);
+        }
+
+        // Keeps the results live; the sink can never exceed the total number of iterations
+        assertTrue(sink <= WARM_UP_ITERATIONS + MEASUREMENT_ROUNDS * MEASURED_ITERATIONS);
+
+        return lowest / (double) MEASURED_ITERATIONS;
+    }
+
+    private static boolean escapeAnalysis() {
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-javaagent:") && argument.contains("jacoco")) {
+                return false;
+            }
+        }
+
+        HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        if (bean == null) {
+            return false;
+        }
+
+        try {
+            return Boolean.parseBoolean(bean.getVMOption("UseCompiler").getValue())
+                    && Boolean.parseBoolean(bean.getVMOption("DoEscapeAnalysis").getValue())
+                    && Integer.parseInt(bean.getVMOption("TieredStopAtLevel").getValue()) >= 4;
+        } catch (IllegalArgumentException e) {
+            // A VM without these options, such as one built without C2
+            return false;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+}
@@ -0,0 +1,134 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AppendableDescriptionTest {
+    private final Person dennis = aPerson()
+            .withName("dennis")
+            .withAge(36)
+            .withAddress(new Address(22, new PostCode("up", "down")))
+            .build();
+
+    private final Matcher<Person> matcher = aPersonThat().hasName("bob").hasAge(34).hasAddress(anAddressThat().hasHouseNumber(21));
+
+    @Test
+    public void writesSameTextAsStringDescription() {
+        StringWriter writer = new StringWriter();
+        AppendableDescription description = new AppendableDescription(writer);
+
+        matcher.describeMismatch(dennis, description);
+        description.appendText(" ").appendDescriptionOf(matcher);
+        description.flush();
+
+        StringDescription expected = new StringDescription();
+        matcher.describeMismatch(dennis, expected);
+        expected.appendText(" ").appendDescriptionOf(matcher);
+
+        assertEquals(expected.toString(), writer.toString());
+        assertFalse(description.isTruncated());
+    }
+
+    @Test
+    public void buffersUntilFlushed() {
+        StringWriter writer = new StringWriter();
+        AppendableDescription description = new AppendableDescription(writer);
+
+        description.appendText("abc");
+        assertEquals("", writer.toString());
+
+        description.flush();
+        assertEquals("abc", writer.toString());
+    }
+
+    @Test
+    public void writesTextLongerThanBuffer() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+
+        StringBuilder out = new StringBuilder();
+        AppendableDescription description = new AppendableDescription(out);
+        description.appendText("x").appendText(text.toString()).appendValue('y');
+
+        assertEquals("x" + text + "\"y\"", description.toString());
+    }
+
+    @Test
+    public void truncatesAtMaximumLength() {
+        StringBuilder out = new StringBuilder();
+        AppendableDescription description = new AppendableDescription(out, 10);
+
+        matcher.describeMismatch(dennis, description);
+
+        assertEquals("name was \"...", description.toString());
+        assertTrue(description.isTruncated());
+    }
+
+    @Test
+    public void truncatesWhenAppendingCharacters() {
+        AppendableDescription description = new AppendableDescription(new StringBuilder(), 2);
+
+        description.appendValue('a');
+
+        assertEquals("\"a...", description.toString());
+        assertTrue(description.isTruncated());
+    }
+
+    @Test
+    public void doesNotTruncateTextOfExactlyMaximumLength() {
+        AppendableDescription description = new AppendableDescription(new StringBuilder(), 3);
+
+        description.appendText("abc");
+
+        assertEquals("abc", description.toString());
+        assertFalse(description.isTruncated());
+    }
+
+    @Test
+    public void rethrowsIOExceptionUnchecked() {
+        Writer failingWriter = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AppendableDescription description = new AppendableDescription(failingWriter);
+        description.appendText("abc");
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, description::flush);
+        assertEquals("disk full", e.getCause().getMessage());
+    }
+
+    @Test
+    public void cannotConstructWithNegativeMaximumLength() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> new AppendableDescription(new StringBuilder(), -1));
+        assertEquals("Maximum length must not be negative: -1", e.getMessage());
+    }
+}
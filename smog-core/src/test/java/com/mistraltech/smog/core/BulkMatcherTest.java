@@ -0,0 +1,114 @@
+package com.mistraltech.smog.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkMatcherTest {
+
+    @Test
+    public void countsMatchesAndMismatchesOfIterable() {
+        List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < 10000; i++) {
+            items.add(i);
+        }
+
+        BulkMatchResult result = BulkMatcher.bulkMatcher(new MultipleOfMatcher(3))
+                .withChunkSize(100)
+                .match(items);
+
+        assertEquals(10000, result.getItemCount());
+        assertEquals(3334, result.getMatchCount());
+        assertEquals(6666, result.getMismatchCount());
+        assertFalse(result.allMatched());
+    }
+
+    @Test
+    public void samplesMismatchesWithLowestIndexes() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            BulkMatchResult result = BulkMatcher.bulkMatcher(new MultipleOfMatcher(2))
+                    .withPool(pool)
+                    .withChunkSize(7)
+                    .withMismatchSampleSize(3)
+                    .match(IntStream.range(0, 1000).boxed());
+
+            List<BulkMatchResult.Mismatch> samples = result.getMismatchSamples();
+            assertEquals(3, samples.size());
+            assertEquals(1, samples.get(0).getIndex());
+            assertEquals(3, samples.get(1).getIndex());
+            assertEquals(5, samples.get(2).getIndex());
+            assertEquals("remainder was <1> (expected <0>)", samples.get(0).getDescription());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void describesNoMismatchesWhenSampleSizeIsZero() {
+        BulkMatchResult result = BulkMatcher.bulkMatcher(new MultipleOfMatcher(2))
+                .withMismatchSampleSize(0)
+                .match(IntStream.range(0, 100).boxed());
+
+        assertEquals(50, result.getMismatchCount());
+        assertTrue(result.getMismatchSamples().isEmpty());
+    }
+
+    @Test
+    public void matchesEmptySource() {
+        BulkMatchResult result = BulkMatcher.bulkMatcher(new MultipleOfMatcher(2))
+                .match(new ArrayList<Integer>());
+
+        assertEquals(0, result.getItemCount());
+        assertTrue(result.allMatched());
+    }
+
+    @Test
+    public void freezesMatcher() {
+        MultipleOfMatcher matcher = new MultipleOfMatcher(2);
+
+        BulkMatcher.bulkMatcher(matcher);
+
+        assertTrue(matcher.isFrozen());
+    }
+
+    @Test
+    public void cannotSetChunkSizeLessThanOne() {
+        BulkMatcher<Integer> bulkMatcher = BulkMatcher.bulkMatcher(new MultipleOfMatcher(2));
+
+        Exception e = assertThrows(IllegalArgumentException.class, () -> bulkMatcher.withChunkSize(0));
+        assertEquals("Chunk size must be at least 1: 0", e.getMessage());
+    }
+
+    @Test
+    public void cannotCreateWithoutMatcher() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> BulkMatcher.bulkMatcher(null));
+        assertEquals("matcher is required but was null", e.getMessage());
+    }
+
+    private static class MultipleOfMatcher extends CompositePropertyMatcher<Integer> {
+        private final int divisor;
+        private final PropertyMatcher<Integer> remainderMatcher = new PropertyMatcher<Integer>("remainder", this);
+
+        private MultipleOfMatcher(int divisor) {
+            super("a multiple of " + divisor);
+            this.divisor = divisor;
+            remainderMatcher.setMatcher(equalTo(0));
+        }
+
+        @Override
+        protected void matchesSafely(Integer item, MatchAccumulator matchAccumulator) {
+            matchAccumulator.matches(remainderMatcher, item % divisor);
+        }
+    }
+}
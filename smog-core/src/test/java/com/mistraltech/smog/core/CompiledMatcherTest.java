@@ -0,0 +1,108 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ItemFixtures.CountingItemMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Home;
+import com.mistraltech.smog.core.ItemFixtures.HomeMatcher;
+import com.mistraltech.smog.core.ItemFixtures.HookedHomeMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Item;
+import com.mistraltech.smog.core.ItemFixtures.ItemMatcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.number.OrderingComparison.comparesEqualTo;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledMatcherTest {
+    @Test
+    public void matchesAsOriginalMatcher() {
+        assertMatchesAsOriginal(new ItemMatcher().hasName(equalTo("ann")).hasAge(greaterThan(2)));
+        assertMatchesAsOriginal(new ItemMatcher().hasName(is("bob")).hasAge(lessThanOrEqualTo(3)));
+        assertMatchesAsOriginal(new ItemMatcher().hasName(startsWith("a")).hasAge(comparesEqualTo(4)));
+        assertMatchesAsOriginal(new ItemMatcher().hasName(equalTo(null)));
+        assertMatchesAsOriginal(new ItemMatcher().hasHome(new HomeMatcher().hasTown(equalTo("York"))));
+        assertMatchesAsOriginal(new ItemMatcher().hasAge(greaterThan(1))
+                .hasHome(new HookedHomeMatcher().hasTown(equalTo("Leeds"))));
+        assertMatchesAsOriginal(new CountingItemMatcher().hasName(equalTo("ann")));
+    }
+
+    @Test
+    public void findsMatcherResponsibleForMismatch() {
+        ItemMatcher itemMatcher = new ItemMatcher();
+        HomeMatcher homeMatcher = new HomeMatcher().hasTown(equalTo("York"));
+        CompiledMatcher<Item> compiled = CompiledMatcher.compile(
+                itemMatcher.hasName(equalTo("ann")).hasAge(greaterThan(2)).hasHome(homeMatcher));
+
+        assertEquals(Optional.empty(), compiled.findMismatch(new Item("ann", 3, new Home("York"))));
+        assertSame(itemMatcher, compiled.findMismatch(null).get());
+        assertSame(itemMatcher.nameMatcher, compiled.findMismatch(new Item("bob", 3, new Home("York"))).get());
+        assertSame(itemMatcher.ageMatcher, compiled.findMismatch(new Item("ann", 1, new Home("York"))).get());
+        assertSame(homeMatcher, compiled.findMismatch(new Item("ann", 3, null)).get());
+        assertSame(homeMatcher.townMatcher, compiled.findMismatch(new Item("ann", 3, new Home("Leeds"))).get());
+    }
+
+    @Test
+    public void describesAsOriginalMatcher() {
+        CompiledMatcher<Item> compiled = CompiledMatcher.compile(new ItemMatcher()
+                .hasName(equalTo("ann")).hasHome(new HomeMatcher().hasTown(equalTo("York"))));
+        Item item = new Item("bob", 3, new Home("Leeds"));
+
+        StringDescription expected = new StringDescription();
+        compiled.getMatcher().describeMismatch(item, expected);
+
+        StringDescription actual = new StringDescription();
+        compiled.describeMismatch(item, actual);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(StringDescription.toString(compiled.getMatcher()), StringDescription.toString(compiled));
+    }
+
+    @Test
+    public void freezesMatcher() {
+        assertTrue(CompiledMatcher.compile(new ItemMatcher()).getMatcher().isFrozen());
+    }
+
+    @Test
+    public void reportsWhetherMatcherWasCompiled() {
+        assertTrue(CompiledMatcher.compile(new ItemMatcher().hasName(equalTo("ann"))).isCompiled());
+        assertFalse(CompiledMatcher.compile(new CountingItemMatcher().hasName(equalTo("ann"))).isCompiled());
+    }
+
+    @Test
+    public void rejectsNullMatcher() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CompiledMatcher.compile(null));
+        assertEquals("No matcher", e.getMessage());
+    }
+
+    private static void assertMatchesAsOriginal(CompositePropertyMatcher<Item> matcher) {
+        CompiledMatcher<Item> compiled = CompiledMatcher.compile(matcher);
+        boolean anyMatched = false;
+
+        for (String name : Arrays.asList("ann", "bob", null)) {
+            for (int age = 0; age < 6; age++) {
+                for (String town : Arrays.asList("Leeds", "York", null)) {
+                    Item item = new Item(name, age, town != null ? new Home(town) : null);
+                    boolean matches = matcher.matches(item);
+
+                    assertEquals(matches, compiled.matches(item), String.valueOf(item));
+                    assertEquals(!matches, compiled.findMismatch(item).isPresent(), String.valueOf(item));
+                    anyMatched |= matches;
+                }
+            }
+        }
+
+        assertTrue(anyMatched);
+        assertFalse(compiled.matches(null));
+    }
+}
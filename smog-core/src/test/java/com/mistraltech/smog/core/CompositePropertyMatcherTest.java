@@ -0,0 +1,710 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.util.PropertyAccessorCache;
+import org.hamcrest.CoreMatchers;
+import org.hamcrest.Description;
+import org.hamcrest.DiagnosingMatcher;
+import org.hamcrest.Matchers;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompositePropertyMatcherTest {
+    private Description description;
+
+    @BeforeEach
+    public void setUp() {
+        description = new StringDescription();
+    }
+
+    @Test
+    public void matchesFailsWhenItemIsNull() {
+        CompositePropertyMatcher<TargetItem> cpm = new TargetItemCompositePropertyMatcher("foo");
+
+        assertFalse(cpm.matches(null));
+    }
+
+    @Test
+    public void matchesFailsWhenItemIsNotExpectedType() {
+        CompositePropertyMatcher<TargetItem> cpm = new TargetItemCompositePropertyMatcher("foo");
+
+        assertFalse(cpm.matches(1));
+    }
+
+    @Test
+    public void matchesFailsWhenMatchesSafelyWithDescriptionFails() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(false);
+
+        assertFalse(cpm.matches(new TargetItem()));
+    }
+
+    @Test
+    public void matchesSucceedsWhenMatchesSafelyWithDescriptionSucceeds() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(true);
+
+        assertTrue(cpm.matches(new TargetItem()));
+    }
+
+    @Test
+    public void matchesCanSucceedForSubclassesOfExpectedType() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(true);
+
+        assertTrue(cpm.matches(new TargetItem() {
+            // Empty subclass
+        }));
+    }
+
+    @Test
+    public void mismatchesAreLoggedWhenNotSubordinateOfPathProvider() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(false);
+
+        cpm.matches(new TargetItem());
+
+        assertEquals(1, cpm.getLogMessages().size(), "log message count");
+
+        String expectedLogMessage = String.format("%s didn't match - %s",
+                cpm.getClass().getName(),
+                FailingTargetItemMatcher.MISMATCH_DESCRIPTION);
+
+        assertEquals(expectedLogMessage, cpm.getLogMessages().get(0), "log message content");
+    }
+
+    @Test
+    public void canOverrideDefaultLoggingDescriptionFactoryMethod() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(false);
+        cpm.setOverrideLoggingDescription("message: ");
+        cpm.matches(new TargetItem());
+
+        assertEquals(1, cpm.getLogMessages().size(), "log message count");
+
+        assertThat("log message content", cpm.getLogMessages().get(0), startsWith("message: "));
+    }
+
+    @Test
+    public void mismatchesAreNotLoggedWhenSubordinateOfPathProvider() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(false);
+        cpm.setPathProvider(new StubPathProvider());
+
+        cpm.matches(new TargetItem());
+
+        assertEquals(0, cpm.getLogMessages().size(), "log message count");
+    }
+
+    @Test
+    public void matchesAreNotLogged() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(true);
+
+        cpm.matches(new TargetItem());
+
+        assertEquals(0, cpm.getLogMessages().size(), "log message count");
+    }
+
+    @Test
+    public void getPathDelegatesToPathProvider() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(true);
+        cpm.setPathProvider(new StubPathProvider());
+
+        assertEquals(StubPathProvider.PATH, cpm.getPath());
+    }
+
+    @Test
+    public void getPathWithoutPathProviderReturnsEmptyString() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(true);
+
+        assertEquals("", cpm.getPath());
+    }
+
+    @Test
+    public void cannotConstructWithNullDescription() {
+        assertThrows(IllegalArgumentException.class, () -> new TargetItemCompositePropertyMatcher(null));
+    }
+
+    @Test
+    public void canDescribeWithoutPropertyMatchers() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+
+        cpm.describeTo(description);
+
+        assertEquals("foo that ()", description.toString());
+    }
+
+    @Test
+    public void canDescribeWithSinglePropertyMatcher() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("bar", "x"));
+        cpm.describeTo(description);
+
+        assertEquals("foo that (has bar (\"x\"))", description.toString());
+    }
+
+    @Test
+    public void canDescribeWithMultiplePropertyMatchers() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("bar1", "x"));
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("bar2", "y"));
+        cpm.describeTo(description);
+
+        assertEquals("foo that (has bar1 (\"x\") and has bar2 (\"y\"))", description.toString());
+    }
+
+    @Test
+    public void describeIgnoresUnspecifiedPropertyMatchers() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.registerPropertyMatcher(new PropertyMatcher("bar1", null));
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("bar2", "y"));
+        cpm.describeTo(description);
+
+        assertEquals("foo that (has bar2 (\"y\"))", description.toString());
+    }
+
+    @Test
+    public void canDescribeMismatchForNullItem() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setPathProvider(new StubPathProvider());
+
+        cpm.describeMismatch(null, description);
+
+        assertEquals(StubPathProvider.PATH + " was null", description.toString());
+    }
+
+    @Test
+    public void canDescribeMismatchForItemOfIncorrectType() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setPathProvider(new StubPathProvider());
+
+        cpm.describeMismatch("bar", description);
+
+        assertEquals(StubPathProvider.PATH + " was \"bar\"", description.toString());
+    }
+
+    @Test
+    public void canDescribeMismatchForItemOfCorrectType() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        cpm.setMatchesSafelyResult(false);
+
+        cpm.describeMismatch(new TargetItem(), description);
+
+        assertEquals(FailingTargetItemMatcher.MISMATCH_DESCRIPTION, description.toString());
+    }
+
+    @Test
+    public void assignsPathProviderToPropertyMatchersWithoutPathProvider() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        PropertyMatcher propertyMatcher = new PropertyMatcher("", null);
+
+        cpm.registerPropertyMatcher(propertyMatcher);
+
+        assertSame(cpm, propertyMatcher.getPathProvider());
+    }
+
+    @Test
+    public void doesNotOverridePathProviderOnPropertyMatchers() {
+        TargetItemCompositePropertyMatcher cpm = new TargetItemCompositePropertyMatcher("foo");
+        PathProvider originalPathProvider = new StubPathProvider();
+        PropertyMatcher propertyMatcher = new PropertyMatcher("", null, originalPathProvider);
+
+        cpm.registerPropertyMatcher(propertyMatcher);
+
+        assertSame(originalPathProvider, propertyMatcher.getPathProvider());
+    }
+
+    @Test
+    public void matchesSafelyInvokesPropertyMatchers() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+        final SpecifiedPropertyMatcher propertyMatcher2 = new SpecifiedPropertyMatcher("prop2", "y");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.registerPropertyMatcher(propertyMatcher2);
+
+        boolean result = cpm.matches("x");
+
+        assertFalse(result, "match should fail");
+
+        // Matchers are invoked once, since the mismatch is not described until asked for
+        assertEquals(1, propertyMatcher1.getInvocationCount());
+        assertEquals(1, propertyMatcher2.getInvocationCount());
+    }
+
+    @Test
+    public void matchesSafelyDoesNotInvokePropertyMatchersThatAreAlreadyApplied() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+        final SpecifiedPropertyMatcher propertyMatcher2 = new SpecifiedPropertyMatcher("prop2", "x");
+
+        // MatchesSafely invokes matches on propertyMatcher1, then delegates to superclass implementation.
+        // We expect propertyMatcher1 to not get invoked a second time in the superclass implementation.
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo") {
+            @Override
+            protected void matchesSafely(String item, MatchAccumulator matchAccumulator) {
+                matchAccumulator.matches(propertyMatcher1, item);
+                super.matchesSafely(item, matchAccumulator);
+            }
+        };
+
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.registerPropertyMatcher(propertyMatcher2);
+
+        cpm.matches("x");
+
+        assertEquals(1, propertyMatcher1.getInvocationCount());
+        assertEquals(1, propertyMatcher2.getInvocationCount());
+    }
+
+    @Test
+    public void matchesStopsAtFirstFailingPropertyMatcher() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+        final SpecifiedPropertyMatcher propertyMatcher2 = new SpecifiedPropertyMatcher("prop2", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.registerPropertyMatcher(propertyMatcher2);
+        cpm.setPathProvider(new StubPathProvider());
+
+        boolean result = cpm.matches("y");
+
+        assertFalse(result, "match should fail");
+        assertEquals(1, propertyMatcher1.getInvocationCount());
+        assertEquals(0, propertyMatcher2.getInvocationCount());
+    }
+
+    @Test
+    public void describeMismatchEvaluatesAllPropertyMatchers() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+        final SpecifiedPropertyMatcher propertyMatcher2 = new SpecifiedPropertyMatcher("prop2", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.registerPropertyMatcher(propertyMatcher2);
+
+        cpm.describeMismatch("y", description);
+
+        assertEquals(1, propertyMatcher1.getInvocationCount());
+        assertEquals(1, propertyMatcher2.getInvocationCount());
+        assertEquals("prop1 was \"y\" (expected \"x\")" + MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB
+                + "prop2 was \"y\" (expected \"x\")", description.toString());
+    }
+
+    @Test
+    public void describeMismatchAfterFailedMatchDoesNotEvaluateAppliedMatchersAgain() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+        final SpecifiedPropertyMatcher propertyMatcher2 = new SpecifiedPropertyMatcher("prop2", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.registerPropertyMatcher(propertyMatcher2);
+        cpm.setPathProvider(new StubPathProvider());
+
+        String item = "y";
+        assertFalse(cpm.matches(item));
+        cpm.describeMismatch(item, description);
+
+        assertEquals(1, propertyMatcher1.getInvocationCount());
+        assertEquals(1, propertyMatcher2.getInvocationCount());
+        assertEquals("provided path.prop1 was \"y\" (expected \"x\")" + MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB
+                + "provided path.prop2 was \"y\" (expected \"x\")", description.toString());
+    }
+
+    @Test
+    public void describeMismatchForDifferentItemEvaluatesMatchAgain() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.setPathProvider(new StubPathProvider());
+
+        assertFalse(cpm.matches("y"));
+        cpm.describeMismatch("z", description);
+
+        assertEquals(2, propertyMatcher1.getInvocationCount());
+        assertEquals("provided path.prop1 was \"z\" (expected \"x\")", description.toString());
+    }
+
+    @Test
+    public void describeMismatchAfterReconfigurationEvaluatesMatchAgain() {
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("prop1", cpm);
+        propertyMatcher.setMatcher(CoreMatchers.equalTo("x"));
+        cpm.setPathProvider(new StubPathProvider());
+
+        String item = "y";
+        assertFalse(cpm.matches(item));
+        propertyMatcher.setMatcher(CoreMatchers.equalTo("z"));
+        cpm.describeMismatch(item, description);
+
+        assertEquals("provided path.prop1 was \"y\" (expected \"z\")", description.toString());
+    }
+
+    @Test
+    public void describeMismatchAfterAnotherMatchEvaluatesMatchAgain() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        CompositePropertyMatcher<String> other = new CompositePropertyMatcher<String>("bar");
+        other.registerPropertyMatcher(new SpecifiedPropertyMatcher("prop1", "y"));
+
+        String item = "y";
+        assertFalse(cpm.matches(item));
+        assertTrue(other.matches(item));
+        cpm.describeMismatch(item, description);
+
+        assertEquals(2, propertyMatcher1.getInvocationCount());
+    }
+
+    @Test
+    public void doesNotDescribeMismatchWhenLoggingIsNotEnabled() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+
+        assertFalse(cpm.matches("y"));
+
+        assertEquals(0, propertyMatcher1.getDescribeMismatchCount());
+    }
+
+    @Test
+    public void mismatchesAreLoggedBySubclassesThatOverrideOnlyLogMismatch() {
+        final List<Object> loggedItems = new ArrayList<Object>();
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo") {
+            @Override
+            protected void logMismatch(Object item) {
+                loggedItems.add(item);
+            }
+        };
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("prop1", "x"));
+
+        assertFalse(cpm.matches("y"));
+
+        assertEquals(1, loggedItems.size(), "logged item count");
+    }
+
+    @Test
+    public void mismatchesAreLoggedBySubclassesThatOverrideOnlyWriteLog() {
+        final List<String> logMessages = new ArrayList<String>();
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo") {
+            @Override
+            protected void writeLog(String text) {
+                logMessages.add(text);
+            }
+        };
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("prop1", "x"));
+
+        assertFalse(cpm.matches("y"));
+
+        assertEquals(1, logMessages.size(), "log message count");
+    }
+
+    @Test
+    public void matchesEvaluatesCheapPropertiesFirstAndDoesNotReadExpensiveOnesOnceDecided() {
+        CompositePropertyMatcher<CostedItem> cpm = new CompositePropertyMatcher<CostedItem>("foo");
+        new ReflectingPropertyMatcher<String>("expensive", cpm, null, PropertyAccessorCache.getDefault(),
+                PropertyCost.EXPENSIVE).setMatcher(CoreMatchers.equalTo("x"));
+        new ReflectingPropertyMatcher<String>("cheap", cpm).setMatcher(CoreMatchers.equalTo("y"));
+        cpm.setPathProvider(new StubPathProvider());
+        CostedItem item = new CostedItem();
+
+        assertFalse(cpm.matches(item));
+        assertEquals(0, item.expensiveReadCount);
+
+        cpm.describeMismatch(item, description);
+        assertEquals("provided path.cheap was \"x\" (expected \"y\")", description.toString());
+        assertEquals(1, item.expensiveReadCount);
+    }
+
+    @Test
+    public void matchesIsRepeatableWhenAccumulatorIsReused() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.setPathProvider(new StubPathProvider());
+
+        assertFalse(cpm.matches("y"));
+        assertTrue(cpm.matches("x"));
+        assertFalse(cpm.matches("y"));
+        assertTrue(cpm.matches("x"));
+
+        assertEquals(4, propertyMatcher1.getInvocationCount());
+    }
+
+    @Test
+    public void cannotRegisterPropertyMatcherWhenFrozen() {
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo").freeze();
+
+        Exception e = assertThrows(IllegalStateException.class,
+                () -> cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("prop1", "x")));
+        assertEquals("Cannot register property matcher prop1 with a frozen matcher", e.getMessage());
+    }
+
+    @Test
+    public void freezeFreezesPropertyMatchersAndNestedMatchers() {
+        CompositePropertyMatcher<String> nested = new CompositePropertyMatcher<String>("bar");
+        PropertyMatcher<String> nestedPropertyMatcher = new SpecifiedPropertyMatcher("prop2", "x");
+        nested.registerPropertyMatcher(nestedPropertyMatcher);
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("prop1", cpm);
+        propertyMatcher.setMatcher(nested);
+
+        assertSame(cpm, cpm.freeze());
+
+        assertTrue(cpm.isFrozen());
+        assertTrue(propertyMatcher.isFrozen());
+        assertTrue(nested.isFrozen());
+        assertTrue(nestedPropertyMatcher.isFrozen());
+        assertEquals("prop1.prop2", nestedPropertyMatcher.getPath());
+
+        Exception e = assertThrows(IllegalStateException.class, () -> nestedPropertyMatcher.setMatcher(null));
+        assertEquals("Property matcher for prop2 is frozen", e.getMessage());
+        e = assertThrows(IllegalStateException.class, () -> nested.setPathProvider(new StubPathProvider()));
+        assertEquals("Cannot change the path of a frozen matcher", e.getMessage());
+    }
+
+    @Test
+    public void freezeFreezesMatchersNestedInHamcrestMatchers() {
+        CompositePropertyMatcher<String> inIs = new CompositePropertyMatcher<String>("bar");
+        CompositePropertyMatcher<String> inHasItem = new CompositePropertyMatcher<String>("baz");
+        CompositePropertyMatcher<String> inContains = new CompositePropertyMatcher<String>("qux");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        new PropertyMatcher<String>("prop1", cpm).setMatcher(CoreMatchers.is(inIs));
+        new PropertyMatcher<Iterable<? super String>>("prop2", cpm).setMatcher(
+                CoreMatchers.not(CoreMatchers.hasItem(inHasItem)));
+        new PropertyMatcher<Iterable<? extends String>>("prop3", cpm).setMatcher(
+                CoreMatchers.anyOf(Matchers.contains(inContains), CoreMatchers.nullValue()));
+
+        cpm.freeze();
+
+        assertTrue(inIs.isFrozen());
+        assertTrue(inHasItem.isFrozen());
+        assertTrue(inContains.isFrozen());
+    }
+
+    @Test
+    public void freezeDoesNotLookIntoValuesGivenToHamcrestMatchers() {
+        CompositePropertyMatcher<String> value = new CompositePropertyMatcher<String>("bar");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        new PropertyMatcher<Object>("prop1", cpm).setMatcher(Matchers.isIn(Collections.singletonList(value)));
+
+        cpm.freeze();
+
+        assertFalse(value.isFrozen());
+    }
+
+    @Test
+    public void frozenMatcherAppliesOnlySpecifiedPropertyMatchers() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        PropertyMatcher<String> unspecified = new PropertyMatcher<String>("prop2", cpm) {
+            @Override
+            public boolean matches(Object item) {
+                throw new AssertionError("unspecified property matcher should not be applied");
+            }
+        };
+        cpm.setPathProvider(new StubPathProvider());
+        cpm.freeze();
+
+        assertTrue(cpm.matches("x"));
+        assertFalse(cpm.matches("y"));
+        assertFalse(unspecified.isSpecified());
+    }
+
+    @Test
+    public void frozenMatcherDescribesMismatch() {
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("prop1", "x"));
+        cpm.freeze();
+
+        cpm.describeMismatch("y", description);
+
+        assertEquals("prop1 was \"y\" (expected \"x\")", description.toString());
+    }
+
+    @Test
+    public void evaluateReturnsMatchedResultWhenItemMatches() {
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(new SpecifiedPropertyMatcher("prop1", "x"));
+
+        MatchResult result = cpm.evaluate("x");
+
+        assertTrue(result.matches());
+        assertSame(MatchResult.matched(), result);
+    }
+
+    @Test
+    public void evaluateReturnsResultThatDescribesMismatch() {
+        final SpecifiedPropertyMatcher propertyMatcher1 = new SpecifiedPropertyMatcher("prop1", "x");
+        final SpecifiedPropertyMatcher propertyMatcher2 = new SpecifiedPropertyMatcher("prop2", "y");
+
+        CompositePropertyMatcher<String> cpm = new CompositePropertyMatcher<String>("foo");
+        cpm.registerPropertyMatcher(propertyMatcher1);
+        cpm.registerPropertyMatcher(propertyMatcher2);
+
+        MatchResult result = cpm.evaluate("y");
+        assertFalse(result.matches());
+        assertEquals(0, propertyMatcher2.getInvocationCount());
+
+        result.describeMismatch(description);
+        result.describeMismatch(new StringDescription());
+
+        assertEquals(1, propertyMatcher1.getInvocationCount());
+        assertEquals(1, propertyMatcher2.getInvocationCount());
+        assertEquals("prop1 was \"y\" (expected \"x\")", description.toString());
+    }
+
+    @Test
+    public void evaluateReturnsMismatchWhenItemIsNull() {
+        CompositePropertyMatcher<TargetItem> cpm = new TargetItemCompositePropertyMatcher("foo");
+
+        assertFalse(cpm.evaluate(null).matches());
+    }
+
+    private static class TargetItem {
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static class CostedItem {
+        private int expensiveReadCount;
+
+        public String getCheap() {
+            return "x";
+        }
+
+        public String getExpensive() {
+            expensiveReadCount++;
+            return "x";
+        }
+    }
+
+    private static class TargetItemCompositePropertyMatcher extends CompositePropertyMatcher<TargetItem> {
+        private List<String> logMessages = new ArrayList<String>();
+        private Boolean matchesSafelyResult = null;
+        private String overrideLoggingDescription;
+
+        private TargetItemCompositePropertyMatcher(String matchedObjectDescription) {
+            super(matchedObjectDescription);
+        }
+
+        @Override
+        protected void matchesSafely(TargetItem item, MatchAccumulator matchAccumulator) {
+            if (matchesSafelyResult == null) {
+                throw new IllegalStateException("No result specified for matchesSafely");
+            }
+
+            if (!matchesSafelyResult) {
+                matchAccumulator.matches(new FailingTargetItemMatcher(), item);
+            }
+        }
+
+        public void setMatchesSafelyResult(boolean matchesSafelyResult) {
+            this.matchesSafelyResult = matchesSafelyResult;
+        }
+
+        @Override
+        protected Description createLogMismatchDescription() {
+            if (overrideLoggingDescription == null) {
+                return super.createLogMismatchDescription();
+            } else {
+                return new StringDescription().appendText(overrideLoggingDescription);
+            }
+        }
+
+        @Override
+        protected boolean isLogEnabled() {
+            return true;
+        }
+
+        @Override
+        protected void writeLog(String text) {
+            logMessages.add(text);
+        }
+
+        public List<String> getLogMessages() {
+            return logMessages;
+        }
+
+        public void setOverrideLoggingDescription(String loggingDescription) {
+            this.overrideLoggingDescription = loggingDescription;
+        }
+    }
+
+    private static class FailingTargetItemMatcher extends DiagnosingMatcher<TargetItem> {
+        public static final String MISMATCH_DESCRIPTION = "composite property matcher mismatch description";
+
+        @Override
+        protected boolean matches(Object item, Description mismatchDescription) {
+            mismatchDescription.appendText(MISMATCH_DESCRIPTION);
+            return false;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("to not match");
+        }
+    }
+
+    private static class StubPathProvider implements PathProvider {
+        private static final String PATH = "provided path";
+
+        @Override
+        public String getPath() {
+            return PATH;
+        }
+    }
+
+    private class SpecifiedPropertyMatcher extends PropertyMatcher<String> {
+        private int invocationCount;
+        private int describeMismatchCount;
+
+        public SpecifiedPropertyMatcher(String propertyName, String expected) {
+            super(propertyName, null);
+            setMatcher(CoreMatchers.equalTo(expected));
+        }
+
+        @Override
+        public boolean matches(Object item) {
+            invocationCount++;
+            return super.matches(item);
+        }
+
+        @Override
+        public void describeMismatch(Object item, Description mismatchDescription) {
+            describeMismatchCount++;
+            super.describeMismatch(item, mismatchDescription);
+        }
+
+        public int getInvocationCount() {
+            return invocationCount;
+        }
+
+        public int getDescribeMismatchCount() {
+            return describeMismatchCount;
+        }
+    }
+}
+
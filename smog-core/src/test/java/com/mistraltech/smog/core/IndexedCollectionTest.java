@@ -0,0 +1,149 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ItemFixtures.CountingItemMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Item;
+import com.mistraltech.smog.core.ItemFixtures.ItemMatcher;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.hamcrest.number.OrderingComparison.greaterThanOrEqualTo;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IndexedCollectionTest {
+    private final List<Item> items = new ArrayList<Item>();
+
+    {
+        String[] names = {"ann", "bob", "cat", "dan", "eve"};
+        for (int i = 0; i < 50; i++) {
+            items.add(new Item(names[i % names.length], i % 20, null, i % 7 == 0 ? null : "t" + i % 3));
+        }
+    }
+
+    private final IndexedCollection<Item> indexed = IndexedCollection.of(items)
+            .withHashIndex("name")
+            .withRangeIndex("age")
+            .withHashIndex("tag");
+
+    @Test
+    public void findsSameItemsAsLinearScanForEqualityQueries() {
+        assertFindsSameAsScan(new ItemMatcher().hasName(equalTo("bob")));
+        assertFindsSameAsScan(new ItemMatcher().hasName(is("cat")).hasAge(equalTo(7)));
+        assertFindsSameAsScan(new ItemMatcher().hasTag(equalTo(null)));
+        assertFindsSameAsScan(new ItemMatcher().hasName(equalTo("zed")));
+    }
+
+    @Test
+    public void findsSameItemsAsLinearScanForRangeQueries() {
+        assertFindsSameAsScan(new ItemMatcher().hasAge(greaterThan(15)));
+        assertFindsSameAsScan(new ItemMatcher().hasAge(greaterThanOrEqualTo(15)));
+        assertFindsSameAsScan(new ItemMatcher().hasAge(lessThan(3)));
+        assertFindsSameAsScan(new ItemMatcher().hasAge(lessThanOrEqualTo(3)));
+        assertFindsSameAsScan(new ItemMatcher().hasAge(allOf(greaterThan(4), lessThanOrEqualTo(9))));
+        assertFindsSameAsScan(new ItemMatcher().hasAge(allOf(greaterThan(9), lessThan(4))));
+        assertFindsSameAsScan(new ItemMatcher().hasName(equalTo("dan")).hasAge(greaterThan(10)));
+    }
+
+    @Test
+    public void findsSameItemsAsLinearScanForUnindexedQueries() {
+        assertFindsSameAsScan(new ItemMatcher().hasName(startsWith("e")));
+        assertFindsSameAsScan(new ItemMatcher().hasName(startsWith("e")).hasAge(lessThan(10)));
+        assertFindsSameAsScan(new ItemMatcher());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void findsSameItemsAsLinearScanWhenBoundsCannotBeCompared() {
+        // The bounds of a mixed-type range cannot be combined, but the first is never passed, so none is compared
+        Matcher<Integer> belowLong = (Matcher) lessThan(2L);
+        assertFindsSameAsScan(new ItemMatcher().hasAge(allOf(greaterThan(100), belowLong)));
+    }
+
+    @Test
+    public void ignoresIndexForPropertyMatchedWithValueSuppliedByMatcher() {
+        Matcher<Item> matcher = new NextYearItemMatcher().hasAge(equalTo(20));
+
+        assertFalse(scan(matcher).isEmpty());
+        assertFindsSameAsScan(matcher);
+    }
+
+    @Test
+    public void narrowsCandidatesUsingIndexes() {
+        CountingItemMatcher matcher = new CountingItemMatcher();
+        matcher.hasName(equalTo("bob")).hasAge(greaterThan(10));
+
+        List<Item> found = indexed.findAll(matcher);
+
+        // Only the four items that are both named bob and older than 10 are matched in full
+        assertEquals(4, matcher.count);
+        assertEquals(scan(matcher), found);
+    }
+
+    @Test
+    public void findsFirstMatchInOriginalOrder() {
+        Matcher<Item> matcher = new ItemMatcher().hasAge(greaterThan(17));
+
+        assertEquals(scan(matcher).get(0), indexed.findFirst(matcher).get());
+        assertFalse(indexed.findFirst(new ItemMatcher().hasAge(greaterThan(100))).isPresent());
+    }
+
+    @Test
+    public void cannotRangeIndexPropertyThatIsNotComparable() {
+        IndexedCollection<Holder> holders = IndexedCollection.of(Collections.singletonList(new Holder()));
+
+        Exception e = assertThrows(IllegalArgumentException.class, () -> holders.withRangeIndex("value"));
+        assertEquals("Property value is not Comparable: " + Holder.VALUE, e.getMessage());
+    }
+
+    private void assertFindsSameAsScan(Matcher<Item> matcher) {
+        assertEquals(scan(matcher), indexed.findAll(matcher));
+    }
+
+    private List<Item> scan(Matcher<Item> matcher) {
+        List<Item> found = new ArrayList<Item>();
+        for (Item item : items) {
+            if (matcher.matches(item)) {
+                found.add(item);
+            }
+        }
+        return found;
+    }
+
+    public static class Holder {
+        static final Object VALUE = new Object();
+
+        public Object getValue() {
+            return VALUE;
+        }
+    }
+
+    private static class NextYearItemMatcher extends CompositePropertyMatcher<Item> {
+        private final PropertyMatcher<Integer> ageMatcher = new PropertyMatcher<Integer>("age", this);
+
+        NextYearItemMatcher() {
+            super("an Item next year");
+        }
+
+        NextYearItemMatcher hasAge(Matcher<? super Integer> matcher) {
+            ageMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        @Override
+        protected void matchesSafely(Item item, MatchAccumulator matchAccumulator) {
+            matchAccumulator.matches(ageMatcher, item.getAge() + 1);
+        }
+    }
+}
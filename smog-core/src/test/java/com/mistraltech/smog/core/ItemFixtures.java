@@ -0,0 +1,181 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.Matcher;
+
+/**
+ * Beans and matchers shared by the tests of the indexing, dispatching and compiling matcher engines.
+ */
+final class ItemFixtures {
+    private ItemFixtures() {
+    }
+
+    public static class Item {
+        private final String name;
+        private final int age;
+        private final Home home;
+        private final String tag;
+        int nameReads;
+
+        Item(String name, int age) {
+            this(name, age, null, null);
+        }
+
+        Item(String name, int age, Home home) {
+            this(name, age, home, null);
+        }
+
+        Item(String name, int age, Home home, String tag) {
+            this.name = name;
+            this.age = age;
+            this.home = home;
+            this.tag = tag;
+        }
+
+        public String getName() {
+            nameReads++;
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public long getId() {
+            return age;
+        }
+
+        public double getWeight() {
+            return age == 4 ? Double.NaN : age == 1 ? -0.0 : age / 2.0;
+        }
+
+        public Home getHome() {
+            return home;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        @Override
+        public String toString() {
+            return name + "/" + age + "/" + home + (tag != null ? "/" + tag : "");
+        }
+    }
+
+    public static class Home {
+        private final String town;
+        int townReads;
+
+        Home(String town) {
+            this.town = town;
+        }
+
+        public String getTown() {
+            townReads++;
+            return town;
+        }
+
+        @Override
+        public String toString() {
+            return town;
+        }
+    }
+
+    static class ItemMatcher extends CompositePropertyMatcher<Item> {
+        final PropertyMatcher<String> nameMatcher = new ReflectingPropertyMatcher<String>("name", this);
+        final PropertyMatcher<Integer> ageMatcher = new ReflectingPropertyMatcher<Integer>("age", this);
+        final PropertyMatcher<Long> idMatcher = new ReflectingPropertyMatcher<Long>("id", this);
+        final PropertyMatcher<Double> weightMatcher = new ReflectingPropertyMatcher<Double>("weight", this);
+        final PropertyMatcher<Home> homeMatcher = new ReflectingPropertyMatcher<Home>("home", this);
+        final PropertyMatcher<String> tagMatcher = new ReflectingPropertyMatcher<String>("tag", this);
+
+        ItemMatcher() {
+            super("an Item");
+        }
+
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return true;
+        }
+
+        ItemMatcher hasName(Matcher<? super String> matcher) {
+            nameMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        ItemMatcher hasAge(Matcher<? super Integer> matcher) {
+            ageMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        ItemMatcher hasId(Matcher<? super Long> matcher) {
+            idMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        ItemMatcher hasWeight(Matcher<? super Double> matcher) {
+            weightMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        ItemMatcher hasHome(Matcher<? super Home> matcher) {
+            homeMatcher.setMatcher(matcher);
+            return this;
+        }
+
+        ItemMatcher hasTag(Matcher<? super String> matcher) {
+            tagMatcher.setMatcher(matcher);
+            return this;
+        }
+    }
+
+    /**
+     * An item matcher that applies its property matchers through the subclass hook, so that it cannot be
+     * compiled, and counts the items it is applied to.
+     */
+    static class CountingItemMatcher extends ItemMatcher {
+        int count;
+
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return false;
+        }
+
+        @Override
+        protected void matchesSafely(Item item, MatchAccumulator matchAccumulator) {
+            count++;
+        }
+    }
+
+    static class HomeMatcher extends CompositePropertyMatcher<Home> {
+        final PropertyMatcher<String> townMatcher = new ReflectingPropertyMatcher<String>("town", this);
+
+        HomeMatcher() {
+            super("a Home");
+        }
+
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return true;
+        }
+
+        HomeMatcher hasTown(Matcher<? super String> matcher) {
+            townMatcher.setMatcher(matcher);
+            return this;
+        }
+    }
+
+    /**
+     * A home matcher that applies its property matchers through the subclass hook, so that it cannot be compiled.
+     */
+    static class HookedHomeMatcher extends HomeMatcher {
+        @Override
+        protected boolean appliesPropertyMatchersOnly() {
+            return false;
+        }
+
+        @Override
+        protected void matchesSafely(Home item, MatchAccumulator matchAccumulator) {
+        }
+    }
+}
@@ -8,6 +8,7 @@ import ch.qos.logback.core.Appender;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.hamcrest.Description;
 import org.mockito.ArgumentCaptor;
 import org.slf4j.LoggerFactory;
 
@@ -15,7 +16,9 @@ import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,6 +56,32 @@ public class LoggingCompositePropertyMatcherTest {
         assertEquals(Level.DEBUG, loggingEventCaptor.getValue().getLevel(), "level");
     }
 
+    @Test
+    public void mismatchIsNotDescribedWhenDebugIsDisabled() {
+        CompositePropertyMatcher<Item> cpm = new LoggingCompositePropertyMatcher<Item>("parent");
+        addPropertyMatcher(cpm, "val1", "foo");
+        final int[] describeCount = {0};
+        PropertyMatcher<String> countingMatcher = new ReflectingPropertyMatcher<String>("val2", cpm) {
+            @Override
+            public void describeMismatch(Object item, Description mismatchDescription) {
+                describeCount[0]++;
+                super.describeMismatch(item, mismatchDescription);
+            }
+        };
+        countingMatcher.setMatcher(equalTo("foo"));
+
+        Level originalLevel = root.getLevel();
+        root.setLevel(Level.INFO);
+        try {
+            cpm.matches(new Item("bar"));
+        } finally {
+            root.setLevel(originalLevel);
+        }
+
+        verify(mockAppender, never()).doAppend(any());
+        assertEquals(0, describeCount[0]);
+    }
+
     private void addPropertyMatcher(CompositePropertyMatcher<Item> cpm, String propertyName, String value) {
         PropertyMatcher<String> propertyMatcher = new ReflectingPropertyMatcher<String>(propertyName, cpm);
         propertyMatcher.setMatcher(equalTo(value));
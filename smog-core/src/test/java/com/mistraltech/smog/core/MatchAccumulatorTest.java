@@ -0,0 +1,272 @@
+package com.mistraltech.smog.core;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.any;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchAccumulatorTest {
+    private StringDescription mismatchDescription;
+
+    @BeforeEach
+    public void setUp() {
+        mismatchDescription = new StringDescription();
+    }
+
+    @Test
+    public void givesSuccessResultWhenNoMatchesAreProcessed() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        assertTrue(matchAccumulator.result());
+    }
+
+    @Test
+    public void givesFailureResultWhenAnyMatchFails() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        matchAccumulator.matches(equalTo("A"), "A");
+        matchAccumulator.matches(equalTo("B"), "-");
+        matchAccumulator.matches(equalTo("C"), "C");
+
+        assertFalse(matchAccumulator.result());
+    }
+
+    @Test
+    public void givesSuccessResultWhenAllMatchesSucceed() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        matchAccumulator.matches(equalTo("A"), "A");
+        matchAccumulator.matches(equalTo("B"), "B");
+        matchAccumulator.matches(equalTo("C"), "C");
+
+        assertTrue(matchAccumulator.result());
+    }
+
+    @Test
+    public void doesNotUpdateMismatchDescriptionWhenMatchesSucceed() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        matchAccumulator.matches(equalTo("A"), "A");
+        matchAccumulator.matches(equalTo("B"), "B");
+        matchAccumulator.matches(equalTo("C"), "C");
+
+        assertEquals("", mismatchDescription.toString());
+    }
+
+    @Test
+    public void updatesMismatchDescriptionForFailingMatches() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        matchAccumulator.matches(equalTo("A"), "a"); // mismatch
+        matchAccumulator.matches(equalTo("B"), "B");
+        matchAccumulator.matches(equalTo("C"), "c"); // mismatch
+        matchAccumulator.matches(equalTo("D"), "d"); // mismatch
+        matchAccumulator.matches(equalTo("E"), "E");
+
+        String expectedMismatchDescription = "was \"a\""
+                + MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB
+                + "was \"c\""
+                + MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB
+                + "was \"d\"";
+
+        assertEquals(expectedMismatchDescription, mismatchDescription.toString());
+    }
+
+    @Test
+    public void canDetermineIfMatcherHasBeenApplied() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        Matcher<Object> matcher1 = any(Object.class);
+        Matcher<Object> matcher2 = any(Object.class);
+        Matcher<Object> matcher3 = any(Object.class);
+
+        Object item = new Object();
+        matchAccumulator.matches(matcher1, item);
+        matchAccumulator.matches(matcher2, item);
+
+        assertTrue(matchAccumulator.hasBeenApplied(matcher1));
+        assertTrue(matchAccumulator.hasBeenApplied(matcher2));
+        assertFalse(matchAccumulator.hasBeenApplied(matcher3));
+    }
+
+    @Test
+    public void isNotDecidedWhenMismatchDescriptionIsRequested() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription);
+
+        matchAccumulator.matches(equalTo("A"), "a"); // mismatch
+
+        assertFalse(matchAccumulator.isDecided());
+    }
+
+    @Test
+    public void isDecidedAfterFailureWhenNoMismatchDescriptionIsRequested() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+
+        matchAccumulator.matches(equalTo("A"), "A");
+        assertFalse(matchAccumulator.isDecided());
+
+        matchAccumulator.matches(equalTo("B"), "b"); // mismatch
+        assertTrue(matchAccumulator.isDecided());
+    }
+
+    @Test
+    public void doesNotInvokeMatchersOnceDecided() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+        Matcher<String> matcherAfterFailure = new CountingMatcher();
+
+        matchAccumulator.matches(equalTo("A"), "a"); // mismatch
+        matchAccumulator.matches(matcherAfterFailure, "B");
+
+        assertEquals(0, ((CountingMatcher) matcherAfterFailure).getInvocationCount());
+        assertTrue(matchAccumulator.hasBeenApplied(matcherAfterFailure));
+        assertFalse(matchAccumulator.result());
+    }
+
+    @Test
+    public void readsPropertyOnlyWhenMatcherIsInvoked() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+        final int[] readCount = {0};
+
+        matchAccumulator.matches(equalTo(1), "a", s -> ++readCount[0]);
+        matchAccumulator.matches(equalTo(0), "b", s -> ++readCount[0]); // mismatch
+        matchAccumulator.matches(equalTo(3), "c", s -> ++readCount[0]);
+
+        assertEquals(2, readCount[0]);
+        assertFalse(matchAccumulator.result());
+    }
+
+    @Test
+    public void readsPropertyOfRegisteredMatcherOnceThroughPropertyReader() {
+        PropertyMatcher<Integer> registeredMatcher = new PropertyMatcher<Integer>("count", null);
+        registeredMatcher.setRegistrySlot(0);
+        registeredMatcher.setMatcher(equalTo(1));
+        final int[] readCount = {0};
+
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE,
+                Collections.<PropertyMatcher<?>>singletonList(registeredMatcher));
+        matchAccumulator.matches(registeredMatcher, "a", s -> ++readCount[0]);
+        matchAccumulator.matches(registeredMatcher, "a", s -> ++readCount[0]);
+
+        assertEquals(1, readCount[0]);
+        assertTrue(matchAccumulator.result());
+    }
+
+    @Test
+    public void reflectingMatcherTakesValueFromPropertyReader() {
+        ReflectingPropertyMatcher<Integer> reflectingMatcher = new ReflectingPropertyMatcher<Integer>("length", null);
+        reflectingMatcher.setMatcher(equalTo(3));
+
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+        matchAccumulator.matches(reflectingMatcher, "abc", String::length);
+
+        assertTrue(matchAccumulator.result());
+    }
+
+    @Test
+    public void matchResultDescribesFailedAndUnappliedMatchers() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+
+        matchAccumulator.matches(equalTo("A"), "a");
+        matchAccumulator.matches(equalTo("B"), "B");
+        matchAccumulator.matches(equalTo("C"), "c", String::toString);
+
+        MatchResult result = matchAccumulator.getMatchResult("item");
+        result.describeMismatch(mismatchDescription);
+
+        assertFalse(result.matches());
+        assertEquals("was \"a\"" + MatchAccumulator.MISMATCH_CONJUNCTIVE_ADVERB + "was \"c\"",
+                mismatchDescription.toString());
+    }
+
+    @Test
+    public void matchResultIsMatchedWhenAllMatchersSucceed() {
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE);
+
+        matchAccumulator.matches(equalTo("A"), "A");
+
+        assertTrue(matchAccumulator.getMatchResult("item").matches());
+    }
+
+    @Test
+    public void tracksRegisteredPropertyMatchersBySlot() {
+        List<PropertyMatcher<?>> registeredMatchers = new ArrayList<PropertyMatcher<?>>();
+        for (int i = 0; i < 130; i++) {
+            PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("p" + i, null);
+            propertyMatcher.setRegistrySlot(i);
+            registeredMatchers.add(propertyMatcher);
+        }
+
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription, registeredMatchers);
+        matchAccumulator.matches(registeredMatchers.get(3), "a");
+        matchAccumulator.matches(registeredMatchers.get(64), "a");
+        matchAccumulator.matches(registeredMatchers.get(129), "a");
+
+        for (int i = 0; i < registeredMatchers.size(); i++) {
+            assertEquals(i == 3 || i == 64 || i == 129, matchAccumulator.hasBeenApplied(registeredMatchers.get(i)),
+                    "slot " + i);
+        }
+    }
+
+    @Test
+    public void tracksPropertyMatchersRegisteredElsewhereByIdentity() {
+        PropertyMatcher<String> registeredMatcher = new PropertyMatcher<String>("registered", null);
+        registeredMatcher.setRegistrySlot(0);
+        PropertyMatcher<String> otherMatcher = new PropertyMatcher<String>("other", null);
+        otherMatcher.setRegistrySlot(0);
+
+        MatchAccumulator matchAccumulator = new MatchAccumulator(mismatchDescription,
+                Collections.<PropertyMatcher<?>>singletonList(registeredMatcher));
+        matchAccumulator.matches(otherMatcher, "a");
+
+        assertFalse(matchAccumulator.hasBeenApplied(registeredMatcher));
+        assertTrue(matchAccumulator.hasBeenApplied(otherMatcher));
+    }
+
+    @Test
+    public void resetClearsAppliedMatchersAndResult() {
+        PropertyMatcher<String> registeredMatcher = new PropertyMatcher<String>("registered", null);
+        registeredMatcher.setRegistrySlot(0);
+        registeredMatcher.setMatcher(equalTo("b"));
+        Matcher<String> otherMatcher = equalTo("b");
+
+        MatchAccumulator matchAccumulator = new MatchAccumulator(Description.NONE,
+                Collections.<PropertyMatcher<?>>singletonList(registeredMatcher));
+        matchAccumulator.matches(registeredMatcher, "a").matches(otherMatcher, "a");
+        matchAccumulator.reset(Description.NONE);
+
+        assertTrue(matchAccumulator.result());
+        assertFalse(matchAccumulator.hasBeenApplied(registeredMatcher));
+        assertFalse(matchAccumulator.hasBeenApplied(otherMatcher));
+    }
+
+    private static class CountingMatcher extends BaseMatcher<String> {
+        private int invocationCount;
+
+        @Override
+        public boolean matches(Object item) {
+            invocationCount++;
+            return true;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("anything");
+        }
+
+        public int getInvocationCount() {
+            return invocationCount;
+        }
+    }
+}
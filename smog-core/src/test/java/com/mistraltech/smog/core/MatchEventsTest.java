@@ -0,0 +1,92 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import com.mistraltech.smog.examples.simple.matcher.PersonMatcher;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchEventsTest {
+    private final Person bob = aPerson()
+            .withName("bob")
+            .withAge(34)
+            .withAddress(new Address(21, new PostCode("out", "in")))
+            .build();
+
+    @Test
+    public void isNotRecordingWithoutRunningRecording() {
+        assertFalse(MatchEvents.isRecording());
+    }
+
+    @Test
+    public void emitsEventsWhileRecording() throws IOException {
+        Matcher<Person> matcher = aPersonThat().hasName("bob").hasAddress(nullValue());
+        Path file = Files.createTempFile("smog", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.mistraltech.smog.CompositeMatch");
+            recording.enable("com.mistraltech.smog.PropertyRead");
+            recording.enable("com.mistraltech.smog.MismatchDescription");
+            recording.start();
+
+            assertTrue(MatchEvents.isRecording());
+            assertFalse(matcher.matches(bob));
+            matcher.describeMismatch(bob, new StringDescription());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertFalse(MatchEvents.isRecording());
+
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            RecordedEvent compositeMatch = single(events, "com.mistraltech.smog.CompositeMatch");
+            assertEquals(PersonMatcher.class.getName(), compositeMatch.getClass("matcherClass").getName());
+            assertEquals("", compositeMatch.getString("path"));
+            assertFalse(compositeMatch.getBoolean("matched"));
+
+            RecordedEvent propertyRead = filter(events, "com.mistraltech.smog.PropertyRead").get(0);
+            assertEquals(Person.class.getName(), propertyRead.getClass("beanClass").getName());
+            assertEquals("address", propertyRead.getString("path"));
+            assertTrue(propertyRead.getBoolean("succeeded"));
+
+            RecordedEvent mismatchDescription = single(events, "com.mistraltech.smog.MismatchDescription");
+            assertEquals(PersonMatcher.class.getName(), mismatchDescription.getClass("matcherClass").getName());
+            assertFalse(mismatchDescription.getBoolean("matched"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = filter(events, name);
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private static List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,139 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import com.mistraltech.smog.examples.simple.matcher.PersonMatcher;
+import com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher.aPostCodeThat;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchStatisticsTest {
+    private final Person bob = aPerson()
+            .withName("bob")
+            .withAge(34)
+            .withAddress(new Address(21, new PostCode("out", "in")))
+            .build();
+
+    private MatchStatistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = new MatchStatistics();
+        MatchListeners.install(statistics);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        MatchListeners.uninstall();
+    }
+
+    @Test
+    public void countsEvaluationsAndFailuresPerMatcherClassAndPath() {
+        Matcher<Person> matcher = aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat().hasPostCode(aPostCodeThat().hasInner("up")));
+
+        matcher.matches(bob);
+        matcher.matches(bob);
+
+        MatchStatistics.Counter personCounter = statistics.getCounter(PersonMatcher.class, PropertyPath.ROOT);
+        assertEquals(2, personCounter.getEvaluations());
+        assertEquals(2, personCounter.getFailures());
+
+        MatchStatistics.Counter postCodeCounter = statistics.getCounter(PostCodeMatcher.class,
+                PropertyPath.ROOT.property("address").property("postCode"));
+        assertEquals(2, postCodeCounter.getEvaluations());
+        assertEquals(2, postCodeCounter.getFailures());
+
+        MatchStatistics.Counter nameCounter = statistics.getCounter(PersonMatcher.class,
+                PropertyPath.ROOT.property("name"));
+        assertEquals(2, nameCounter.getEvaluations());
+        assertEquals(0, nameCounter.getFailures());
+        assertTrue(nameCounter.getTotalNanos() >= 0);
+
+        MatchStatistics.Counter addressCounter = statistics.getCounter(PersonMatcher.class,
+                PropertyPath.ROOT.property("address"));
+        assertEquals(2, addressCounter.getFailures());
+
+        MatchStatistics.Counter innerCounter = statistics.getCounter(PostCodeMatcher.class,
+                PropertyPath.ROOT.property("address").property("postCode").property("inner"));
+        assertEquals(2, innerCounter.getFailures());
+    }
+
+    @Test
+    public void doesNotCountDescribingMismatch() {
+        Matcher<Person> matcher = aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat().hasPostCode(aPostCodeThat().hasInner("up")))
+                .freeze();
+
+        assertFalse(matcher.matches(bob));
+        matcher.describeMismatch(bob, new StringDescription());
+
+        assertEquals(1, statistics.getCounter(PersonMatcher.class, PropertyPath.ROOT).getEvaluations());
+        assertEquals(1, statistics.getCounter(PersonMatcher.class, PropertyPath.ROOT.property("name")).getEvaluations());
+        assertEquals(1, statistics.getCounter(PostCodeMatcher.class,
+                PropertyPath.ROOT.property("address").property("postCode")).getEvaluations());
+    }
+
+    @Test
+    public void countsMatchAfterDescribingMismatch() {
+        Matcher<Person> matcher = aPersonThat().hasName("dennis");
+
+        assertFalse(matcher.matches(bob));
+        matcher.describeMismatch(bob, new StringDescription());
+        assertFalse(matcher.matches(bob));
+
+        assertEquals(2, statistics.getCounter(PersonMatcher.class, PropertyPath.ROOT).getEvaluations());
+    }
+
+    @Test
+    public void countsPropertyMatcherWithoutPathProviderByName() {
+        PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("name", null);
+        propertyMatcher.setMatcher(equalTo("bob"));
+
+        propertyMatcher.matches("dennis");
+
+        assertEquals(1, statistics.getCounter(PropertyMatcher.class, PropertyPath.ROOT.property("name")).getFailures());
+    }
+
+    @Test
+    public void recordsNothingWhenUninstalled() {
+        MatchListeners.uninstall();
+
+        aPersonThat().hasName("bob").matches(bob);
+
+        assertTrue(statistics.getCounters().isEmpty());
+        assertNull(statistics.getCounter(PersonMatcher.class, PropertyPath.ROOT));
+    }
+
+    @Test
+    public void resetDiscardsCounters() {
+        aPersonThat().hasName("bob").matches(bob);
+
+        statistics.reset();
+
+        assertTrue(statistics.getCounters().isEmpty());
+    }
+
+    @Test
+    public void cannotInstallNullListener() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> MatchListeners.install(null));
+        assertEquals("No match listener", e.getMessage());
+    }
+}
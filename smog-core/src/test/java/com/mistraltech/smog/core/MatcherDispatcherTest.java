@@ -0,0 +1,113 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ItemFixtures.CountingItemMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Item;
+import com.mistraltech.smog.core.ItemFixtures.ItemMatcher;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.anything;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatcherDispatcherTest {
+    private static final String[] NAMES = {"ann", "bob", "cat", "dan", null};
+
+    private final List<Matcher<? super Item>> matchers = new ArrayList<Matcher<? super Item>>();
+
+    {
+        for (int i = 0; i < 40; i++) {
+            ItemMatcher matcher = new ItemMatcher();
+
+            if (i % 4 != 3) {
+                matcher.hasName(i % 2 == 0 ? equalTo(NAMES[i % NAMES.length]) : is(NAMES[i % NAMES.length]));
+            } else {
+                matcher.hasName(startsWith("b"));
+            }
+
+            if (i % 3 == 0) {
+                matcher.hasAge(greaterThan(i % 10));
+            }
+
+            matchers.add(matcher);
+        }
+
+        matchers.add(anything());
+    }
+
+    private final MatcherDispatcher<Item> dispatcher = MatcherDispatcher.of(matchers);
+
+    @Test
+    public void indexesMostConstrainedProperty() {
+        assertEquals("name", dispatcher.getPropertyName());
+    }
+
+    @Test
+    public void findsSameMatchersAsLinearEvaluation() {
+        for (String name : Arrays.asList("ann", "bob", "cat", "dan", "eve", null)) {
+            for (int age = 0; age < 12; age++) {
+                Item item = new Item(name, age);
+
+                assertEquals(linearFindAll(item), dispatcher.findAll(item), String.valueOf(item));
+                assertEquals(linearFindAll(item).get(0), dispatcher.findFirst(item).get(), String.valueOf(item));
+            }
+        }
+    }
+
+    @Test
+    public void appliesAllMatchersToNullItem() {
+        assertEquals(linearFindAll(null), dispatcher.findAll(null));
+    }
+
+    @Test
+    public void appliesOnlyCandidateMatchers() {
+        List<Matcher<? super Item>> countingMatchers = new ArrayList<Matcher<? super Item>>();
+        for (String name : Arrays.asList("ann", "bob", "cat", "dan")) {
+            countingMatchers.add(new CountingItemMatcher().hasName(equalTo(name)));
+        }
+
+        MatcherDispatcher<Item> countingDispatcher = MatcherDispatcher.of(countingMatchers);
+        Optional<Matcher<? super Item>> found = countingDispatcher.findFirst(new Item("cat", 1));
+
+        assertTrue(found.isPresent());
+        assertEquals(0, ((CountingItemMatcher) countingMatchers.get(0)).count);
+        assertEquals(1, ((CountingItemMatcher) countingMatchers.get(2)).count);
+        assertFalse(countingDispatcher.findFirst(new Item("eve", 1)).isPresent());
+        assertEquals(0, ((CountingItemMatcher) countingMatchers.get(3)).count);
+    }
+
+    @Test
+    public void appliesAllMatchersWhenNoneAreIndexable() {
+        MatcherDispatcher<Item> unindexed = MatcherDispatcher.of(Arrays.asList(
+                new ItemMatcher().hasName(startsWith("a")), anything()));
+
+        assertNull(unindexed.getPropertyName());
+        assertEquals(2, unindexed.findAll(new Item("ann", 1)).size());
+    }
+
+    @Test
+    public void freezesCompositeMatchers() {
+        assertTrue(((CompositePropertyMatcher<?>) matchers.get(0)).isFrozen());
+    }
+
+    private List<Matcher<? super Item>> linearFindAll(Object item) {
+        List<Matcher<? super Item>> found = new ArrayList<Matcher<? super Item>>();
+        for (Matcher<? super Item> matcher : matchers) {
+            if (matcher.matches(item)) {
+                found.add(matcher);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,118 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ItemFixtures.CountingItemMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Home;
+import com.mistraltech.smog.core.ItemFixtures.HomeMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Item;
+import com.mistraltech.smog.core.ItemFixtures.ItemMatcher;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.anything;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatcherNetworkTest {
+    private static final String[] NAMES = {"ann", "bob", "cat"};
+    private static final String[] TOWNS = {"Leeds", "York"};
+
+    private final List<Matcher<? super Item>> matchers = new ArrayList<Matcher<? super Item>>();
+
+    {
+        for (int i = 0; i < 36; i++) {
+            ItemMatcher matcher = new ItemMatcher()
+                    .hasName(i % 2 == 0 ? equalTo(NAMES[i % 3]) : is(NAMES[i % 3]))
+                    .hasAge(greaterThan(i % 4));
+
+            if (i % 3 == 0) {
+                matcher.hasHome(new HomeMatcher().hasTown(equalTo(TOWNS[i % 2])));
+            }
+
+            matchers.add(matcher);
+        }
+
+        matchers.add(new ItemMatcher().hasName(startsWith("b")));
+        matchers.add(anything());
+    }
+
+    private final MatcherNetwork<Item> network = MatcherNetwork.of(matchers);
+
+    @Test
+    public void sharesReadsAndStructurallyEqualTests() {
+        // name, age, home and home.town
+        assertEquals(4, network.getPropertyReadCount());
+
+        // 3 names, 4 ages, 2 towns, startsWith, 2 homes, 12 distinct items, the startsWith item and anything
+        assertEquals(26, network.getTestCount());
+    }
+
+    @Test
+    public void findsSameMatchersAsLinearEvaluation() {
+        for (String name : Arrays.asList("ann", "bob", "cat", "dan", null)) {
+            for (int age = 0; age < 6; age++) {
+                for (String town : Arrays.asList("Leeds", "York", null)) {
+                    Item item = new Item(name, age, town != null ? new Home(town) : null);
+
+                    assertEquals(linearFindAll(item), network.findAll(item), String.valueOf(item));
+                    assertEquals(linearFindAll(item).get(0), network.findFirst(item).get(), String.valueOf(item));
+                }
+            }
+        }
+
+        assertEquals(linearFindAll(null), network.findAll(null));
+    }
+
+    @Test
+    public void readsEachPropertyOncePerItem() {
+        Home home = new Home("York");
+        Item item = new Item("ann", 5, home);
+
+        assertEquals(linearFindAll(new Item("ann", 5, new Home("York"))), network.findAll(item));
+        assertEquals(1, item.nameReads);
+        assertEquals(1, home.townReads);
+    }
+
+    @Test
+    public void appliesMatchersThatCannotBeCompiledAsTheyAre() {
+        CountingItemMatcher counting = new CountingItemMatcher();
+        counting.hasName(equalTo("ann"));
+
+        MatcherNetwork<Item> mixed = MatcherNetwork.of(Arrays.asList(
+                new ItemMatcher().hasName(equalTo("ann")), counting, counting));
+
+        assertEquals(3, mixed.findAll(new Item("ann", 1, null)).size());
+        assertEquals(1, counting.count);
+        assertFalse(mixed.findFirst(new Item("bob", 1, null)).isPresent());
+    }
+
+    @Test
+    public void freezesCompositeMatchers() {
+        assertTrue(((CompositePropertyMatcher<?>) matchers.get(0)).isFrozen());
+    }
+
+    @Test
+    public void rejectsNullMatchers() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> MatcherNetwork.of(null));
+        assertEquals("No matchers", e.getMessage());
+    }
+
+    private List<Matcher<? super Item>> linearFindAll(Object item) {
+        List<Matcher<? super Item>> found = new ArrayList<Matcher<? super Item>>();
+        for (Matcher<? super Item> matcher : matchers) {
+            if (matcher.matches(item)) {
+                found.add(matcher);
+            }
+        }
+        return found;
+    }
+}
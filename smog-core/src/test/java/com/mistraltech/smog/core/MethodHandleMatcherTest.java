@@ -0,0 +1,173 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.ItemFixtures.CountingItemMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Home;
+import com.mistraltech.smog.core.ItemFixtures.HomeMatcher;
+import com.mistraltech.smog.core.ItemFixtures.HookedHomeMatcher;
+import com.mistraltech.smog.core.ItemFixtures.Item;
+import com.mistraltech.smog.core.ItemFixtures.ItemMatcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.number.OrderingComparison.comparesEqualTo;
+import static org.hamcrest.number.OrderingComparison.greaterThan;
+import static org.hamcrest.number.OrderingComparison.greaterThanOrEqualTo;
+import static org.hamcrest.number.OrderingComparison.lessThan;
+import static org.hamcrest.number.OrderingComparison.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MethodHandleMatcherTest {
+    @Test
+    public void matchesAsOriginalMatcher() {
+        assertMatchesAsOriginal(new ItemMatcher().hasName(equalTo("ann")).hasAge(greaterThan(2)));
+        assertMatchesAsOriginal(new ItemMatcher().hasName(is("bob")).hasAge(lessThanOrEqualTo(3)));
+        assertMatchesAsOriginal(new ItemMatcher().hasName(startsWith("a")).hasAge(comparesEqualTo(4)));
+        assertMatchesAsOriginal(new ItemMatcher().hasName(equalTo(null)).hasAge(equalTo(2)));
+        assertMatchesAsOriginal(new ItemMatcher().hasAge(equalTo(2L)).hasName(equalTo("ann")));
+        assertMatchesAsOriginal(new ItemMatcher().hasId(greaterThanOrEqualTo(3L)).hasWeight(lessThan(2.5)));
+        assertMatchesAsOriginal(new ItemMatcher().hasId(equalTo(4L)).hasWeight(equalTo(Double.NaN)));
+        assertMatchesAsOriginal(new ItemMatcher().hasWeight(equalTo(-0.0)).hasName(equalTo("bob")));
+        assertMatchesAsOriginal(new ItemMatcher().hasHome(new HomeMatcher().hasTown(equalTo("York"))));
+        assertMatchesAsOriginal(new ItemMatcher().hasAge(greaterThan(1))
+                .hasHome(new HookedHomeMatcher().hasTown(equalTo("Leeds"))));
+        assertMatchesAsOriginal(new CountingItemMatcher().hasName(equalTo("ann")));
+    }
+
+    @Test
+    public void providesPredicateAsMethodHandle() throws Throwable {
+        MethodHandle predicate = MethodHandleMatcher.compile(
+                new ItemMatcher().hasName(equalTo("ann")).hasAge(greaterThan(2)), Item.class).asMethodHandle();
+
+        assertTrue((boolean) predicate.invokeExact((Object) new Item("ann", 3, null)));
+        assertFalse((boolean) predicate.invokeExact((Object) new Item("ann", 2, null)));
+        assertFalse((boolean) predicate.invokeExact((Object) null));
+    }
+
+    @Test
+    public void testsPropertiesWithoutCallingMatchers() throws Throwable {
+        MethodHandle predicate = MethodHandleMatcher.compile(new ItemMatcher().hasName(equalTo("ann"))
+                .hasAge(greaterThan(2)).hasHome(new HomeMatcher().hasTown(is("York"))), Item.class).asMethodHandle();
+        MatchStatistics statistics = new MatchStatistics();
+        MatchListeners.install(statistics);
+
+        try {
+            assertTrue((boolean) predicate.invokeExact((Object) new Item("ann", 3, new Home("York"))));
+        } finally {
+            MatchListeners.uninstall();
+        }
+
+        assertTrue(statistics.getCounters().isEmpty());
+    }
+
+    @Test
+    public void matchesBeanOfAnotherClassWithOriginalMatcher() {
+        MethodHandleMatcher<Item> compiled = MethodHandleMatcher.compile(
+                new ItemMatcher().hasName(equalTo("ann")).hasAge(greaterThan(2)), Item.class);
+
+        assertTrue(compiled.matches(new SpecialItem("ann", 3)));
+        assertFalse(compiled.matches(new SpecialItem("ann", 2)));
+    }
+
+    @Test
+    public void reportsUnreadablePropertyAsOriginalMatcher() {
+        MethodHandleMatcher<Item> compiled = MethodHandleMatcher.compile(
+                new ItemMatcher().hasName(equalTo("ann")), Item.class);
+        Item item = new UnreadableItem();
+
+        PropertyUnreadableException expected = assertThrows(PropertyUnreadableException.class,
+                () -> compiled.getMatcher().matches(item));
+        PropertyUnreadableException actual = assertThrows(PropertyUnreadableException.class,
+                () -> compiled.matches(item));
+
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertEquals(IllegalStateException.class, actual.getCause().getCause().getClass());
+    }
+
+    @Test
+    public void describesAsOriginalMatcher() {
+        MethodHandleMatcher<Item> compiled = MethodHandleMatcher.compile(new ItemMatcher()
+                .hasName(equalTo("ann")).hasHome(new HomeMatcher().hasTown(equalTo("York"))), Item.class);
+        Item item = new Item("bob", 3, new Home("Leeds"));
+
+        StringDescription expected = new StringDescription();
+        compiled.getMatcher().describeMismatch(item, expected);
+
+        StringDescription actual = new StringDescription();
+        compiled.describeMismatch(item, actual);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(StringDescription.toString(compiled.getMatcher()), StringDescription.toString(compiled));
+    }
+
+    @Test
+    public void reportsWhetherMatcherWasCompiled() {
+        assertTrue(MethodHandleMatcher.compile(new ItemMatcher().hasName(equalTo("ann")), Item.class).isCompiled());
+        assertFalse(MethodHandleMatcher.compile(new CountingItemMatcher().hasName(equalTo("ann")), Item.class)
+                .isCompiled());
+    }
+
+    @Test
+    public void rejectsMissingArguments() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> MethodHandleMatcher.compile(null, Item.class));
+        assertEquals("No matcher", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class, () -> MethodHandleMatcher.compile(new ItemMatcher(), null));
+        assertEquals("No bean class", e.getMessage());
+    }
+
+    private static void assertMatchesAsOriginal(CompositePropertyMatcher<Item> matcher) {
+        MethodHandleMatcher<Item> compiled = MethodHandleMatcher.compile(matcher, Item.class);
+
+        for (String name : Arrays.asList("ann", "bob", null)) {
+            for (int age = 0; age < 6; age++) {
+                for (String town : Arrays.asList("Leeds", "York", null)) {
+                    Item item = new Item(name, age, town != null ? new Home(town) : null);
+                    boolean matches = matcher.matches(item);
+
+                    assertEquals(matches, compiled.matches(item), String.valueOf(item));
+                }
+            }
+        }
+
+        assertFalse(compiled.matches(null));
+    }
+
+    public static class UnreadableItem extends Item {
+        UnreadableItem() {
+            super("ann", 1, null);
+        }
+
+        @Override
+        public String getName() {
+            throw new IllegalStateException("Unreadable");
+        }
+    }
+
+    public static class SpecialItem {
+        private final String name;
+        private final int age;
+
+        SpecialItem(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+    }
+}
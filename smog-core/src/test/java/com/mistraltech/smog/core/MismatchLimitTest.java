@@ -0,0 +1,139 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher.aPostCodeThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MismatchLimitTest {
+    private final Person dennis = aPerson()
+            .withName("dennis")
+            .withAge(36)
+            .withAddress(new Address(22, new PostCode("up", "down")))
+            .build();
+
+    @Test
+    public void describesAllMismatchesByDefault() {
+        Matcher<Person> matcher = aPersonThat().hasName("bob").hasAge(34).hasAddress(anAddressThat().hasHouseNumber(21));
+
+        assertEquals("name was \"dennis\" (expected \"bob\")\n"
+                        + "     and: age was <36> (expected <34>)\n"
+                        + "     and: address.houseNumber was <22> (expected <21>)",
+                describeMismatch(matcher, dennis));
+    }
+
+    @Test
+    public void summarisesMismatchesBeyondCompositeLimit() {
+        Matcher<Person> matcher = aPersonThat().hasName("bob").hasAge(34).hasAddress(anAddressThat().hasHouseNumber(21))
+                .limitMismatches(1);
+
+        assertEquals("name was \"dennis\" (expected \"bob\")\n     and: at least 1 more", describeMismatch(matcher, dennis));
+    }
+
+    @Test
+    public void stopsMatchingOnceCompositeLimitIsExceeded() {
+        final int[] phoneListMatches = {0};
+        Matcher<Object> phoneListMatcher = new BaseMatcher<Object>() {
+            @Override
+            public boolean matches(Object item) {
+                phoneListMatches[0]++;
+                return false;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("counted");
+            }
+        };
+        Matcher<Person> matcher = aPersonThat().hasName("bob").hasAge(34).hasPhoneList(phoneListMatcher)
+                .limitMismatches(1);
+
+        assertEquals("name was \"dennis\" (expected \"bob\")\n     and: at least 1 more", describeMismatch(matcher, dennis));
+        assertEquals(0, phoneListMatches[0]);
+    }
+
+    @Test
+    public void summarisesMismatchesBeyondCompositeLimitAfterFailedMatch() {
+        Matcher<Person> matcher = aPersonThat().hasName("bob").hasAge(34).hasAddress(anAddressThat().hasHouseNumber(21))
+                .limitMismatches(2);
+
+        assertFalse(matcher.matches(dennis));
+        assertEquals("name was \"dennis\" (expected \"bob\")\n"
+                        + "     and: age was <36> (expected <34>)\n"
+                        + "     and: at least 1 more",
+                describeMismatch(matcher, dennis));
+    }
+
+    @Test
+    public void summarisesMismatchesBeyondTotalLimitInNestedMatchers() {
+        Matcher<Person> matcher = aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat()
+                        .hasHouseNumber(21)
+                        .hasPostCode(aPostCodeThat().hasInner("in").hasOuter("out")))
+                .limitTotalMismatches(2);
+
+        assertEquals("name was \"dennis\" (expected \"bob\")\n"
+                        + "     and: address.houseNumber was <22> (expected <21>)\n"
+                        + "     and: at least 1 more",
+                describeMismatch(matcher, dennis));
+    }
+
+    @Test
+    public void totalLimitOfNestedMatcherAppliesWhenEnclosingMatcherHasNone() {
+        Matcher<Person> matcher = aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat().hasHouseNumber(21).hasPostCode(new PostCode("in", "out")).limitTotalMismatches(1));
+
+        assertEquals("name was \"dennis\" (expected \"bob\")\n"
+                        + "     and: address.houseNumber was <22> (expected <21>)\n"
+                        + "     and: at least 1 more",
+                describeMismatch(matcher, dennis));
+    }
+
+    @Test
+    public void totalLimitOfNestedMatcherIsIgnoredWithinEnclosingLimit() {
+        Matcher<Person> matcher = aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat().hasHouseNumber(21).hasPostCode(new PostCode("in", "out")).limitTotalMismatches(1))
+                .limitTotalMismatches(5);
+
+        assertEquals("name was \"dennis\" (expected \"bob\")\n"
+                        + "     and: address.houseNumber was <22> (expected <21>)\n"
+                        + "     and: address.postCode was <PostCode{outer='up', inner='down'}> "
+                        + "(expected is <PostCode{outer='in', inner='out'}>)",
+                describeMismatch(matcher, dennis));
+    }
+
+    @Test
+    public void cannotSetLimitBelowOne() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> aPersonThat().limitMismatches(0));
+        assertEquals("Mismatch limit must be at least 1: 0", e.getMessage());
+    }
+
+    @Test
+    public void cannotSetLimitOnFrozenMatcher() {
+        CompositePropertyMatcher<Person> matcher = aPersonThat().freeze();
+
+        Exception e = assertThrows(IllegalStateException.class, () -> matcher.limitTotalMismatches(5));
+        assertEquals("Cannot change the mismatch limit of a frozen matcher", e.getMessage());
+    }
+
+    private static String describeMismatch(Matcher<?> matcher, Object item) {
+        StringDescription description = new StringDescription();
+        matcher.describeMismatch(item, description);
+        return description.toString();
+    }
+}
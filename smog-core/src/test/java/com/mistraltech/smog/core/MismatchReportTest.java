@@ -0,0 +1,108 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.PostCode;
+import com.mistraltech.smog.examples.simple.matcher.PersonMatcher;
+import org.hamcrest.StringDescription;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.simple.matcher.AddressMatcher.anAddressThat;
+import static com.mistraltech.smog.examples.simple.matcher.PersonMatcher.aPersonThat;
+import static com.mistraltech.smog.examples.simple.matcher.PostCodeMatcher.aPostCodeThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MismatchReportTest {
+    private final Person dennis = aPerson()
+            .withName("dennis")
+            .withAge(36)
+            .withAddress(new Address(21, new PostCode("out", "up")))
+            .build();
+
+    @Test
+    public void matchedResultHasNoMismatches() {
+        assertTrue(MatchResult.matched().getMismatches().isEmpty());
+    }
+
+    @Test
+    public void reportsEachMismatchWithPathActualAndExpected() {
+        PersonMatcher matcher = aPersonThat().hasName("bob").hasAge(36).hasAddress(anAddressThat().hasHouseNumber(22));
+
+        List<MismatchReport> mismatches = matcher.evaluate(dennis).getMismatches();
+
+        assertEquals(2, mismatches.size());
+
+        MismatchReport name = mismatches.get(0);
+        assertEquals(PropertyPath.ROOT.property("name"), name.getPath());
+        assertEquals("dennis", name.getActual());
+        assertEquals("\"bob\"", StringDescription.toString(name.getExpected()));
+        assertTrue(name.getChildren().isEmpty());
+
+        MismatchReport address = mismatches.get(1);
+        assertEquals(PropertyPath.ROOT.property("address"), address.getPath());
+        assertSame(dennis.getAddress(), address.getActual());
+    }
+
+    @Test
+    public void reportsMismatchesWithinNestedComposite() {
+        PersonMatcher matcher = aPersonThat()
+                .hasAddress(anAddressThat().hasPostCode(aPostCodeThat().hasOuter("in").hasInner("in")));
+
+        MismatchReport address = matcher.evaluate(dennis).getMismatches().get(0);
+        MismatchReport postCode = address.getChildren().get(0);
+        List<MismatchReport> postCodeMismatches = postCode.getChildren();
+
+        assertEquals(PropertyPath.ROOT.property("address").property("postCode"), postCode.getPath());
+        assertEquals(2, postCodeMismatches.size());
+        assertEquals(PropertyPath.ROOT.property("address").property("postCode").property("inner"),
+                postCodeMismatches.get(0).getPath());
+        assertEquals("up", postCodeMismatches.get(0).getActual());
+    }
+
+    @Test
+    public void rendersSameTextAsDescribeMismatch() {
+        PersonMatcher matcher = aPersonThat().hasName("bob").hasAddress(anAddressThat().hasHouseNumber(22));
+
+        List<MismatchReport> mismatches = matcher.evaluate(dennis).getMismatches();
+
+        assertEquals("name was \"dennis\" (expected \"bob\")", mismatches.get(0).toString());
+        assertEquals("address.houseNumber was <21> (expected <22>)", mismatches.get(1).toString());
+    }
+
+    @Test
+    public void rendersMachineReadableForm() {
+        PersonMatcher matcher = aPersonThat().hasAddress(anAddressThat().hasHouseNumber(22));
+
+        Map<String, Object> map = matcher.evaluate(dennis).getMismatches().get(0).toMap();
+
+        assertEquals("address", map.get("path"));
+        assertEquals("an Address that (has houseNumber (<22>))", map.get("expected"));
+
+        List<?> children = (List<?>) map.get("children");
+        assertEquals(1, children.size());
+
+        Map<?, ?> houseNumber = (Map<?, ?>) children.get(0);
+        assertEquals("address.houseNumber", houseNumber.get("path"));
+        assertEquals("21", houseNumber.get("actual"));
+        assertEquals("<22>", houseNumber.get("expected"));
+        assertEquals(Collections.emptyList(), houseNumber.get("children"));
+    }
+
+    @Test
+    public void reportsItemOfWrongTypeAsLeaf() {
+        PersonMatcher matcher = aPersonThat().hasName("bob");
+
+        List<MismatchReport> mismatches = matcher.evaluate("dennis").getMismatches();
+
+        assertEquals(1, mismatches.size());
+        assertSame(matcher, mismatches.get(0).getExpected());
+        assertTrue(mismatches.get(0).getChildren().isEmpty());
+    }
+}
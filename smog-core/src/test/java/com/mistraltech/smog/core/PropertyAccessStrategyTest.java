@@ -0,0 +1,133 @@
+package com.mistraltech.smog.core;
+
+import com.mistraltech.smog.core.util.PropertyReader;
+import org.junit.jupiter.api.Test;
+
+import javax.naming.OperationNotSupportedException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PropertyAccessStrategyTest {
+    private static final Person bob = new Person();
+
+    @Test
+    public void reflectionReaderCanReadProperty() throws Exception {
+        PropertyReader reader = PropertyAccessStrategy.REFLECTION.createReader(readMethod("getName"));
+
+        assertEquals("Bob", reader.read(bob));
+    }
+
+    @Test
+    public void methodHandleReaderCanReadProperty() throws Exception {
+        PropertyReader reader = PropertyAccessStrategy.METHOD_HANDLE.createReader(readMethod("getName"));
+
+        assertEquals("Bob", reader.read(bob));
+    }
+
+    @Test
+    public void methodHandleReaderCanReadPrimitiveProperty() throws Exception {
+        PropertyReader reader = PropertyAccessStrategy.METHOD_HANDLE.createReader(readMethod("getAge"));
+
+        assertEquals(34, reader.read(bob));
+    }
+
+    @Test
+    public void readersExposeReadMethod() throws Exception {
+        Method readMethod = readMethod("getName");
+
+        assertSame(readMethod, PropertyAccessStrategy.REFLECTION.createReader(readMethod).getReadMethod());
+        assertSame(readMethod, PropertyAccessStrategy.METHOD_HANDLE.createReader(readMethod).getReadMethod());
+    }
+
+    @Test
+    public void reflectionReaderWrapsAccessorFailure() throws Exception {
+        PropertyReader reader = PropertyAccessStrategy.REFLECTION.createReader(readMethod("getBrokenName"));
+
+        Exception e = assertThrows(InvocationTargetException.class, () -> reader.read(bob));
+        assertTrue(e.getCause() instanceof OperationNotSupportedException);
+    }
+
+    @Test
+    public void methodHandleReaderWrapsAccessorFailure() throws Exception {
+        PropertyReader reader = PropertyAccessStrategy.METHOD_HANDLE.createReader(readMethod("getBrokenName"));
+
+        Exception e = assertThrows(InvocationTargetException.class, () -> reader.read(bob));
+        assertTrue(e.getCause() instanceof OperationNotSupportedException);
+    }
+
+    @Test
+    public void methodHandleReaderFallsBackToReflectionWhenLookupIsNotPermitted() throws Exception {
+        Method readMethod = Class.forName("java.util.Collections$UnmodifiableCollection").getDeclaredMethod("isEmpty");
+
+        PropertyReader reader = PropertyAccessStrategy.METHOD_HANDLE.createReader(readMethod);
+
+        // Reflection is not permitted either, so the failure is reported as reflection would report it
+        assertThrows(IllegalAccessException.class, () -> reader.read(Collections.emptySet()));
+    }
+
+    @Test
+    public void methodHandleReaderCanReadBeanFromChildClassLoader() throws Exception {
+        Class<?> beanClass = new ChildClassLoader().defineCopy(PublicPerson.class);
+        Object bean = beanClass.getConstructor().newInstance();
+
+        PropertyReader reader = PropertyAccessStrategy.METHOD_HANDLE.createReader(beanClass.getMethod("getName"));
+
+        assertEquals("Bob", reader.read(bean));
+    }
+
+    private static Method readMethod(String name) throws NoSuchMethodException {
+        return Person.class.getMethod(name);
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    private static class Person {
+        public String getName() {
+            return "Bob";
+        }
+
+        public int getAge() {
+            return 34;
+        }
+
+        public String getBrokenName() throws OperationNotSupportedException {
+            throw new OperationNotSupportedException();
+        }
+    }
+
+    public static class PublicPerson {
+        public String getName() {
+            return "Bob";
+        }
+    }
+
+    /**
+     * Defines its own copy of a class, which SMOG's class loader cannot see.
+     */
+    private static class ChildClassLoader extends ClassLoader {
+        private ChildClassLoader() {
+            super(PropertyAccessStrategyTest.class.getClassLoader());
+        }
+
+        Class<?> defineCopy(Class<?> type) throws IOException {
+            try (InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+
+                for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                    bytes.write(buffer, 0, n);
+                }
+
+                return defineClass(type.getName(), bytes.toByteArray(), 0, bytes.size());
+            }
+        }
+    }
+}
@@ -83,6 +83,29 @@ public class PropertyMatcherTest {
         assertEquals("myPath.myProperty", propertyMatcher.getPath());
     }
 
+    @Test
+    public void reusesPropertyPathWhileParentPathIsUnchanged() {
+        PropertyMatcher<String> parentMatcher = new PropertyMatcher<String>("parent", null, mockPathProvider);
+        PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("myProperty", null, parentMatcher);
+
+        PropertyPath path = propertyMatcher.getPropertyPath();
+
+        assertSame(path, propertyMatcher.getPropertyPath());
+        assertSame(parentMatcher.getPropertyPath(), path.getParent());
+        assertEquals("myPath.parent.myProperty", path.toString());
+    }
+
+    @Test
+    public void recomputesPropertyPathWhenPathProviderChanges() {
+        PropertyMatcher<String> parentMatcher = new PropertyMatcher<String>("parent", null, mockPathProvider);
+        PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("myProperty", null, parentMatcher);
+        propertyMatcher.getPath();
+
+        parentMatcher.setPathProvider(new PathProviderStub("otherPath"));
+
+        assertEquals("otherPath.parent.myProperty", propertyMatcher.getPath());
+    }
+
     @Test
     public void cannotGetPathWhenPathProviderIsNotSet() {
         PropertyMatcher<String> propertyMatcher = new PropertyMatcher<String>("myProperty", null);
@@ -0,0 +1,69 @@
+package com.mistraltech.smog.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PropertyPathTest {
+
+    @Test
+    public void rootPathIsEmpty() {
+        assertTrue(PropertyPath.ROOT.isRoot());
+        assertEquals("", PropertyPath.ROOT.toString());
+    }
+
+    @Test
+    public void emptyStringGivesRootPath() {
+        assertSame(PropertyPath.ROOT, PropertyPath.of(""));
+    }
+
+    @Test
+    public void canRenderPropertyOfRoot() {
+        assertEquals("name", PropertyPath.ROOT.property("name").toString());
+    }
+
+    @Test
+    public void canRenderNestedProperties() {
+        PropertyPath path = PropertyPath.ROOT.property("address").property("postCode");
+
+        assertEquals("address.postCode", path.toString());
+    }
+
+    @Test
+    public void childPathSharesParentPath() {
+        PropertyPath parent = PropertyPath.ROOT.property("address");
+        PropertyPath child = parent.property("postCode");
+
+        assertSame(parent, child.getParent());
+        assertFalse(child.isRoot());
+    }
+
+    @Test
+    public void retainsRenderedPath() {
+        PropertyPath path = PropertyPath.ROOT.property("address").property("postCode");
+
+        assertSame(path.toString(), path.toString());
+    }
+
+    @Test
+    public void pathsWithSameSegmentsAreEqual() {
+        PropertyPath path1 = PropertyPath.of("person").property("address").property("postCode");
+        PropertyPath path2 = PropertyPath.of("person").property("address").property("postCode");
+
+        assertEquals(path1, path2);
+        assertEquals(path1.hashCode(), path2.hashCode());
+        assertNotEquals(path1, PropertyPath.of("person").property("address").property("houseNumber"));
+        assertNotEquals(path1, PropertyPath.of("person.address.postCode"));
+    }
+
+    @Test
+    public void cannotCreateNullProperty() {
+        Exception e = assertThrows(IllegalArgumentException.class, () -> PropertyPath.ROOT.property(null));
+        assertEquals("No property name", e.getMessage());
+    }
+}
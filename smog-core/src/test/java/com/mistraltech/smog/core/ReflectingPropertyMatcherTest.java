@@ -1,5 +1,6 @@
 package com.mistraltech.smog.core;
 
+import com.mistraltech.smog.core.util.PropertyAccessorCache;
 import org.hamcrest.StringDescription;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -90,6 +91,18 @@ public class ReflectingPropertyMatcherTest {
         assertEquals("path.name was \"Bob\" (expected \"Bill\")", mismatchDescription.toString());
     }
 
+    @Test
+    public void propertyAccessorResolvesReadMethodOnce() {
+        PropertyAccessorCache cache = new PropertyAccessorCache();
+        ReflectingPropertyMatcher.PropertyAccessor accessor = new ReflectingPropertyMatcher.PropertyAccessor("name", cache);
+
+        assertEquals("Bob", accessor.getPropertyValue(bob));
+        assertEquals("Bob", accessor.getPropertyValue(bob));
+
+        assertEquals(1, cache.getMissCount(), "miss count");
+        assertEquals(1, cache.getHitCount(), "hit count");
+    }
+
     @SuppressWarnings("UnusedDeclaration")
     private static class Person {
         public String getName() {
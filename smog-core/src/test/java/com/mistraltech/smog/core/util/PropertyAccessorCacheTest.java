@@ -0,0 +1,90 @@
+package com.mistraltech.smog.core.util;
+
+import com.mistraltech.smog.core.PropertyNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PropertyAccessorCacheTest {
+    private PropertyAccessorCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new PropertyAccessorCache();
+    }
+
+    @Test
+    public void canGetReadMethod() throws Exception {
+        Method readMethod = cache.getReadMethod(Person.class, "name");
+
+        assertEquals(Person.class.getMethod("getName"), readMethod);
+    }
+
+    @Test
+    public void canGetReadMethodForBooleanProperty() throws Exception {
+        Method readMethod = cache.getReadMethod(Person.class, "retired");
+
+        assertEquals(Person.class.getMethod("isRetired"), readMethod);
+    }
+
+    @Test
+    public void resolvesReadMethodOnceForRepeatedLookups() {
+        Method first = cache.getReadMethod(Person.class, "name");
+        Method second = cache.getReadMethod(Person.class, "name");
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount(), "miss count");
+        assertEquals(1, cache.getHitCount(), "hit count");
+    }
+
+    @Test
+    public void resolvesReadMethodSeparatelyForEachClass() {
+        cache.getReadMethod(Person.class, "name");
+        cache.getReadMethod(Employee.class, "name");
+
+        assertEquals(2, cache.getMissCount(), "miss count");
+        assertEquals(0, cache.getHitCount(), "hit count");
+    }
+
+    @Test
+    public void resolvesReadMethodSeparatelyForEachProperty() {
+        cache.getReadMethod(Person.class, "name");
+        cache.getReadMethod(Person.class, "retired");
+
+        assertEquals(2, cache.getMissCount(), "miss count");
+        assertEquals(0, cache.getHitCount(), "hit count");
+    }
+
+    @Test
+    public void cannotGetReadMethodForMissingProperty() {
+        Exception e = assertThrows(PropertyNotFoundException.class, () -> cache.getReadMethod(Person.class, "surname"));
+        assertEquals("Could not find accessor method on class Person for property surname", e.getMessage());
+    }
+
+    @Test
+    public void cannotGetReadMethodForWriteOnlyProperty() {
+        assertThrows(PropertyNotFoundException.class, () -> cache.getReadMethod(Person.class, "nickname"));
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public static class Person {
+        public String getName() {
+            return "Bob";
+        }
+
+        public boolean isRetired() {
+            return false;
+        }
+
+        public void setNickname(String nickname) {
+        }
+    }
+
+    public static class Employee extends Person {
+    }
+}
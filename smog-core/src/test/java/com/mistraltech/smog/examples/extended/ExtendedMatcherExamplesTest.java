@@ -1,10 +1,17 @@
 package com.mistraltech.smog.examples.extended;
 
+import com.mistraltech.smog.examples.model.Address;
 import com.mistraltech.smog.examples.model.Addressee;
 import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.Phone;
+import com.mistraltech.smog.examples.model.PhoneType;
 import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.List;
+
 import static com.mistraltech.smog.examples.extended.matcher.AddresseeMatcher.anAddresseeLike;
 import static com.mistraltech.smog.examples.extended.matcher.AddresseeMatcher.anAddresseeThat;
 import static com.mistraltech.smog.examples.extended.matcher.PersonMatcher.aPersonLike;
@@ -14,6 +21,9 @@ import static com.mistraltech.smog.examples.utils.MatcherTestUtils.assertDescrip
 import static com.mistraltech.smog.examples.utils.MatcherTestUtils.assertMismatch;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class ExtendedMatcherExamplesTest {
     private Person bob = aPerson()
@@ -74,4 +84,38 @@ public class ExtendedMatcherExamplesTest {
         // Name mismatches
         assertMismatch(bob, matcher, "name was 'bob' (expected 'dennis')");
     }
+
+    @Test
+    public void testDescribingMismatchReadsEachReflectedPropertyOnce() {
+        CountingPerson carol = new CountingPerson();
+        Matcher<Person> matcher = aPersonThat().hasName("carol").hasAddress(notNullValue()).hasPhoneList(empty()).hasAge(99);
+
+        StringDescription description = new StringDescription();
+        matcher.describeMismatch(carol, description);
+
+        assertEquals("age was <30> (expected <99>)\n     and: address was null (expected not null)", description.toString());
+        assertEquals(1, carol.addressReads);
+        assertEquals(1, carol.phoneListReads);
+    }
+
+    private static class CountingPerson extends Person {
+        private int addressReads;
+        private int phoneListReads;
+
+        private CountingPerson() {
+            super("carol", 30, null, Collections.<PhoneType, Phone>emptyMap());
+        }
+
+        @Override
+        public Address getAddress() {
+            addressReads++;
+            return super.getAddress();
+        }
+
+        @Override
+        public List<Phone> getPhoneList() {
+            phoneListReads++;
+            return super.getPhoneList();
+        }
+    }
 }
@@ -6,13 +6,20 @@ import com.mistraltech.smog.examples.model.Person;
 import com.mistraltech.smog.examples.model.Phone;
 import com.mistraltech.smog.examples.model.PostCode;
 import com.mistraltech.smog.examples.simple.matcher.PhoneMatcher;
+import org.hamcrest.Description;
 import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
 import org.hamcrest.collection.IsCollectionWithSize;
 import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.collection.IsIterableContainingInOrder;
 import org.hamcrest.core.CombinableMatcher;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
@@ -87,6 +94,37 @@ public class SimpleMatcherExamplesTest {
         assertMismatch(dennis, matcher, "name was 'dennis' (expected 'bob')");
     }
 
+    @Test
+    public void testFrozenMatcherCanBeSharedBetweenThreads() throws Exception {
+        final Matcher<Person> matcher = aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat()
+                        .hasPostCode(aPostCodeThat()
+                                .hasOuter("out")))
+                .freeze();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 200; i++) {
+                final Person person = i % 2 == 0 ? bob : dennis;
+                results.add(executor.submit(() -> {
+                    Description description = new StringDescription();
+                    boolean matches = matcher.matches(person);
+                    matcher.describeMismatch(person, description);
+                    return matches == (person == bob)
+                            && (matches || description.toString().equals("name was \"dennis\" (expected \"bob\")"));
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testSimpleMatcherFailsWhenMatchingWrongType() {
         Matcher<Addressee> matcher = is(anAddresseeThat());
@@ -0,0 +1,19 @@
+package com.mistraltech.smog.processor;
+
+import javax.lang.model.element.Element;
+
+/**
+ * Thrown when a matcher interface cannot be implemented. Reported as a compilation error against the offending element.
+ */
+class InvalidMatcherException extends RuntimeException {
+    private final Element element;
+
+    InvalidMatcherException(Element element, String format, Object... args) {
+        super(String.format(format, args));
+        this.element = element;
+    }
+
+    Element getElement() {
+        return element;
+    }
+}
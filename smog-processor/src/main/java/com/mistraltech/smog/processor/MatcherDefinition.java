@@ -0,0 +1,200 @@
+package com.mistraltech.smog.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a matcher class to be generated from a {@link com.mistraltech.smog.core.annotation.Matches} annotated
+ * interface. All types are held as they should appear in the generated source.
+ */
+final class MatcherDefinition {
+    private final String packageName;
+    private final String className;
+    private final String interfaceName;
+    private final String matchedType;
+    private final String matchedObjectDescription;
+    private final String factoryMethodPrefix;
+    private final List<PropertyDefinition> properties = new ArrayList<PropertyDefinition>();
+
+    private String typeParameters = "";
+    private String typeArguments = "";
+    private String concreteTypeArguments = "";
+    private String itemType;
+    private String superClass;
+    private boolean generatedSuperClass;
+    private String selfTypeVariable;
+    private String selfTypeName;
+
+    MatcherDefinition(String packageName, String className, String interfaceName, String matchedType,
+                      String matchedObjectDescription, String factoryMethodPrefix) {
+        this.packageName = packageName;
+        this.className = className;
+        this.interfaceName = interfaceName;
+        this.matchedType = matchedType;
+        this.matchedObjectDescription = matchedObjectDescription;
+        this.factoryMethodPrefix = factoryMethodPrefix;
+        this.itemType = matchedType;
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    String getQualifiedClassName() {
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    /**
+     * The qualified name of the source interface, without type arguments.
+     *
+     * @return the interface name
+     */
+    String getInterfaceName() {
+        return interfaceName;
+    }
+
+    /**
+     * The type named by the @Matches annotation.
+     *
+     * @return the matched type
+     */
+    String getMatchedType() {
+        return matchedType;
+    }
+
+    String getMatchedObjectDescription() {
+        return matchedObjectDescription;
+    }
+
+    /**
+     * The prefix of the static factory method names, such as "aPerson" for aPersonThat() and aPersonLike().
+     *
+     * @return the factory method prefix
+     */
+    String getFactoryMethodPrefix() {
+        return factoryMethodPrefix;
+    }
+
+    List<PropertyDefinition> getProperties() {
+        return properties;
+    }
+
+    void addProperty(PropertyDefinition property) {
+        properties.add(property);
+    }
+
+    PropertyDefinition findProperty(String propertyName) {
+        for (PropertyDefinition property : properties) {
+            if (property.getPropertyName().equals(propertyName)) {
+                return property;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The type parameter declarations of the generated class, such as "&lt;R extends ..., T extends ...&gt;".
+     *
+     * @return the type parameters; empty if the generated class is not generic
+     */
+    String getTypeParameters() {
+        return typeParameters;
+    }
+
+    /**
+     * The type arguments used to refer to the generated class and source interface from within the
+     * generated class, such as "&lt;R, T&gt;".
+     *
+     * @return the type arguments; empty if the generated class is not generic
+     */
+    String getTypeArguments() {
+        return typeArguments;
+    }
+
+    /**
+     * The type arguments that make the generated class concrete, substituting the matched type for the item
+     * type variable and the self type class for the self type variable.
+     *
+     * @return the concrete type arguments; empty if the generated class is not generic
+     */
+    String getConcreteTypeArguments() {
+        return concreteTypeArguments;
+    }
+
+    void setTypeParameters(String typeParameters, String typeArguments, String concreteTypeArguments) {
+        this.typeParameters = typeParameters;
+        this.typeArguments = typeArguments;
+        this.concreteTypeArguments = concreteTypeArguments;
+    }
+
+    /**
+     * The type of the item matched by the generated class. This is a type variable if the source interface
+     * is generic in its matched type.
+     *
+     * @return the item type
+     */
+    String getItemType() {
+        return itemType;
+    }
+
+    void setItemType(String itemType) {
+        this.itemType = itemType;
+    }
+
+    String getSuperClass() {
+        return superClass;
+    }
+
+    /**
+     * Whether the super class is itself a generated matcher class, in which case it takes care of the
+     * properties of the super interface.
+     *
+     * @return true if the super class is a generated matcher class
+     */
+    boolean isGeneratedSuperClass() {
+        return generatedSuperClass;
+    }
+
+    void setSuperClass(String superClass, boolean generatedSuperClass) {
+        this.superClass = superClass;
+        this.generatedSuperClass = generatedSuperClass;
+    }
+
+    /**
+     * Whether the source interface is self-typed, i.e. has a type parameter bound by the interface itself
+     * that setter methods return.
+     *
+     * @return true if the source interface is self-typed
+     */
+    boolean isSelfTyped() {
+        return selfTypeVariable != null;
+    }
+
+    /**
+     * The name of the type variable that represents the self type.
+     *
+     * @return the self type variable name, or null if the interface is not self-typed
+     */
+    String getSelfTypeVariable() {
+        return selfTypeVariable;
+    }
+
+    /**
+     * The name of the concrete nested class that fixes the self type for use by the factory methods.
+     *
+     * @return the self type class name, or null if the interface is not self-typed
+     */
+    String getSelfTypeName() {
+        return selfTypeName;
+    }
+
+    void setSelfType(String selfTypeVariable, String selfTypeName) {
+        this.selfTypeVariable = selfTypeVariable;
+        this.selfTypeName = selfTypeName;
+    }
+}
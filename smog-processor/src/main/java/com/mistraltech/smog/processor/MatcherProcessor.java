@@ -0,0 +1,470 @@
+package com.mistraltech.smog.processor;
+
+import com.mistraltech.smog.core.annotation.Matches;
+import com.mistraltech.smog.core.annotation.MatchesProperty;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An annotation processor that generates a matcher class for each interface annotated with {@link Matches}.
+ * <p>
+ * The matcher interface declares setter methods named hasXxx, or annotated with {@link MatchesProperty}, each
+ * taking either a property value or a Hamcrest matcher for the property. For example:
+ * <pre>
+ * &#64;Matches(Person.class)
+ * public interface PersonMatcher extends Matcher&lt;Person&gt; {
+ *     PersonMatcher hasName(String name);
+ *     PersonMatcher hasName(Matcher&lt;? super String&gt; nameMatcher);
+ * }
+ * </pre>
+ * A class named PersonMatcherImpl is generated in the same package, with static factory methods aPersonThat()
+ * and aPersonLike(Person template). The generated class reads properties by calling their getters directly.
+ * <p>
+ * A matcher interface may be self-typed, as in
+ * {@code PersonMatcher<R extends PersonMatcher<R, T>, T extends Person> extends AddresseeMatcher<R, T>}. If its
+ * super interface is also annotated with {@link Matches}, the generated class extends the class generated for
+ * the super interface. The factory methods of a self-typed matcher return a concrete nested class, such as
+ * PersonMatcherImpl.PersonMatcherType.
+ * <p>
+ * Classes annotated with {@link Matches} are assumed to be hand-written matchers and are ignored.
+ */
+@SupportedAnnotationTypes("com.mistraltech.smog.core.annotation.Matches")
+public class MatcherProcessor extends AbstractProcessor {
+    private static final String COMPOSITE_PROPERTY_MATCHER = "com.mistraltech.smog.core.CompositePropertyMatcher";
+    private static final String HAMCREST_MATCHER = "org.hamcrest.Matcher";
+    private static final String SETTER_METHOD_PREFIX = "has";
+    private static final String GENERATED_CLASS_SUFFIX = "Impl";
+    private static final String SELF_TYPE_CLASS_SUFFIX = "Type";
+
+    private Elements elements;
+    private Types types;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Matches.class)) {
+            if (element.getKind() == ElementKind.INTERFACE) {
+                processMatcherInterface((TypeElement) element);
+            }
+        }
+
+        return false;
+    }
+
+    private void processMatcherInterface(TypeElement matcherInterface) {
+        try {
+            writeSource(readDefinition(matcherInterface), matcherInterface);
+        } catch (InvalidMatcherException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.getElement());
+        }
+    }
+
+    private MatcherDefinition readDefinition(TypeElement matcherInterface) {
+        final TypeElement matchedTypeElement = getMatchedTypeElement(matcherInterface);
+        final String matchedTypeName = matchedTypeElement.getSimpleName().toString();
+        final String article = startsWithVowel(matchedTypeName) ? "an" : "a";
+
+        String description = matcherInterface.getAnnotation(Matches.class).description();
+        if (description.isEmpty()) {
+            description = article + " " + matchedTypeName;
+        }
+
+        MatcherDefinition definition = new MatcherDefinition(
+                elements.getPackageOf(matcherInterface).getQualifiedName().toString(),
+                generatedClassName(matcherInterface),
+                matcherInterface.getQualifiedName().toString(),
+                matchedTypeElement.getQualifiedName().toString(),
+                description,
+                article + matchedTypeName);
+
+        readTypeParameters(matcherInterface, matchedTypeElement, definition);
+        Set<String> inheritedPropertyNames = readSuperClass(matcherInterface, definition);
+        readProperties(matcherInterface, matchedTypeElement, inheritedPropertyNames, definition);
+
+        return definition;
+    }
+
+    private TypeElement getMatchedTypeElement(TypeElement matcherInterface) {
+        TypeMirror matchedType;
+
+        try {
+            matcherInterface.getAnnotation(Matches.class).value();
+            throw new IllegalStateException("Expected matched type to be unavailable as a class during processing");
+        } catch (MirroredTypeException e) {
+            matchedType = e.getTypeMirror();
+        }
+
+        if (matchedType.getKind() != TypeKind.DECLARED) {
+            throw new InvalidMatcherException(matcherInterface, "Matched type %s is not a class or interface", matchedType);
+        }
+
+        return (TypeElement) types.asElement(matchedType);
+    }
+
+    private void readTypeParameters(TypeElement matcherInterface, TypeElement matchedTypeElement,
+                                    MatcherDefinition definition) {
+        final List<? extends TypeParameterElement> typeParameters = matcherInterface.getTypeParameters();
+
+        if (typeParameters.isEmpty()) {
+            return;
+        }
+
+        List<String> declarations = new ArrayList<String>();
+        List<String> arguments = new ArrayList<String>();
+        List<String> concreteArguments = new ArrayList<String>();
+        String selfTypeVariable = null;
+        final String selfTypeName = matcherInterface.getSimpleName() + SELF_TYPE_CLASS_SUFFIX;
+
+        for (TypeParameterElement typeParameter : typeParameters) {
+            final String name = typeParameter.getSimpleName().toString();
+
+            declarations.add(name + boundsOf(typeParameter));
+            arguments.add(name);
+
+            if (isBoundBy(typeParameter, matcherInterface)) {
+                selfTypeVariable = name;
+                concreteArguments.add(selfTypeName);
+            } else if (isBoundBy(typeParameter, matchedTypeElement)) {
+                definition.setItemType(name);
+                concreteArguments.add(definition.getMatchedType());
+            } else {
+                throw new InvalidMatcherException(typeParameter,
+                        "Type parameter %s must be bounded by either the matcher interface or the matched type", name);
+            }
+        }
+
+        definition.setTypeParameters(
+                "<" + join(declarations, ", ") + ">",
+                "<" + join(arguments, ", ") + ">",
+                "<" + join(concreteArguments, ", ") + ">");
+
+        if (selfTypeVariable != null) {
+            definition.setSelfType(selfTypeVariable, selfTypeName);
+        }
+    }
+
+    private Set<String> readSuperClass(TypeElement matcherInterface, MatcherDefinition definition) {
+        for (TypeMirror superInterface : matcherInterface.getInterfaces()) {
+            final TypeElement superInterfaceElement = (TypeElement) types.asElement(superInterface);
+
+            if (isMatcherInterface(superInterfaceElement)) {
+                List<String> typeArguments = new ArrayList<String>();
+                for (TypeMirror typeArgument : ((DeclaredType) superInterface).getTypeArguments()) {
+                    typeArguments.add(typeArgument.toString());
+                }
+
+                String superClass = qualifiedGeneratedClassName(superInterfaceElement);
+                if (!typeArguments.isEmpty()) {
+                    superClass += "<" + join(typeArguments, ", ") + ">";
+                }
+
+                definition.setSuperClass(superClass, true);
+                return propertyNamesOf(superInterfaceElement);
+            }
+        }
+
+        definition.setSuperClass(COMPOSITE_PROPERTY_MATCHER + "<" + definition.getItemType() + ">", false);
+        return new HashSet<String>();
+    }
+
+    private Set<String> propertyNamesOf(TypeElement matcherInterface) {
+        Set<String> propertyNames = new HashSet<String>();
+
+        for (ExecutableElement method : setterMethodsOf(matcherInterface)) {
+            propertyNames.add(propertyNameOf(method));
+        }
+
+        for (TypeMirror superInterface : matcherInterface.getInterfaces()) {
+            final TypeElement superInterfaceElement = (TypeElement) types.asElement(superInterface);
+            if (isMatcherInterface(superInterfaceElement)) {
+                propertyNames.addAll(propertyNamesOf(superInterfaceElement));
+            }
+        }
+
+        return propertyNames;
+    }
+
+    private void readProperties(TypeElement matcherInterface, TypeElement matchedTypeElement,
+                                Set<String> inheritedPropertyNames, MatcherDefinition definition) {
+        for (ExecutableElement method : setterMethodsOf(matcherInterface)) {
+            final String propertyName = propertyNameOf(method);
+
+            if (inheritedPropertyNames.contains(propertyName)) {
+                // Implemented by the generated super class
+                continue;
+            }
+
+            if (method.getParameters().size() != 1) {
+                throw new InvalidMatcherException(method, "Method %s must take a single parameter", method.getSimpleName());
+            }
+
+            final VariableElement parameter = method.getParameters().get(0);
+            final TypeMirror parameterType = parameter.asType();
+            final boolean matcherParameter = isHamcrestMatcher(parameterType);
+            final String propertyType = matcherParameter
+                    ? matchedTypeOf(parameterType).toString()
+                    : boxed(parameterType).toString();
+
+            PropertyDefinition property = definition.findProperty(propertyName);
+            if (property == null) {
+                property = new PropertyDefinition(propertyName, propertyType,
+                        getterNameOf(matchedTypeElement, propertyName, method));
+                definition.addProperty(property);
+            } else if (matcherParameter) {
+                // The matcher parameter gives the most general type that the property matcher must accept
+                property.setPropertyType(propertyType);
+            }
+
+            final MatchesProperty matchesProperty = method.getAnnotation(MatchesProperty.class);
+            if (matchesProperty != null) {
+                property.declareCost(matchesProperty.cost());
+            }
+
+            property.addSetterMethod(new PropertyDefinition.SetterMethod(
+                    method.getSimpleName().toString(),
+                    method.getReturnType().toString(),
+                    returnExpressionOf(method, matcherInterface, definition),
+                    parameterType.toString(),
+                    parameter.getSimpleName().toString(),
+                    matcherParameter));
+        }
+    }
+
+    private List<ExecutableElement> setterMethodsOf(TypeElement matcherInterface) {
+        List<ExecutableElement> setterMethods = new ArrayList<ExecutableElement>();
+
+        for (ExecutableElement method : ElementFilter.methodsIn(matcherInterface.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.ABSTRACT)) {
+                setterMethods.add(method);
+            }
+        }
+
+        return setterMethods;
+    }
+
+    private String propertyNameOf(ExecutableElement method) {
+        final MatchesProperty matchesProperty = method.getAnnotation(MatchesProperty.class);
+        if (matchesProperty != null) {
+            return matchesProperty.value();
+        }
+
+        final String methodName = method.getSimpleName().toString();
+        if (!methodName.startsWith(SETTER_METHOD_PREFIX) || methodName.length() == SETTER_METHOD_PREFIX.length()) {
+            throw new InvalidMatcherException(method,
+                    "Method %s must be named hasXxx or be annotated with @MatchesProperty", methodName);
+        }
+
+        return Introspector.decapitalize(methodName.substring(SETTER_METHOD_PREFIX.length()));
+    }
+
+    private String getterNameOf(TypeElement matchedTypeElement, String propertyName, ExecutableElement method) {
+        final String capitalizedName = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+
+        for (ExecutableElement candidate : ElementFilter.methodsIn(elements.getAllMembers(matchedTypeElement))) {
+            final String candidateName = candidate.getSimpleName().toString();
+
+            if (candidate.getModifiers().contains(Modifier.PUBLIC)
+                    && !candidate.getModifiers().contains(Modifier.STATIC)
+                    && candidate.getParameters().isEmpty()) {
+                if (candidateName.equals("get" + capitalizedName)) {
+                    return candidateName;
+                }
+
+                if (candidateName.equals("is" + capitalizedName)
+                        && candidate.getReturnType().getKind() == TypeKind.BOOLEAN) {
+                    return candidateName;
+                }
+            }
+        }
+
+        throw new InvalidMatcherException(method, "Could not find accessor method on class %s for property %s",
+                matchedTypeElement.getSimpleName(), propertyName);
+    }
+
+    private String returnExpressionOf(ExecutableElement method, TypeElement matcherInterface,
+                                      MatcherDefinition definition) {
+        final TypeMirror returnType = method.getReturnType();
+
+        if (returnType.getKind() == TypeKind.VOID) {
+            return null;
+        }
+
+        if (definition.isSelfTyped() && returnType.getKind() == TypeKind.TYPEVAR
+                && ((TypeVariable) returnType).asElement().getSimpleName().contentEquals(definition.getSelfTypeVariable())) {
+            return "self()";
+        }
+
+        if (types.isAssignable(types.erasure(matcherInterface.asType()), types.erasure(returnType))) {
+            return "this";
+        }
+
+        throw new InvalidMatcherException(method, "Method %s must return void, the matcher interface or its self type",
+                method.getSimpleName());
+    }
+
+    private boolean isMatcherInterface(TypeElement element) {
+        return element.getKind() == ElementKind.INTERFACE && element.getAnnotation(Matches.class) != null;
+    }
+
+    private boolean isBoundBy(TypeParameterElement typeParameter, TypeElement element) {
+        for (TypeMirror bound : typeParameter.getBounds()) {
+            if (types.isSameType(types.erasure(bound), types.erasure(element.asType()))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isHamcrestMatcher(TypeMirror type) {
+        return types.isAssignable(types.erasure(type), types.erasure(hamcrestMatcherType()));
+    }
+
+    /**
+     * Gets the type matched by a Hamcrest matcher type. E.g. String for Matcher&lt;? super String&gt;.
+     */
+    private TypeMirror matchedTypeOf(TypeMirror matcherType) {
+        final DeclaredType hamcrestMatcherType = asHamcrestMatcherType(matcherType);
+        final Element objectElement = elements.getTypeElement(Object.class.getName());
+
+        if (hamcrestMatcherType == null || hamcrestMatcherType.getTypeArguments().isEmpty()) {
+            return objectElement.asType();
+        }
+
+        final TypeMirror typeArgument = hamcrestMatcherType.getTypeArguments().get(0);
+        if (typeArgument.getKind() == TypeKind.WILDCARD) {
+            final WildcardType wildcardType = (WildcardType) typeArgument;
+
+            if (wildcardType.getSuperBound() != null) {
+                return wildcardType.getSuperBound();
+            } else if (wildcardType.getExtendsBound() != null) {
+                return wildcardType.getExtendsBound();
+            } else {
+                return objectElement.asType();
+            }
+        }
+
+        return typeArgument;
+    }
+
+    private DeclaredType asHamcrestMatcherType(TypeMirror type) {
+        if (types.isSameType(types.erasure(type), types.erasure(hamcrestMatcherType()))) {
+            return (DeclaredType) type;
+        }
+
+        for (TypeMirror superType : types.directSupertypes(type)) {
+            DeclaredType hamcrestMatcherType = asHamcrestMatcherType(superType);
+            if (hamcrestMatcherType != null) {
+                return hamcrestMatcherType;
+            }
+        }
+
+        return null;
+    }
+
+    private TypeMirror hamcrestMatcherType() {
+        return elements.getTypeElement(HAMCREST_MATCHER).asType();
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+    }
+
+    private String boundsOf(TypeParameterElement typeParameter) {
+        List<String> bounds = new ArrayList<String>();
+
+        for (TypeMirror bound : typeParameter.getBounds()) {
+            if (!bound.toString().equals(Object.class.getName())) {
+                bounds.add(bound.toString());
+            }
+        }
+
+        return bounds.isEmpty() ? "" : " extends " + join(bounds, " & ");
+    }
+
+    private String generatedClassName(TypeElement matcherInterface) {
+        String className = matcherInterface.getSimpleName().toString();
+
+        Element enclosingElement = matcherInterface.getEnclosingElement();
+        while (enclosingElement instanceof TypeElement) {
+            className = enclosingElement.getSimpleName() + "_" + className;
+            enclosingElement = enclosingElement.getEnclosingElement();
+        }
+
+        return className + GENERATED_CLASS_SUFFIX;
+    }
+
+    private String qualifiedGeneratedClassName(TypeElement matcherInterface) {
+        final String packageName = elements.getPackageOf(matcherInterface).getQualifiedName().toString();
+        final String className = generatedClassName(matcherInterface);
+
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    private void writeSource(MatcherDefinition definition, TypeElement matcherInterface) {
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler()
+                    .createSourceFile(definition.getQualifiedClassName(), matcherInterface);
+
+            try (Writer writer = sourceFile.openWriter()) {
+                new MatcherSourceWriter(definition, writer).write();
+            }
+        } catch (IOException e) {
+            throw new InvalidMatcherException(matcherInterface, "Could not write matcher class %s: %s",
+                    definition.getQualifiedClassName(), e.getMessage());
+        }
+    }
+
+    private static boolean startsWithVowel(String text) {
+        return "AEIOUaeiou".indexOf(text.charAt(0)) >= 0;
+    }
+
+    private static String join(List<String> parts, String separator) {
+        StringBuilder sb = new StringBuilder();
+
+        for (String part : parts) {
+            if (sb.length() > 0) {
+                sb.append(separator);
+            }
+            sb.append(part);
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,190 @@
+package com.mistraltech.smog.processor;
+
+import com.mistraltech.smog.core.PropertyCost;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Writes the source of a matcher class described by a {@link MatcherDefinition}.
+ * <p>
+ * The generated class extends {@link com.mistraltech.smog.core.CompositePropertyMatcher} and reads each property
+ * by calling its getter directly, so matching involves no reflection. Its property matchers are
+ * {@link com.mistraltech.smog.core.ReflectingPropertyMatcher}s, and it declares that it only applies them, so that
+ * it can also be compiled by {@link com.mistraltech.smog.core.CompiledMatcher},
+ * {@link com.mistraltech.smog.core.MethodHandleMatcher} and {@link com.mistraltech.smog.core.MatcherNetwork}.
+ */
+final class MatcherSourceWriter {
+    private static final String PROPERTY_MATCHER = "com.mistraltech.smog.core.PropertyMatcher";
+    private static final String REFLECTING_PROPERTY_MATCHER = "com.mistraltech.smog.core.ReflectingPropertyMatcher";
+    private static final String PROPERTY_ACCESSOR_CACHE = "com.mistraltech.smog.core.util.PropertyAccessorCache";
+    private static final String MATCH_ACCUMULATOR = "com.mistraltech.smog.core.MatchAccumulator";
+    private static final String PROPERTY_COST = "com.mistraltech.smog.core.PropertyCost";
+    private static final String EQUAL_TO = "org.hamcrest.CoreMatchers.equalTo";
+
+    private final MatcherDefinition definition;
+    private final PrintWriter out;
+
+    MatcherSourceWriter(MatcherDefinition definition, Writer writer) {
+        this.definition = definition;
+        this.out = new PrintWriter(writer);
+    }
+
+    void write() {
+        if (!definition.getPackageName().isEmpty()) {
+            out.printf("package %s;%n%n", definition.getPackageName());
+        }
+
+        out.printf("/**%n");
+        out.printf(" * Matcher for {@link %s}, generated from {@link %s} by the SMOG annotation processor.%n",
+                definition.getMatchedType(), definition.getInterfaceName());
+        out.printf(" */%n");
+        out.printf("public class %s%s extends %s implements %s%s {%n",
+                definition.getClassName(), definition.getTypeParameters(), definition.getSuperClass(),
+                definition.getInterfaceName(), definition.getTypeArguments());
+
+        writeFields();
+        writeConstructor();
+        writeFactoryMethods();
+
+        if (definition.isSelfTyped()) {
+            writeSelfMethod();
+        }
+
+        for (PropertyDefinition property : definition.getProperties()) {
+            for (PropertyDefinition.SetterMethod setterMethod : property.getSetterMethods()) {
+                writeSetterMethod(property, setterMethod);
+            }
+        }
+
+        writeMatchesSafely();
+        writeAppliesPropertyMatchersOnly();
+
+        if (definition.isSelfTyped()) {
+            writeSelfTypeClass();
+        }
+
+        out.printf("}%n");
+        out.flush();
+    }
+
+    private void writeFields() {
+        out.printf("    private static final String MATCHED_OBJECT_DESCRIPTION = \"%s\";%n",
+                escape(definition.getMatchedObjectDescription()));
+
+        for (PropertyDefinition property : definition.getProperties()) {
+            if (property.getCost() == PropertyCost.NORMAL) {
+                out.printf("%n    private final %s<%s> %s = new %s<%s>(\"%s\", this);%n",
+                        PROPERTY_MATCHER, property.getPropertyType(), property.getFieldName(),
+                        REFLECTING_PROPERTY_MATCHER, property.getPropertyType(), property.getPropertyName());
+            } else {
+                out.printf("%n    private final %s<%s> %s = new %s<%s>(\"%s\", this, null, %s.getDefault(), %s.%s);%n",
+                        PROPERTY_MATCHER, property.getPropertyType(), property.getFieldName(),
+                        REFLECTING_PROPERTY_MATCHER, property.getPropertyType(), property.getPropertyName(),
+                        PROPERTY_ACCESSOR_CACHE, PROPERTY_COST, property.getCost().name());
+            }
+        }
+    }
+
+    private void writeConstructor() {
+        out.printf("%n    protected %s(final String matchedObjectDescription, final %s template) {%n",
+                definition.getClassName(), definition.getItemType());
+
+        if (definition.isGeneratedSuperClass()) {
+            out.printf("        super(matchedObjectDescription, template);%n");
+        } else {
+            out.printf("        super(matchedObjectDescription);%n");
+        }
+
+        out.printf("        if (template != null) {%n");
+
+        for (PropertyDefinition property : definition.getProperties()) {
+            PropertyDefinition.SetterMethod valueSetterMethod = property.findValueSetterMethod();
+            if (valueSetterMethod != null) {
+                out.printf("            %s(template.%s());%n",
+                        valueSetterMethod.getMethodName(), property.getGetterName());
+            }
+        }
+
+        out.printf("        }%n");
+        out.printf("    }%n");
+    }
+
+    private void writeFactoryMethods() {
+        final String factoryReturnType = definition.isSelfTyped()
+                ? definition.getSelfTypeName()
+                : definition.getClassName() + definition.getConcreteTypeArguments();
+
+        out.printf("%n    public static %s %sThat() {%n", factoryReturnType, definition.getFactoryMethodPrefix());
+        out.printf("        return new %s(MATCHED_OBJECT_DESCRIPTION, null);%n", factoryReturnType);
+        out.printf("    }%n");
+
+        out.printf("%n    public static %s %sLike(final %s template) {%n",
+                factoryReturnType, definition.getFactoryMethodPrefix(), definition.getMatchedType());
+        out.printf("        return new %s(MATCHED_OBJECT_DESCRIPTION, template);%n", factoryReturnType);
+        out.printf("    }%n");
+    }
+
+    private void writeSelfMethod() {
+        out.printf("%n    @SuppressWarnings(\"unchecked\")%n");
+        out.printf("    private %s self() {%n", definition.getSelfTypeVariable());
+        out.printf("        return (%s) this;%n", definition.getSelfTypeVariable());
+        out.printf("    }%n");
+    }
+
+    private void writeSetterMethod(PropertyDefinition property, PropertyDefinition.SetterMethod setterMethod) {
+        out.printf("%n    @Override%n");
+        out.printf("    public %s %s(final %s %s) {%n", setterMethod.getReturnType(), setterMethod.getMethodName(),
+                setterMethod.getParameterType(), setterMethod.getParameterName());
+
+        if (setterMethod.isMatcherParameter()) {
+            out.printf("        this.%s.setMatcher(%s);%n", property.getFieldName(), setterMethod.getParameterName());
+        } else {
+            out.printf("        this.%s.setMatcher(%s(%s));%n",
+                    property.getFieldName(), EQUAL_TO, setterMethod.getParameterName());
+        }
+
+        if (setterMethod.getReturnExpression() != null) {
+            out.printf("        return %s;%n", setterMethod.getReturnExpression());
+        }
+
+        out.printf("    }%n");
+    }
+
+    private void writeMatchesSafely() {
+        out.printf("%n    @Override%n");
+        out.printf("    protected void matchesSafely(final %s item, final %s matchAccumulator) {%n",
+                definition.getItemType(), MATCH_ACCUMULATOR);
+        out.printf("        super.matchesSafely(item, matchAccumulator);%n");
+
+        for (PropertyDefinition property : definition.getProperties()) {
+            out.printf("        if (%s.isSpecified()) {%n", property.getFieldName());
+            out.printf("            matchAccumulator.matches(%s, item, %s::%s);%n",
+                    property.getFieldName(), definition.getMatchedType(), property.getGetterName());
+            out.printf("        }%n");
+        }
+
+        out.printf("    }%n");
+    }
+
+    private void writeAppliesPropertyMatchersOnly() {
+        out.printf("%n    @Override%n");
+        out.printf("    protected boolean appliesPropertyMatchersOnly() {%n");
+        out.printf("        return true;%n");
+        out.printf("    }%n");
+    }
+
+    private void writeSelfTypeClass() {
+        out.printf("%n    public static final class %s extends %s%s {%n",
+                definition.getSelfTypeName(), definition.getClassName(), definition.getConcreteTypeArguments());
+        out.printf("        protected %s(final String matchedObjectDescription, final %s template) {%n",
+                definition.getSelfTypeName(), definition.getMatchedType());
+        out.printf("            super(matchedObjectDescription, template);%n");
+        out.printf("        }%n");
+        out.printf("    }%n");
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
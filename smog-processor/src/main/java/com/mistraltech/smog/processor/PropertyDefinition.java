@@ -0,0 +1,139 @@
+package com.mistraltech.smog.processor;
+
+import com.mistraltech.smog.core.PropertyCost;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a property of the matched type and the matcher interface methods that set its expectation.
+ */
+final class PropertyDefinition {
+    private final String propertyName;
+    private String propertyType;
+    private final String getterName;
+    private final List<SetterMethod> setterMethods = new ArrayList<SetterMethod>();
+    private PropertyCost cost = PropertyCost.NORMAL;
+
+    PropertyDefinition(String propertyName, String propertyType, String getterName) {
+        this.propertyName = propertyName;
+        this.propertyType = propertyType;
+        this.getterName = getterName;
+    }
+
+    String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * The type argument of the PropertyMatcher field that holds this property's matcher.
+     *
+     * @return the property type, as it should appear in source
+     */
+    String getPropertyType() {
+        return propertyType;
+    }
+
+    void setPropertyType(String propertyType) {
+        this.propertyType = propertyType;
+    }
+
+    String getGetterName() {
+        return getterName;
+    }
+
+    /**
+     * The cost declared for the property by any of its setter methods. If setter methods declare
+     * different costs, the highest applies.
+     *
+     * @return the property cost
+     */
+    PropertyCost getCost() {
+        return cost;
+    }
+
+    void declareCost(PropertyCost declaredCost) {
+        if (declaredCost.compareTo(cost) > 0) {
+            cost = declaredCost;
+        }
+    }
+
+    String getFieldName() {
+        return propertyName + "Matcher";
+    }
+
+    List<SetterMethod> getSetterMethods() {
+        return setterMethods;
+    }
+
+    void addSetterMethod(SetterMethod setterMethod) {
+        setterMethods.add(setterMethod);
+    }
+
+    /**
+     * Finds a setter method that takes a property value rather than a matcher.
+     *
+     * @return the value setter method, or null if there is none
+     */
+    SetterMethod findValueSetterMethod() {
+        for (SetterMethod setterMethod : setterMethods) {
+            if (!setterMethod.isMatcherParameter()) {
+                return setterMethod;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * A matcher interface method that sets the expectation for a property, such as hasName(String) or
+     * hasName(Matcher&lt;? super String&gt;).
+     */
+    static final class SetterMethod {
+        private final String methodName;
+        private final String returnType;
+        private final String returnExpression;
+        private final String parameterType;
+        private final String parameterName;
+        private final boolean matcherParameter;
+
+        SetterMethod(String methodName, String returnType, String returnExpression, String parameterType,
+                     String parameterName, boolean matcherParameter) {
+            this.methodName = methodName;
+            this.returnType = returnType;
+            this.returnExpression = returnExpression;
+            this.parameterType = parameterType;
+            this.parameterName = parameterName;
+            this.matcherParameter = matcherParameter;
+        }
+
+        String getMethodName() {
+            return methodName;
+        }
+
+        String getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * The expression returned by the method.
+         *
+         * @return the return expression, or null if the method is void
+         */
+        String getReturnExpression() {
+            return returnExpression;
+        }
+
+        String getParameterType() {
+            return parameterType;
+        }
+
+        String getParameterName() {
+            return parameterName;
+        }
+
+        boolean isMatcherParameter() {
+            return matcherParameter;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.mistraltech.smog.processor;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatcherProcessorTest {
+
+    @Test
+    public void reportsErrorWhenMatchedTypeHasNoGetterForProperty() throws IOException {
+        List<String> errors = compile("test.WidgetMatcher",
+                "package test;",
+                "@com.mistraltech.smog.core.annotation.Matches(test.Widget.class)",
+                "public interface WidgetMatcher extends org.hamcrest.Matcher<test.Widget> {",
+                "    WidgetMatcher hasColour(String colour);",
+                "}",
+                "class Widget {",
+                "    public String getName() { return null; }",
+                "}");
+
+        assertEquals(Collections.singletonList("Could not find accessor method on class Widget for property colour"), errors);
+    }
+
+    @Test
+    public void reportsErrorWhenMethodIsNotASetterMethod() throws IOException {
+        List<String> errors = compile("test.WidgetMatcher",
+                "package test;",
+                "@com.mistraltech.smog.core.annotation.Matches(test.Widget.class)",
+                "public interface WidgetMatcher extends org.hamcrest.Matcher<test.Widget> {",
+                "    WidgetMatcher withName(String name);",
+                "}",
+                "class Widget {",
+                "    public String getName() { return null; }",
+                "}");
+
+        assertEquals(Collections.singletonList("Method withName must be named hasXxx or be annotated with @MatchesProperty"), errors);
+    }
+
+    @Test
+    public void reportsErrorWhenTypeParameterIsNotSupported() throws IOException {
+        List<String> errors = compile("test.WidgetMatcher",
+                "package test;",
+                "@com.mistraltech.smog.core.annotation.Matches(test.Widget.class)",
+                "public interface WidgetMatcher<X> extends org.hamcrest.Matcher<test.Widget> {",
+                "}",
+                "class Widget {",
+                "}");
+
+        assertEquals(Collections.singletonList("Type parameter X must be bounded by either the matcher interface or the matched type"), errors);
+    }
+
+    @Test
+    public void ignoresAnnotatedClasses() throws IOException {
+        List<String> errors = compile("test.WidgetMatcher",
+                "package test;",
+                "@com.mistraltech.smog.core.annotation.Matches(test.Widget.class)",
+                "public abstract class WidgetMatcher implements org.hamcrest.Matcher<test.Widget> {",
+                "    public abstract WidgetMatcher withName(String name);",
+                "}",
+                "class Widget {",
+                "}");
+
+        assertTrue(errors.isEmpty(), "errors: " + errors);
+    }
+
+    private static List<String> compile(String className, String... lines) throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        final File outputDirectory = Files.createTempDirectory("smog-processor-test").toFile();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(outputDirectory));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(outputDirectory));
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", testClassPath()), null,
+                    Collections.singletonList(new SourceFile(className, String.join("\n", lines))));
+            task.setProcessors(Collections.singletonList(new MatcherProcessor()));
+            task.call();
+        }
+
+        List<String> errors = new ArrayList<String>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+
+        return errors;
+    }
+
+    private static String testClassPath() {
+        return System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
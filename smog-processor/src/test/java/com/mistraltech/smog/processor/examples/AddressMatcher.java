@@ -0,0 +1,15 @@
+package com.mistraltech.smog.processor.examples;
+
+import com.mistraltech.smog.core.annotation.Matches;
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.Matcher;
+
+@Matches(Address.class)
+public interface AddressMatcher extends Matcher<Address> {
+    AddressMatcher hasHouseNumber(Integer houseNumber);
+
+    AddressMatcher hasHouseNumber(Matcher<? super Integer> houseNumberMatcher);
+
+    AddressMatcher hasPostCode(Matcher<? super PostCode> postCodeMatcher);
+}
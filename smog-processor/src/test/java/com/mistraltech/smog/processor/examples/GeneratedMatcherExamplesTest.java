@@ -0,0 +1,164 @@
+package com.mistraltech.smog.processor.examples;
+
+import com.mistraltech.smog.core.CompiledMatcher;
+import com.mistraltech.smog.core.PropertyMatcher;
+import com.mistraltech.smog.examples.model.Address;
+import com.mistraltech.smog.examples.model.Addressee;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.Phone;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.mistraltech.smog.examples.model.PersonBuilder.aPerson;
+import static com.mistraltech.smog.examples.model.PhoneType.Home;
+import static com.mistraltech.smog.examples.utils.MatcherTestUtils.assertDescription;
+import static com.mistraltech.smog.examples.utils.MatcherTestUtils.assertMismatch;
+import static com.mistraltech.smog.processor.examples.AddressMatcherImpl.anAddressThat;
+import static com.mistraltech.smog.processor.examples.AddresseeMatcherImpl.anAddresseeLike;
+import static com.mistraltech.smog.processor.examples.AddresseeMatcherImpl.anAddresseeThat;
+import static com.mistraltech.smog.processor.examples.PersonMatcherImpl.aPersonLike;
+import static com.mistraltech.smog.processor.examples.PersonMatcherImpl.aPersonThat;
+import static com.mistraltech.smog.processor.examples.PostCodeMatcherImpl.aPostCodeThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class GeneratedMatcherExamplesTest {
+    private Person bob = aPerson()
+            .withName("bob")
+            .withAge(34)
+            .withAddress(new Address(21, new PostCode("out", "in")))
+            .addPhone(Home, new Phone("123", "456456"))
+            .build();
+
+    private Person dennis = aPerson()
+            .withName("dennis")
+            .withAge(36)
+            .withAddress(bob.getAddress())
+            .build();
+
+    @Test
+    public void testGeneratedMatcherSucceedsWhenMatches() {
+        Matcher<Person> matcher = is(aPersonThat().hasName("bob").hasAge(34));
+
+        assertDescription(matcher, "is a Person that (has name ('bob') and has age (<34>))");
+        assertThat(bob, matcher);
+    }
+
+    @Test
+    public void testGeneratedMatcherFailsWhenMismatches() {
+        Matcher<Person> matcher = is(aPersonThat().hasName("bob").hasAge(greaterThan(35)));
+
+        assertMismatch(dennis, matcher, "name was 'dennis' (expected 'bob')");
+    }
+
+    @Test
+    public void testGeneratedMatcherDescribesAllMismatches() {
+        Matcher<Person> matcher = is(aPersonThat().hasName("bob").hasAge(34));
+
+        assertMismatch(dennis, matcher, "name was 'dennis' (expected 'bob')\n     and: age was <36> (expected <34>)");
+    }
+
+    @Test
+    public void testGeneratedMatcherCanMatchPropertyNamedByAnnotation() {
+        Matcher<Person> matcher = is(aPersonThat().hasPhones(contains(new Phone("123", "456456"))));
+
+        assertThat(bob, matcher);
+    }
+
+    @Test
+    public void testGeneratedMatcherDoesNotReadExpensivePropertyOnceDecided() {
+        CountingMatcher<List<? extends Phone>> phonesMatcher = new CountingMatcher<List<? extends Phone>>();
+        Matcher<Person> matcher = aPersonThat().hasPhones(phonesMatcher).hasAge(99);
+
+        assertFalse(matcher.matches(bob));
+        assertEquals(0, phonesMatcher.getInvocationCount());
+
+        assertMismatch(bob, matcher, "age was <34> (expected <99>)");
+    }
+
+    @Test
+    public void testGeneratedMatcherCanMatchNestedObjects() {
+        Matcher<Person> matcher = is(aPersonThat()
+                .hasAddress(anAddressThat()
+                        .hasHouseNumber(21)
+                        .hasPostCode(aPostCodeThat().hasOuter("out").hasInner("out"))));
+
+        assertMismatch(bob, matcher, "address.postCode.inner was 'in' (expected 'out')");
+    }
+
+    @Test
+    public void testGeneratedMatcherCanBeCompiled() {
+        CompiledMatcher<Person> matcher = CompiledMatcher.compile(aPersonThat()
+                .hasName("bob")
+                .hasAddress(anAddressThat().hasHouseNumber(22)));
+
+        Matcher<?> mismatch = matcher.findMismatch(bob).orElse(null);
+
+        assertEquals("houseNumber", ((PropertyMatcher<?>) mismatch).getPropertyName());
+        assertMismatch(bob, matcher, "address.houseNumber was <21> (expected <22>)");
+    }
+
+    @Test
+    public void testGeneratedLikeFactoryReturnsPopulatedMatcher() {
+        Matcher<Person> matcher = is(aPersonLike(dennis).hasName("bob"));
+
+        // Name matches, but age has not been overridden and doesn't match
+        assertMismatch(bob, matcher, "age was <34> (expected <36>)");
+    }
+
+    @Test
+    public void testGeneratedSuperInterfaceMatcherCanBeUsedAlone() {
+        Matcher<Addressee> matcher = is(anAddresseeThat().hasName("bob"));
+
+        assertDescription(matcher, "is an Addressee that (has name ('bob'))");
+        assertThat(bob, matcher);
+        assertMismatch(dennis, matcher, "name was 'dennis' (expected 'bob')");
+    }
+
+    @Test
+    public void testGeneratedSuperInterfaceLikeFactoryReturnsPopulatedMatcher() {
+        Matcher<Addressee> matcher = is(anAddresseeLike(dennis));
+
+        assertMismatch(bob, matcher, "name was 'bob' (expected 'dennis')");
+    }
+
+    @Test
+    public void testGeneratedMatcherUsesDefaultDescription() {
+        assertDescription(anAddressThat().hasHouseNumber(21), "an Address that (has houseNumber (<21>))");
+    }
+
+    @Test
+    public void testSelfTypedSetterMethodsReturnConcreteMatcherType() {
+        PersonMatcherImpl.PersonMatcherType matcher = aPersonThat().hasName("bob").hasAge(34);
+
+        assertEquals(PersonMatcherImpl.PersonMatcherType.class, matcher.getClass());
+    }
+
+    private static class CountingMatcher<T> extends BaseMatcher<T> {
+        private int invocationCount;
+
+        @Override
+        public boolean matches(Object item) {
+            invocationCount++;
+            return true;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("anything");
+        }
+
+        public int getInvocationCount() {
+            return invocationCount;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mistraltech.smog.processor.examples;
+
+import com.mistraltech.smog.core.PropertyCost;
+import com.mistraltech.smog.core.annotation.Matches;
+import com.mistraltech.smog.core.annotation.MatchesProperty;
+import com.mistraltech.smog.examples.model.Person;
+import com.mistraltech.smog.examples.model.Phone;
+import org.hamcrest.Matcher;
+
+import java.util.List;
+
+@Matches(value = Person.class, description = "a Person")
+public interface PersonMatcher<R extends PersonMatcher<R, T>, T extends Person> extends AddresseeMatcher<R, T> {
+    // Phone list is copied and sorted on each call, so only read it if age matches
+    @MatchesProperty(value = "phoneList", cost = PropertyCost.EXPENSIVE)
+    R hasPhones(Matcher<? super List<? extends Phone>> phoneListMatcher);
+
+    R hasAge(int age);
+
+    R hasAge(Matcher<? super Integer> ageMatcher);
+}
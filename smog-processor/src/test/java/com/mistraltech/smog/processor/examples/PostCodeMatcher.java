@@ -0,0 +1,12 @@
+package com.mistraltech.smog.processor.examples;
+
+import com.mistraltech.smog.core.annotation.Matches;
+import com.mistraltech.smog.examples.model.PostCode;
+import org.hamcrest.Matcher;
+
+@Matches(PostCode.class)
+public interface PostCodeMatcher extends Matcher<PostCode> {
+    PostCodeMatcher hasInner(String inner);
+
+    PostCodeMatcher hasOuter(String outer);
+}